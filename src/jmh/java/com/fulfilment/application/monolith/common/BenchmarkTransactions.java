@@ -0,0 +1,78 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transaction synchronization registry for benchmarks of code that registers {@link TransactionCallbacks}:
+ * {@link #begin} starts a transaction and {@link #commit} runs its synchronizations, without JTA.
+ * Confined to one thread, so benchmarks using it keep their state per thread.
+ */
+public class BenchmarkTransactions implements TransactionSynchronizationRegistry {
+
+  private final Map<Object, Object> resources = new HashMap<>();
+  private final List<Synchronization> synchronizations = new ArrayList<>();
+  private boolean active;
+  private boolean rollbackOnly;
+
+  public void begin() {
+    active = true;
+  }
+
+  public void commit() {
+    complete(rollbackOnly ? Status.STATUS_ROLLEDBACK : Status.STATUS_COMMITTED);
+  }
+
+  public void rollback() {
+    complete(Status.STATUS_ROLLEDBACK);
+  }
+
+  private void complete(int status) {
+    synchronizations.forEach(Synchronization::beforeCompletion);
+    active = false;
+    synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    synchronizations.clear();
+    resources.clear();
+    rollbackOnly = false;
+  }
+
+  @Override
+  public Object getTransactionKey() {
+    return active ? this : null;
+  }
+
+  @Override
+  public void putResource(Object key, Object value) {
+    resources.put(key, value);
+  }
+
+  @Override
+  public Object getResource(Object key) {
+    return resources.get(key);
+  }
+
+  @Override
+  public void registerInterposedSynchronization(Synchronization sync) {
+    synchronizations.add(sync);
+  }
+
+  @Override
+  public int getTransactionStatus() {
+    return active ? Status.STATUS_ACTIVE : Status.STATUS_NO_TRANSACTION;
+  }
+
+  @Override
+  public void setRollbackOnly() {
+    rollbackOnly = true;
+  }
+
+  @Override
+  public boolean getRollbackOnly() {
+    return rollbackOnly;
+  }
+}
@@ -0,0 +1,78 @@
+package com.fulfilment.application.monolith.common;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Prefix searches of 1 to 4 characters with the default limit against an index of generated
+ * catalogue-like names, several of them with diacritics. Sampled, so that JMH reports percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class NamePrefixIndexBenchmark {
+
+  private static final String[] SYLLABLES = {
+      "bes", "tå", "kal", "lax", "ton", "stad", "hem", "nes", "lack", "mal", "ma", "bil", "ly",
+      "pax", "öd", "sjö", "grå", "ek", "ne", "vi", "ken", "fjäll", "bo", "ås"};
+  private static final int PREFIXES = 4096;
+
+  @Param({"1000000"})
+  public int names;
+
+  private NamePrefixIndex index;
+  private String[] prefixes;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    index = new NamePrefixIndex();
+    String[] generated = new String[names];
+    for (int id = 0; id < names; id++) {
+      StringBuilder name = new StringBuilder();
+      for (int syllable = 2 + random.nextInt(3); syllable > 0; syllable--) {
+        name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+      }
+      generated[id] = name.toString().toUpperCase();
+      index.put((long) id, generated[id]);
+    }
+    prefixes = new String[PREFIXES];
+    for (int i = 0; i < PREFIXES; i++) {
+      String name = generated[random.nextInt(names)];
+      prefixes[i] = name.substring(0, Math.min(name.length(), 1 + random.nextInt(4)));
+    }
+  }
+
+  @Benchmark
+  public List<NameMatch> search(Cursor cursor) {
+    return index.search(prefixes[cursor.next()], NamePrefixIndex.DEFAULT_LIMIT);
+  }
+
+  /** Walks the prefixes per thread. */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int position;
+
+    int next() {
+      position = (position + 1) & (PREFIXES - 1);
+      return position;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the previous linear stream scan over a list of locations with the hash-indexed
+ * {@link LocationGateway} registry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationLookupBenchmark {
+
+  private static final int PROBES = 1024;
+
+  @Param({"10000", "100000"})
+  int size;
+
+  private List<Location> locations;
+  private LocationGateway gateway;
+  private String[] probes;
+  private int next;
+  private Path registryFile;
+
+  @Setup
+  public void setup() throws IOException {
+    locations = new ArrayList<>(size);
+    registryFile = Files.createTempFile("locations-", ".csv");
+    try (Writer writer = Files.newBufferedWriter(registryFile, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < size; i++) {
+        Location location = new Location("LOC-" + i, 1 + i % 5, 50 + i % 200);
+        locations.add(location);
+        writer.write(location.getIdentification() + "," + location.getMaxNumberOfWarehouses()
+            + "," + location.getMaxCapacity() + "\n");
+      }
+    }
+    gateway = new LocationGateway(Optional.of(registryFile.toString()));
+
+    Random random = new Random(42);
+    probes = new String[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = "LOC-" + random.nextInt(size);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(registryFile);
+  }
+
+  @Benchmark
+  public Location streamScan() {
+    String identifier = nextProbe();
+    return locations.stream()
+        .filter(loc -> identifier.equals(loc.getIdentification()))
+        .findFirst()
+        .orElse(null);
+  }
+
+  @Benchmark
+  public Location registryLookup() {
+    return gateway.resolveByIdentifier(nextProbe());
+  }
+
+  private String nextProbe() {
+    next = (next + 1) & (PROBES - 1);
+    return probes[next];
+  }
+}
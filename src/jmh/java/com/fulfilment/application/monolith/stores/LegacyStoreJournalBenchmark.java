@@ -0,0 +1,75 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.common.SegmentedJournal;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.jboss.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the previous legacy store write, a temp file created, written, read back and deleted
+ * per event, with a durable append to the {@link SegmentedJournal}. Runs with several threads so
+ * that the journal's group commit can share fsyncs between them; the temp files are never synced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LegacyStoreJournalBenchmark {
+
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreJournalBenchmark.class.getName());
+  private static final String CONTENT = "Store updated. [ id =42 ] [ name =HAARLEM ] [ items on stock =10]";
+
+  private Path directory;
+  private SegmentedJournal journal;
+
+  @Setup
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("legacy-store-journal-");
+    journal = new SegmentedJournal(directory, 64 * 1024 * 1024);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    LOGGER.infof("Journal after the run: %s", journal.stats());
+    journal.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Benchmark
+  public String tempFilePerEvent() throws IOException {
+    Path tempFile = Files.createTempFile("HAARLEM", ".txt");
+    Files.write(tempFile, CONTENT.getBytes());
+    String readContent = new String(Files.readAllBytes(tempFile));
+    Files.delete(tempFile);
+    return readContent;
+  }
+
+  @Benchmark
+  public long journalAppend() throws IOException {
+    return journal.append(CONTENT.getBytes(StandardCharsets.UTF_8));
+  }
+}
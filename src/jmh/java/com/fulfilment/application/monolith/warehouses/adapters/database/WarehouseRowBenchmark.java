@@ -0,0 +1,45 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Mapping of the projected database rows to the domain model, active and archived. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseRowBenchmark {
+
+  private WarehouseRow active;
+  private WarehouseRow archived;
+
+  @Setup
+  public void setup() {
+    LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 0);
+    active = new WarehouseRow("MWH.001", "ZWOLLE-001", 100, 10, createdAt, null, 3L);
+    archived = new WarehouseRow("MWH.002", "ZWOLLE-001", 100, 10, createdAt, createdAt.plusDays(30), 4L);
+  }
+
+  @Benchmark
+  public Warehouse toDomain() {
+    return active.toDomain();
+  }
+
+  @Benchmark
+  public Warehouse archivedToDomain() {
+    return archived.toDomain();
+  }
+}
@@ -0,0 +1,105 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.warehouse.api.beans.Warehouse;
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapping of domain warehouses to the generated API beans, and their JSON with an object mapper
+ * configured like the Quarkus default one: a single warehouse, a page of the listing, and a create
+ * request body.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseApiBenchmark {
+
+  @Param({"100"})
+  int pageSize;
+
+  private com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domain;
+  private Warehouse api;
+  private List<Warehouse> page;
+  private byte[] requestBody;
+  private ObjectWriter warehouseWriter;
+  private ObjectWriter pageWriter;
+  private ObjectReader warehouseReader;
+
+  @Setup
+  public void setup() throws JsonProcessingException {
+    ObjectMapper mapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    warehouseWriter = mapper.writerFor(Warehouse.class);
+    pageWriter = mapper.writerFor(new TypeReference<List<Warehouse>>() {});
+    warehouseReader = mapper.readerFor(Warehouse.class);
+
+    domain = domainWarehouse(1);
+    api = WarehouseResourceImpl.toApi(domain);
+    page = new ArrayList<>(pageSize);
+    for (int i = 0; i < pageSize; i++) {
+      page.add(WarehouseResourceImpl.toApi(domainWarehouse(i)));
+    }
+    Warehouse request = WarehouseResourceImpl.toApi(domain);
+    request.setVersion(null);
+    requestBody = warehouseWriter.writeValueAsBytes(request);
+  }
+
+  @Benchmark
+  public Warehouse toApi() {
+    return WarehouseResourceImpl.toApi(domain);
+  }
+
+  @Benchmark
+  public byte[] serializeWarehouse() throws JsonProcessingException {
+    return warehouseWriter.writeValueAsBytes(api);
+  }
+
+  @Benchmark
+  public byte[] serializePage() throws JsonProcessingException {
+    return pageWriter.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public Warehouse deserializeWarehouse() throws IOException {
+    return warehouseReader.readValue(requestBody);
+  }
+
+  private static com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domainWarehouse(int i) {
+    com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse =
+        new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
+    warehouse.setBusinessUnitCode(String.format("MWH.%06d", i));
+    warehouse.setLocation("AMSTERDAM-" + String.format("%03d", i % 1000));
+    warehouse.setCapacity(100 + i % 50);
+    warehouse.setStock(i % 100);
+    warehouse.setCreationAt(ZonedDateTime.of(2024, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC));
+    warehouse.setVersion((long) i % 7);
+    return warehouse;
+  }
+}
@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.warehouses.domain;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Locations in a hash map, standing in for the location registry in benchmarks. */
+public class InMemoryLocationResolver implements LocationResolver {
+
+  private final Map<String, Location> locations = new HashMap<>();
+
+  public InMemoryLocationResolver add(Location location) {
+    locations.put(location.getIdentification(), location);
+    return this;
+  }
+
+  @Override
+  public Location resolveByIdentifier(String identifier) {
+    return identifier != null ? locations.get(identifier) : null;
+  }
+}
@@ -0,0 +1,207 @@
+package com.fulfilment.application.monolith.warehouses.domain;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Warehouses in a sorted map by business unit code, standing in for the database in benchmarks of
+ * the domain layer. Like the database adapter it hands out copies, and checks versions on update.
+ * Not thread safe.
+ */
+public class InMemoryWarehouseStore implements WarehouseStore {
+
+  private final TreeMap<String, Warehouse> warehouses = new TreeMap<>();
+  private final Map<String, Long> ids = new HashMap<>();
+  private long nextId;
+
+  @Override
+  public void create(Warehouse warehouse) {
+    if (warehouses.containsKey(warehouse.getBusinessUnitCode())) {
+      throw new WarehouseValidationException("Business unit code already exists: " + warehouse.getBusinessUnitCode());
+    }
+    warehouse.setVersion(0L);
+    warehouses.put(warehouse.getBusinessUnitCode(), copy(warehouse));
+    ids.put(warehouse.getBusinessUnitCode(), ++nextId);
+  }
+
+  @Override
+  public void update(Warehouse warehouse) {
+    Warehouse stored = stored(warehouse);
+    stored.setLocation(warehouse.getLocation());
+    stored.setCapacity(warehouse.getCapacity());
+    stored.setStock(warehouse.getStock());
+    bumpVersion(warehouse, stored);
+  }
+
+  @Override
+  public void archive(Warehouse warehouse) {
+    Warehouse stored = stored(warehouse);
+    stored.setArchivedAt(warehouse.getArchivedAt());
+    bumpVersion(warehouse, stored);
+  }
+
+  /** Takes back the archiving of a warehouse, so benchmarks can archive it again. */
+  public void unarchive(String buCode) {
+    warehouses.get(buCode).setArchivedAt(null);
+  }
+
+  @Override
+  public void remove(Warehouse warehouse) {
+    warehouses.remove(warehouse.getBusinessUnitCode());
+    ids.remove(warehouse.getBusinessUnitCode());
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCode(String buCode) {
+    Warehouse stored = warehouses.get(buCode);
+    return stored != null ? copy(stored) : null;
+  }
+
+  @Override
+  public List<Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+    return buCodes.stream().map(this::findByBusinessUnitCode).filter(Objects::nonNull).toList();
+  }
+
+  @Override
+  public Map<String, Long> findActiveIds(Collection<String> buCodes) {
+    Map<String, Long> activeIds = new HashMap<>();
+    for (String buCode : buCodes) {
+      Warehouse stored = warehouses.get(buCode);
+      if (stored != null && stored.getArchivedAt() == null) {
+        activeIds.put(buCode, ids.get(buCode));
+      }
+    }
+    return activeIds;
+  }
+
+  @Override
+  public void createAll(List<Warehouse> batch) {
+    batch.forEach(this::create);
+  }
+
+  @Override
+  public void updateAll(List<Warehouse> batch) {
+    for (Warehouse warehouse : batch) {
+      Warehouse stored = stored(warehouse);
+      stored.setLocation(warehouse.getLocation());
+      stored.setCapacity(warehouse.getCapacity());
+      stored.setStock(warehouse.getStock());
+      stored.setArchivedAt(warehouse.getArchivedAt());
+    }
+  }
+
+  @Override
+  public long countActiveByLocation(String locationId) {
+    return active().filter(w -> locationId.equals(w.getLocation())).count();
+  }
+
+  @Override
+  public int sumCapacityByLocation(String locationId) {
+    return active().filter(w -> locationId.equals(w.getLocation())).mapToInt(InMemoryWarehouseStore::capacityOf).sum();
+  }
+
+  @Override
+  public Map<String, LocationOccupancy> occupancyByLocation() {
+    return occupancies(active());
+  }
+
+  @Override
+  public Map<String, LocationOccupancy> occupancyOfActive(Collection<String> buCodes) {
+    return occupancies(active().filter(w -> buCodes.contains(w.getBusinessUnitCode())));
+  }
+
+  @Override
+  public int archiveAll(Collection<String> buCodes, ZonedDateTime archivedAt) {
+    return archiveWhere(active().filter(w -> buCodes.contains(w.getBusinessUnitCode())).toList(), archivedAt);
+  }
+
+  @Override
+  public int archiveAllAtLocation(String locationId, ZonedDateTime archivedAt) {
+    return archiveWhere(active().filter(w -> locationId.equals(w.getLocation())).toList(), archivedAt);
+  }
+
+  @Override
+  public List<Warehouse> listActive() {
+    return active().map(InMemoryWarehouseStore::copy).toList();
+  }
+
+  @Override
+  public List<Warehouse> listActivePage(String after, int limit) {
+    Collection<Warehouse> from = after == null ? warehouses.values() : warehouses.tailMap(after, false).values();
+    return from.stream()
+        .filter(w -> w.getArchivedAt() == null)
+        .limit(limit)
+        .map(InMemoryWarehouseStore::copy)
+        .toList();
+  }
+
+  @Override
+  public void forEachActive(Consumer<Warehouse> consumer) {
+    active().map(InMemoryWarehouseStore::copy).forEach(consumer);
+  }
+
+  private Stream<Warehouse> active() {
+    return warehouses.values().stream().filter(w -> w.getArchivedAt() == null);
+  }
+
+  private Warehouse stored(Warehouse warehouse) {
+    Warehouse stored = warehouses.get(warehouse.getBusinessUnitCode());
+    if (stored == null) {
+      throw new IllegalArgumentException("Warehouse not found: " + warehouse.getBusinessUnitCode());
+    }
+    if (warehouse.getVersion() != null && !warehouse.getVersion().equals(stored.getVersion())) {
+      throw new WarehouseVersionConflictException(
+          "Warehouse " + warehouse.getBusinessUnitCode() + " was changed since version " + warehouse.getVersion());
+    }
+    return stored;
+  }
+
+  private static void bumpVersion(Warehouse warehouse, Warehouse stored) {
+    stored.setVersion(stored.getVersion() + 1);
+    if (warehouse.getVersion() != null) {
+      warehouse.setVersion(stored.getVersion());
+    }
+  }
+
+  private static int archiveWhere(List<Warehouse> matching, ZonedDateTime archivedAt) {
+    matching.forEach(w -> {
+      w.setArchivedAt(archivedAt);
+      w.setVersion(w.getVersion() + 1);
+    });
+    return matching.size();
+  }
+
+  private static Map<String, LocationOccupancy> occupancies(Stream<Warehouse> active) {
+    Map<String, LocationOccupancy> occupancies = new HashMap<>();
+    active.filter(w -> w.getLocation() != null)
+        .forEach(w -> occupancies.merge(w.getLocation(), new LocationOccupancy(1, capacityOf(w)),
+            LocationOccupancy::plus));
+    return occupancies;
+  }
+
+  private static int capacityOf(Warehouse warehouse) {
+    return warehouse.getCapacity() != null ? warehouse.getCapacity() : 0;
+  }
+
+  private static Warehouse copy(Warehouse source) {
+    Warehouse copy = new Warehouse();
+    copy.setBusinessUnitCode(source.getBusinessUnitCode());
+    copy.setLocation(source.getLocation());
+    copy.setCapacity(source.getCapacity());
+    copy.setStock(source.getStock());
+    copy.setCreationAt(source.getCreationAt());
+    copy.setArchivedAt(source.getArchivedAt());
+    copy.setVersion(source.getVersion());
+    return copy;
+  }
+}
@@ -0,0 +1,96 @@
+package com.fulfilment.application.monolith.warehouses.domain;
+
+import com.fulfilment.application.monolith.common.BenchmarkTransactions;
+import com.fulfilment.application.monolith.common.TransactionCallbacks;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The validation steps of the warehouse use cases against the occupancy ledger, including a
+ * rejection, which pays for the exception.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseValidatorBenchmark {
+
+  private static final int LOCATIONS = 1024;
+
+  private WarehouseValidator validator;
+  private String[] locationIds;
+  private Location[] locations;
+  private int next;
+
+  @Setup
+  public void setup() {
+    InMemoryLocationResolver resolver = new InMemoryLocationResolver();
+    InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+    locationIds = new String[LOCATIONS];
+    locations = new Location[LOCATIONS];
+    for (int i = 0; i < LOCATIONS; i++) {
+      locationIds[i] = "LOC-" + i;
+      locations[i] = new Location(locationIds[i], 5, 1000);
+      resolver.add(locations[i]);
+      for (int w = 0; w < 3; w++) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode("MWH." + i + "." + w);
+        warehouse.setLocation(locationIds[i]);
+        warehouse.setCapacity(100);
+        warehouse.setStock(0);
+        store.create(warehouse);
+      }
+    }
+    LocationOccupancyLedger ledger = new LocationOccupancyLedger(
+        store, new TransactionCallbacks(new BenchmarkTransactions()), Duration.ofSeconds(5));
+    ledger.rebuild();
+    validator = new WarehouseValidator(resolver, ledger);
+  }
+
+  @Benchmark
+  public Location validateLocation() {
+    return validator.validateLocation(locationIds[nextIndex()]);
+  }
+
+  @Benchmark
+  public void validateLocationFeasibility() {
+    int i = nextIndex();
+    validator.validateLocationFeasibility(locations[i], locationIds[i]);
+  }
+
+  @Benchmark
+  public void validateCapacity() {
+    int i = nextIndex();
+    validator.validateCapacity(locations[i], locationIds[i], 200, null);
+  }
+
+  @Benchmark
+  public WarehouseValidationException rejectCapacity() {
+    int i = nextIndex();
+    try {
+      validator.validateCapacity(locations[i], locationIds[i], 1000, null);
+      throw new IllegalStateException("Capacity was accepted");
+    } catch (WarehouseValidationException e) {
+      return e;
+    }
+  }
+
+  private int nextIndex() {
+    next = (next + 1) & (LOCATIONS - 1);
+    return next;
+  }
+}
@@ -0,0 +1,145 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.common.BenchmarkTransactions;
+import com.fulfilment.application.monolith.common.TransactionCallbacks;
+import com.fulfilment.application.monolith.warehouses.domain.InMemoryLocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.InMemoryWarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidator;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The create, replace and archive use cases, with their validation, location locks and ledger
+ * updates, against in-memory stand-ins for the database and the location registry, so that only
+ * the domain layer is measured. Every op runs in a transaction of {@link BenchmarkTransactions} and
+ * then takes its change back on the stand-ins, so each op starts from the same state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseUseCaseBenchmark {
+
+  private static final int LOCATIONS = 1000;
+  private static final int CAPACITY = 100;
+  private static final int STOCK = 10;
+
+  @Param({"10000"})
+  int warehouses;
+
+  private BenchmarkTransactions transactions;
+  private InMemoryWarehouseStore store;
+  private LocationOccupancyLedger ledger;
+  private CreateWarehouseUseCase createUseCase;
+  private ReplaceWarehouseUseCase replaceUseCase;
+  private ArchiveWarehouseUseCase archiveUseCase;
+  private String[] codes;
+  private String[] newCodes;
+  private String[] locations;
+  private boolean[] grown;
+  private int next;
+
+  @Setup
+  public void setup() {
+    transactions = new BenchmarkTransactions();
+    TransactionCallbacks callbacks = new TransactionCallbacks(transactions);
+    int perLocation = (warehouses + LOCATIONS - 1) / LOCATIONS;
+    InMemoryLocationResolver resolver = new InMemoryLocationResolver();
+    locations = new String[LOCATIONS];
+    for (int i = 0; i < LOCATIONS; i++) {
+      locations[i] = "LOC-" + i;
+      // room for one more warehouse, and for every warehouse growing
+      resolver.add(new Location(locations[i], perLocation + 1, (perLocation + 1) * CAPACITY * 2));
+    }
+
+    store = new InMemoryWarehouseStore();
+    codes = new String[warehouses];
+    newCodes = new String[warehouses];
+    grown = new boolean[warehouses];
+    for (int i = 0; i < warehouses; i++) {
+      codes[i] = "MWH." + i;
+      newCodes[i] = "MWH.NEW." + i;
+      store.create(warehouse(codes[i], locationOf(i), CAPACITY));
+    }
+    ledger = new LocationOccupancyLedger(store, callbacks, Duration.ofSeconds(5));
+    ledger.rebuild();
+
+    WarehouseValidator validator = new WarehouseValidator(resolver, ledger);
+    createUseCase = new CreateWarehouseUseCase(store, validator, ledger);
+    replaceUseCase = new ReplaceWarehouseUseCase(store, validator, ledger);
+    archiveUseCase = new ArchiveWarehouseUseCase(store, ledger);
+  }
+
+  @Benchmark
+  public Warehouse create() {
+    int i = nextIndex();
+    Warehouse warehouse = warehouse(newCodes[i], locationOf(i), CAPACITY);
+    transactions.begin();
+    createUseCase.create(warehouse);
+    transactions.commit();
+
+    store.remove(warehouse);
+    ledger.recordAfterCommit(warehouse.getLocation(), -1, -CAPACITY);
+    return warehouse;
+  }
+
+  @Benchmark
+  public Warehouse replace() {
+    int i = nextIndex();
+    // the capacity alternates, so that the ledger sees a change every time
+    grown[i] = !grown[i];
+    Warehouse warehouse = warehouse(codes[i], locationOf(i), grown[i] ? CAPACITY * 2 : CAPACITY);
+    transactions.begin();
+    replaceUseCase.replace(warehouse);
+    transactions.commit();
+    return warehouse;
+  }
+
+  @Benchmark
+  public Warehouse archive() {
+    int i = nextIndex();
+    Warehouse warehouse = new Warehouse();
+    warehouse.setBusinessUnitCode(codes[i]);
+    transactions.begin();
+    archiveUseCase.archive(warehouse);
+    transactions.commit();
+
+    store.unarchive(codes[i]);
+    ledger.recordAfterCommit(locationOf(i), 1, grown[i] ? CAPACITY * 2 : CAPACITY);
+    return warehouse;
+  }
+
+  private int nextIndex() {
+    next = next + 1 == warehouses ? 0 : next + 1;
+    return next;
+  }
+
+  private String locationOf(int index) {
+    return locations[index % LOCATIONS];
+  }
+
+  private static Warehouse warehouse(String code, String location, int capacity) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.setBusinessUnitCode(code);
+    warehouse.setLocation(location);
+    warehouse.setCapacity(capacity);
+    warehouse.setStock(STOCK);
+    return warehouse;
+  }
+}
@@ -0,0 +1,53 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version counter per collection, bumped once a transaction that changed the collection
+ * has committed. List responses derive their ETag from it, so an unchanged list can be answered
+ * with 304 without querying the database.
+ *
+ * <p>Counters start over on restart; the ETag includes a random epoch chosen at startup so that a
+ * restarted instance never reuses an ETag. Counters only see writes made through this instance.
+ */
+@ApplicationScoped
+public class CollectionVersions {
+
+  public static final String STORES = "stores";
+  public static final String PRODUCTS = "products";
+  public static final String WAREHOUSES = "warehouses";
+
+  private final TransactionCallbacks transactionCallbacks;
+  private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+  private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+  public CollectionVersions(TransactionCallbacks transactionCallbacks) {
+    this.transactionCallbacks = transactionCallbacks;
+  }
+
+  /** Bumps the version of the collection after the current transaction commits. */
+  public void bumpAfterCommit(String collection) {
+    transactionCallbacks.afterCommit(() -> counter(collection).incrementAndGet());
+  }
+
+  public long version(String collection) {
+    return counter(collection).get();
+  }
+
+  /**
+   * ETag value of a listing of the collection at the given version. Listings with different query
+   * parameters, e.g. pages, get different ETags.
+   */
+  public String etag(String collection, long version, String query) {
+    String etag = collection + "-" + epoch + "-" + version;
+    return query == null || query.isEmpty() ? etag : etag + "-" + Integer.toHexString(query.hashCode());
+  }
+
+  private AtomicLong counter(String collection) {
+    return versions.computeIfAbsent(collection, key -> new AtomicLong());
+  }
+}
@@ -0,0 +1,94 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import java.util.Map;
+
+/**
+ * Conditional GET for the collection listings. The version of the collection is read before the
+ * resource runs and its {@link CollectionVersions#etag ETag} is added to a successful response; a
+ * request whose If-None-Match already matches it is answered with 304 before the resource, and so
+ * the database, is reached.
+ *
+ * <p>The version is taken before the listing is queried, so a write committing meanwhile can only
+ * make the ETag older than the content, which costs the client one extra fetch, never a stale 304.
+ */
+@Provider
+public class ConditionalGetFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  private static final String ETAG_PROPERTY = ConditionalGetFilter.class.getName() + ".etag";
+
+  private static final Map<String, String> COLLECTIONS = Map.of(
+      "stores", CollectionVersions.STORES,
+      "product", CollectionVersions.PRODUCTS,
+      "warehouse", CollectionVersions.WAREHOUSES,
+      "warehouse/stream", CollectionVersions.WAREHOUSES);
+
+  private final CollectionVersions collectionVersions;
+
+  public ConditionalGetFilter(CollectionVersions collectionVersions) {
+    this.collectionVersions = collectionVersions;
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request) {
+    if (!HttpMethod.GET.equals(request.getMethod())) {
+      return;
+    }
+    String collection = COLLECTIONS.get(trimSlashes(request.getUriInfo().getPath()));
+    if (collection == null) {
+      return;
+    }
+    String etag = collectionVersions.etag(collection, collectionVersions.version(collection),
+        request.getUriInfo().getRequestUri().getRawQuery());
+    if (matches(request.getHeaderString(HttpHeaders.IF_NONE_MATCH), etag)) {
+      request.abortWith(Response.notModified(new EntityTag(etag)).build());
+      return;
+    }
+    request.setProperty(ETAG_PROPERTY, etag);
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+    Object etag = request.getProperty(ETAG_PROPERTY);
+    if (etag != null && response.getStatus() == Response.Status.OK.getStatusCode()) {
+      response.getHeaders().putSingle(HttpHeaders.ETAG, new EntityTag((String) etag));
+    }
+  }
+
+  // If-None-Match uses weak comparison, so a W/ prefix is ignored
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals("*") || tag.equals("\"" + etag + "\"")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String trimSlashes(String path) {
+    int start = 0;
+    int end = path.length();
+    while (start < end && path.charAt(start) == '/') {
+      start++;
+    }
+    while (end > start && path.charAt(end - 1) == '/') {
+      end--;
+    }
+    return path.substring(start, end);
+  }
+}
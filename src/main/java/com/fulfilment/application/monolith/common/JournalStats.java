@@ -0,0 +1,8 @@
+package com.fulfilment.application.monolith.common;
+
+/**
+ * Figures of a {@link SegmentedJournal}: {@code records} appended and {@code syncs} (fsyncs)
+ * performed since it was opened. Fewer syncs than records means appends were group committed.
+ */
+public record JournalStats(String directory, int segments, long endOffset, long records, long syncs) {
+}
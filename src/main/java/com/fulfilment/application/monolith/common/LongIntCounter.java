@@ -0,0 +1,134 @@
+package com.fulfilment.application.monolith.common;
+
+/**
+ * Counts per {@code long} key in two primitive arrays, without boxing keys or counts.
+ *
+ * <p>An open-addressing table with linear probing: a key lives in the first free slot from its
+ * hash, and a removed key's successors are shifted back so that lookups never need tombstones.
+ * Keys whose count drops to zero are removed. Key 0 marks a free slot and cannot be counted. Not
+ * thread safe.
+ */
+public class LongIntCounter {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private int[] counts;
+  private int size;
+
+  public LongIntCounter() {
+    keys = new long[MIN_CAPACITY];
+    counts = new int[MIN_CAPACITY];
+  }
+
+  /** Packs two ids of up to 32 bits into one key, e.g. to count per pair of ids. */
+  public static long pack(long high, long low) {
+    if (high >>> 32 != 0 || low >>> 32 != 0) {
+      throw new IllegalArgumentException("Ids must fit in 32 bits: " + high + ", " + low);
+    }
+    return high << 32 | low;
+  }
+
+  public int get(long key) {
+    int slot = find(key);
+    return slot >= 0 ? counts[slot] : 0;
+  }
+
+  /**
+   * Adds {@code delta} to the count of the key.
+   *
+   * @return the new count
+   * @throws IllegalStateException if the count would go below zero
+   */
+  public int add(long key, int delta) {
+    if (key == 0) {
+      throw new IllegalArgumentException("Key 0 cannot be counted");
+    }
+    int slot = find(key);
+    int count = (slot >= 0 ? counts[slot] : 0) + delta;
+    if (count < 0) {
+      throw new IllegalStateException("Count of " + key + " would go below zero");
+    }
+    if (slot >= 0) {
+      if (count == 0) {
+        removeAt(slot);
+      } else {
+        counts[slot] = count;
+      }
+    } else if (count > 0) {
+      if (2 * (size + 1) > keys.length) {
+        resize(keys.length * 2);
+      }
+      insert(key, count);
+    }
+    return count;
+  }
+
+  /** Number of keys with a count above zero. */
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    keys = new long[MIN_CAPACITY];
+    counts = new int[MIN_CAPACITY];
+    size = 0;
+  }
+
+  private int find(long key) {
+    int mask = keys.length - 1;
+    for (int slot = home(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  private void insert(long key, int count) {
+    int mask = keys.length - 1;
+    int slot = home(key, mask);
+    while (keys[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    counts[slot] = count;
+    size++;
+  }
+
+  private void removeAt(int slot) {
+    int mask = keys.length - 1;
+    int gap = slot;
+    for (int next = (slot + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+      int home = home(keys[next], mask);
+      // the entry can fill the gap unless its home lies cyclically after the gap
+      boolean homeAfterGap = gap <= next ? home > gap && home <= next : home > gap || home <= next;
+      if (!homeAfterGap) {
+        keys[gap] = keys[next];
+        counts[gap] = counts[next];
+        gap = next;
+      }
+    }
+    keys[gap] = 0;
+    counts[gap] = 0;
+    size--;
+  }
+
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldCounts = counts;
+    keys = new long[capacity];
+    counts = new int[capacity];
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != 0) {
+        insert(oldKeys[i], oldCounts[i]);
+      }
+    }
+  }
+
+  private static int home(long key, int mask) {
+    // Fibonacci hashing spreads packed pairs that differ only in their low bits
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+  }
+}
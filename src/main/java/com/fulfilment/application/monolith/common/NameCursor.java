@@ -0,0 +1,33 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.ws.rs.WebApplicationException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by name, then id: the name and id of the last row of a page.
+ * Clients only see it {@linkplain #encode encoded} as an opaque token to pass back as {@code after}.
+ */
+public record NameCursor(String name, long id) {
+
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  public String encode() {
+    String raw = id + ":" + name;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Decodes a token from {@link #encode}; null stays null, anything malformed is rejected with 422. */
+  public static NameCursor decode(String token) {
+    if (token == null) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(':');
+      return new NameCursor(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new WebApplicationException("Invalid cursor: " + token, 422);
+    }
+  }
+}
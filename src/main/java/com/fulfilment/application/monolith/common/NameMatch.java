@@ -0,0 +1,8 @@
+package com.fulfilment.application.monolith.common;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/** A name found by a {@link NamePrefixIndex} search, with the id it belongs to. */
+@RegisterForReflection
+public record NameMatch(Long id, String name) {
+}
@@ -0,0 +1,45 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination of listings ordered by name, then id. A page is read with one row more than
+ * the limit; when that extra row is there, the response carries the cursor of the last row in the
+ * {@value NameCursor#NEXT_CURSOR_HEADER} header and as a {@code Link} with {@code rel="next"}.
+ */
+public final class NamePages {
+
+  public static final int DEFAULT_PAGE_SIZE = 100;
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private NamePages() {
+  }
+
+  /** The page size to use: the default when a cursor comes without limit, null for no paging. */
+  public static Integer pageSize(String after, Integer limit) {
+    if (limit == null) {
+      return after == null ? null : DEFAULT_PAGE_SIZE;
+    }
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new WebApplicationException("Limit must be between 1 and " + MAX_PAGE_SIZE, 422);
+    }
+    return limit;
+  }
+
+  /** Builds the response for rows read with {@code limit + 1}. */
+  public static <T> Response toResponse(List<T> rows, int limit, Function<T, NameCursor> cursorOf,
+      UriInfo uriInfo) {
+    if (rows.size() <= limit) {
+      return Response.ok(rows).build();
+    }
+    String next = cursorOf.apply(rows.get(limit - 1)).encode();
+    return Response.ok(rows.subList(0, limit))
+        .header(NameCursor.NEXT_CURSOR_HEADER, next)
+        .link(uriInfo.getRequestUriBuilder().replaceQueryParam("after", next).build(), "next")
+        .build();
+  }
+}
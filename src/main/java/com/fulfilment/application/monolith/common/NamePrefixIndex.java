@@ -0,0 +1,118 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.ws.rs.WebApplicationException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of names by id for prefix (typeahead) search.
+ *
+ * <p>Names are kept in a skip list sorted by their {@linkplain #normalize normalized} form, so a
+ * search is a range scan from the prefix that stops after {@code limit} entries: its cost does not
+ * depend on the number of names. Matching ignores case and diacritics, e.g. {@code "besta"} finds
+ * {@code "BESTÅ"}. Searches never lock; changes to one id are serialized.
+ */
+public class NamePrefixIndex {
+
+  public static final int DEFAULT_LIMIT = 10;
+  public static final int MAX_LIMIT = 100;
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  // letters that Unicode does not decompose into a base letter and a mark
+  private static final Map<String, String> LIGATURES = Map.of(
+      "ø", "o", "æ", "ae", "œ", "oe", "ß", "ss", "đ", "d", "ł", "l", "þ", "th");
+  private static final char KEY_SEPARATOR = '\u0000';
+
+  private final ConcurrentSkipListMap<String, NameMatch> byName = new ConcurrentSkipListMap<>();
+  private final ConcurrentHashMap<Long, String> keysById = new ConcurrentHashMap<>();
+
+  /** Adds the name of the id, replacing its previous name. A null name removes the id. */
+  public void put(Long id, String name) {
+    if (name == null) {
+      remove(id);
+      return;
+    }
+    String key = normalize(name) + KEY_SEPARATOR + id;
+    keysById.compute(id, (ignored, previous) -> {
+      if (previous != null && !previous.equals(key)) {
+        byName.remove(previous);
+      }
+      byName.put(key, new NameMatch(id, name));
+      return key;
+    });
+  }
+
+  public void remove(Long id) {
+    keysById.computeIfPresent(id, (ignored, key) -> {
+      byName.remove(key);
+      return null;
+    });
+  }
+
+  public void clear() {
+    keysById.clear();
+    byName.clear();
+  }
+
+  /** Up to {@code limit} names starting with the prefix, in normalized name order. */
+  public List<NameMatch> search(String prefix, int limit) {
+    String from = normalize(prefix);
+    ConcurrentNavigableMap<String, NameMatch> range = from.isEmpty()
+        ? byName
+        : byName.subMap(from, true, from + Character.MAX_VALUE, false);
+    List<NameMatch> matches = new ArrayList<>(Math.min(limit, 64));
+    for (NameMatch match : range.values()) {
+      if (matches.size() == limit) {
+        break;
+      }
+      matches.add(match);
+    }
+    return matches;
+  }
+
+  /** The number of matches to return: the default when no limit is given. */
+  public static int searchLimit(Integer limit) {
+    if (limit == null) {
+      return DEFAULT_LIMIT;
+    }
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new WebApplicationException("Limit must be between 1 and " + MAX_LIMIT, 422);
+    }
+    return limit;
+  }
+
+  public int size() {
+    return keysById.size();
+  }
+
+  /** Lower case without diacritics: {@code "BESTÅ"} becomes {@code "besta"}. */
+  static String normalize(String name) {
+    if (isAscii(name)) {
+      return name.toLowerCase(Locale.ROOT);
+    }
+    String normalized = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("")
+        .toLowerCase(Locale.ROOT);
+    for (Map.Entry<String, String> ligature : LIGATURES.entrySet()) {
+      if (normalized.contains(ligature.getKey())) {
+        normalized = normalized.replace(ligature.getKey(), ligature.getValue());
+      }
+    }
+    return normalized;
+  }
+
+  private static boolean isAscii(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      if (name.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
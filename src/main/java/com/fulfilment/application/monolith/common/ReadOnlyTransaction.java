@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the method in a transaction of its own, or in the current one if there is any, with the
+ * Hibernate session switched to read-only and flushing disabled for the duration of the call. An
+ * exception thrown out of the call does not mark the current transaction for rollback.
+ *
+ * <p>Entities loaded in it are not snapshotted for dirty checking and nothing is flushed, so it is
+ * meant for read paths only. Writes made through the session inside it are silently dropped.
+ */
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyTransaction {
+}
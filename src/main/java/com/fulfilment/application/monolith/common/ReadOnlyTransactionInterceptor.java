@@ -0,0 +1,64 @@
+package com.fulfilment.application.monolith.common;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+@ReadOnlyTransaction
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 200)
+public class ReadOnlyTransactionInterceptor {
+
+  private final Session session;
+
+  public ReadOnlyTransactionInterceptor(Session session) {
+    this.session = session;
+  }
+
+  @AroundInvoke
+  Object readOnly(InvocationContext context) throws Exception {
+    try {
+      // a joined transaction would be marked rollback-only by any exception thrown out of the call,
+      // including the 404s of the read paths that the caller may handle
+      if (QuarkusTransaction.isActive()) {
+        return proceedReadOnly(context);
+      }
+      return QuarkusTransaction.requiringNew().call(() -> proceedReadOnly(context));
+    } catch (WrappedException e) {
+      throw e.getCause();
+    }
+  }
+
+  // restores the session settings so that a joined read-write transaction keeps flushing its changes
+  private Object proceedReadOnly(InvocationContext context) {
+    boolean defaultReadOnly = session.isDefaultReadOnly();
+    FlushMode flushMode = session.getHibernateFlushMode();
+    session.setDefaultReadOnly(true);
+    session.setHibernateFlushMode(FlushMode.MANUAL);
+    try {
+      return context.proceed();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new WrappedException(e);
+    } finally {
+      session.setHibernateFlushMode(flushMode);
+      session.setDefaultReadOnly(defaultReadOnly);
+    }
+  }
+
+  private static final class WrappedException extends RuntimeException {
+    WrappedException(Exception cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized Exception getCause() {
+      return (Exception) super.getCause();
+    }
+  }
+}
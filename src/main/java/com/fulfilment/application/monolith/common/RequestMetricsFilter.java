@@ -0,0 +1,80 @@
+package com.fulfilment.application.monolith.common;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+import java.time.Duration;
+
+/**
+ * Records the latency and the number of SQL statements of every request per REST operation, that
+ * is per resource method, as {@code rest.operation} and {@code rest.operation.db.statements}.
+ *
+ * <p>It runs before the other request filters and after the other response filters, so requests
+ * answered by a filter, such as a 304 of {@link ConditionalGetFilter}, are counted against the
+ * operation they were matched to.
+ */
+@Provider
+@Priority(1)
+public class RequestMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  private static final String START_PROPERTY = RequestMetricsFilter.class.getName() + ".start";
+  private static final String UNMATCHED = "unmatched";
+
+  private final MeterRegistry registry;
+  private final RequestStatementCount statementCount;
+
+  @Context
+  ResourceInfo resourceInfo;
+
+  public RequestMetricsFilter(MeterRegistry registry, RequestStatementCount statementCount) {
+    this.registry = registry;
+    this.statementCount = statementCount;
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request) {
+    request.setProperty(START_PROPERTY, System.nanoTime());
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+    Object start = request.getProperty(START_PROPERTY);
+    if (start == null) {
+      return;
+    }
+    String operation = operation();
+    String outcome = Outcome.forStatus(response.getStatus()).name();
+    Timer.builder("rest.operation")
+        .description("Latency of the REST operations")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(Duration.ofNanos(System.nanoTime() - (Long) start));
+    DistributionSummary.builder("rest.operation.db.statements")
+        .description("SQL statements prepared per request of the REST operations")
+        .tag("operation", operation)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(1.0)
+        .maximumExpectedValue(1000.0)
+        .register(registry)
+        .record(statementCount.get());
+  }
+
+  private String operation() {
+    Method method = resourceInfo != null ? resourceInfo.getResourceMethod() : null;
+    return method != null
+        ? resourceInfo.getResourceClass().getSimpleName() + "." + method.getName()
+        : UNMATCHED;
+  }
+}
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/** Number of SQL statements Hibernate prepared while serving the current request. */
+@RequestScoped
+public class RequestStatementCount {
+
+  private int count;
+
+  void increment() {
+    count++;
+  }
+
+  public int get() {
+    return count;
+  }
+}
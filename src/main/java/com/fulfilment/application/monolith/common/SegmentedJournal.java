@@ -0,0 +1,261 @@
+package com.fulfilment.application.monolith.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of opaque records, stored in a directory as fixed-size segment files.
+ *
+ * <p>Every record has a journal-wide offset. A segment file is named after the offset of its first
+ * byte and preallocated to the segment size when it is created. A record is written as its payload
+ * length, a CRC32C of the payload and the payload itself; it never spans two segments. A record
+ * that does not fit in the rest of the current segment starts a new one.
+ *
+ * <p>{@link #append} returns once the record is on disk. Concurrent appenders share their fsyncs
+ * (group commit): the first of them to get to the disk forces everything written so far, and the
+ * others whose records that covered return without forcing again.
+ *
+ * <p>On open the end of the journal is found by scanning the last segment up to the first empty or
+ * corrupt record, so a record torn by a crash is dropped and overwritten by the next append.
+ */
+public class SegmentedJournal implements Closeable {
+
+  static final String SEGMENT_SUFFIX = ".journal";
+  static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+
+  /** Receives the records of a {@linkplain #replay replay} with their offsets. */
+  @FunctionalInterface
+  public interface RecordConsumer {
+    void accept(long offset, byte[] payload);
+  }
+
+  private final Path directory;
+  private final int segmentSize;
+  private final Object writeLock = new Object();
+  private final Object syncLock = new Object();
+  private final AtomicLong durableOffset = new AtomicLong();
+  private final AtomicLong records = new AtomicLong();
+  private final AtomicLong syncs = new AtomicLong();
+
+  // guarded by writeLock
+  private long segmentBase;
+  private FileChannel channel;
+  private int position;
+  private volatile long endOffset;
+  private int segments;
+
+  public SegmentedJournal(Path directory, int segmentSize) throws IOException {
+    if (segmentSize <= HEADER_SIZE) {
+      throw new IllegalArgumentException("Segment size must be larger than " + HEADER_SIZE);
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    Files.createDirectories(directory);
+
+    List<Long> bases = segmentBases();
+    segments = bases.size();
+    if (bases.isEmpty()) {
+      openSegment(0);
+    } else {
+      segmentBase = bases.get(bases.size() - 1);
+      channel = FileChannel.open(segmentPath(segmentBase), StandardOpenOption.READ, StandardOpenOption.WRITE);
+      long end = scan(channel, segmentBase, segmentBase, segmentBase + segmentSize, null);
+      position = (int) (end - segmentBase);
+    }
+    endOffset = segmentBase + position;
+    durableOffset.set(endOffset);
+  }
+
+  /**
+   * Appends a record and waits until it is durable. Records are not empty: a zero length marks the
+   * end of the written part of a segment.
+   *
+   * @return the offset of the record
+   */
+  public long append(byte[] payload) throws IOException {
+    if (payload.length == 0) {
+      throw new IllegalArgumentException("Record must not be empty");
+    }
+    int size = HEADER_SIZE + payload.length;
+    if (size > segmentSize) {
+      throw new IllegalArgumentException(
+          "Record of " + payload.length + " bytes does not fit in a segment of " + segmentSize);
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+
+    long offset;
+    long end;
+    synchronized (writeLock) {
+      if (position + size > segmentSize) {
+        rotate();
+      }
+      offset = segmentBase + position;
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      end = segmentBase + position;
+      endOffset = end;
+    }
+    records.incrementAndGet();
+    sync(end);
+    return offset;
+  }
+
+  /**
+   * Passes every record from {@code fromOffset} on to the consumer, in order.
+   *
+   * @param fromOffset offset of a record, as returned by {@link #append}, or of the journal end
+   * @return the offset after the last record, to continue the replay from later
+   */
+  public long replay(long fromOffset, RecordConsumer consumer) throws IOException {
+    long end = endOffset;
+    if (fromOffset > end) {
+      throw new IllegalArgumentException("Offset " + fromOffset + " is beyond the journal end " + end);
+    }
+    long next = fromOffset;
+    for (long base : segmentBases()) {
+      if (base + segmentSize <= next || base >= end) {
+        continue;
+      }
+      long limit = Math.min(base + segmentSize, end);
+      try (FileChannel segment = FileChannel.open(segmentPath(base), StandardOpenOption.READ)) {
+        next = scan(segment, base, Math.max(base, next), limit, consumer);
+      }
+    }
+    return next;
+  }
+
+  /** Offset right after the last appended record. */
+  public long endOffset() {
+    return endOffset;
+  }
+
+  public JournalStats stats() {
+    synchronized (writeLock) {
+      return new JournalStats(directory.toString(), segments, endOffset, records.get(), syncs.get());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (writeLock) {
+      channel.force(false);
+      channel.close();
+    }
+  }
+
+  // forces the current segment unless a concurrent sync already covered everything up to end
+  private void sync(long end) throws IOException {
+    if (durableOffset.get() >= end) {
+      return;
+    }
+    synchronized (syncLock) {
+      if (durableOffset.get() >= end) {
+        return;
+      }
+      long target;
+      FileChannel current;
+      synchronized (writeLock) {
+        target = endOffset;
+        current = channel;
+      }
+      try {
+        current.force(false);
+        syncs.incrementAndGet();
+      } catch (ClosedChannelException e) {
+        // rotated meanwhile, and rotation forces the segment before closing it
+      }
+      durableOffset.accumulateAndGet(target, Math::max);
+    }
+  }
+
+  private void rotate() throws IOException {
+    channel.force(false);
+    syncs.incrementAndGet();
+    channel.close();
+    durableOffset.accumulateAndGet(segmentBase + position, Math::max);
+    openSegment(segmentBase + position);
+  }
+
+  private void openSegment(long base) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(segmentPath(base).toFile(), "rw")) {
+      file.setLength(segmentSize);
+    }
+    channel = FileChannel.open(segmentPath(base), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    segmentBase = base;
+    position = 0;
+    segments++;
+  }
+
+  // reads records from offset up to limit or the first empty or corrupt one; returns where it stopped
+  private static long scan(FileChannel segment, long base, long offset, long limit,
+      RecordConsumer consumer) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    long next = offset;
+    while (next + HEADER_SIZE <= limit) {
+      header.clear();
+      if (!readFully(segment, header, next - base)) {
+        break;
+      }
+      int length = header.getInt(0);
+      int checksum = header.getInt(Integer.BYTES);
+      if (length <= 0 || next + HEADER_SIZE + length > limit) {
+        break;
+      }
+      ByteBuffer payload = ByteBuffer.allocate(length);
+      if (!readFully(segment, payload, next - base + HEADER_SIZE)
+          || checksum(payload.array()) != checksum) {
+        break;
+      }
+      if (consumer != null) {
+        consumer.accept(next, payload.array());
+      }
+      next += HEADER_SIZE + length;
+    }
+    return next;
+  }
+
+  private static boolean readFully(FileChannel segment, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (segment.read(buffer, position + buffer.position()) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int checksum(byte[] payload) {
+    CRC32C crc = new CRC32C();
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+
+  private List<Long> segmentBases() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      List<Long> bases = new ArrayList<>();
+      files.map(path -> path.getFileName().toString())
+          .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+          .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+          .sorted()
+          .forEach(bases::add);
+      return bases;
+    }
+  }
+
+  private Path segmentPath(long base) {
+    return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+  }
+}
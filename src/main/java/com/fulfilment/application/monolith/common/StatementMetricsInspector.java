@@ -0,0 +1,30 @@
+package com.fulfilment.application.monolith.common;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares against the request being served, so that
+ * {@link RequestMetricsFilter} can report them per REST operation. Statements prepared outside a
+ * request, by the scheduled jobs for instance, are not counted.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class StatementMetricsInspector implements StatementInspector {
+
+  private final RequestStatementCount requestStatementCount;
+
+  public StatementMetricsInspector(RequestStatementCount requestStatementCount) {
+    this.requestStatementCount = requestStatementCount;
+  }
+
+  @Override
+  public String inspect(String sql) {
+    if (Arc.container().requestContext().isActive()) {
+      requestStatementCount.increment();
+    }
+    return sql;
+  }
+}
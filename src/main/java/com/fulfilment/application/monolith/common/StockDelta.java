@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.common;
+
+/**
+ * Request to change a stock level by {@code delta} instead of replacing it.
+ *
+ * <p>Unless {@code allowNegative} is set, a delta that would take the stock below zero is rejected.
+ * A {@code buffered} delta is only accumulated in memory and applied with other deltas in the next
+ * periodic flush; as the stock it will be applied to is not known yet, it is never guarded and so
+ * requires {@code allowNegative}.
+ */
+public record StockDelta(int delta, boolean allowNegative, boolean buffered) {
+}
@@ -0,0 +1,62 @@
+package com.fulfilment.application.monolith.common;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates stock deltas per id in memory until they are {@linkplain #drain drained}.
+ *
+ * <p>Each id has a {@link LongAdder}, which spreads concurrent increments over striped cells, so
+ * threads adding to the same hot id do not contend on one counter. Draining resets every cell
+ * atomically, so a delta added concurrently is either part of the drained sum or left for the
+ * next drain, never lost.
+ *
+ * <p>The stock columns are ints, so a delta is only taken while the pending sum of its id stays in
+ * the int range, and a drain never hands out a sum outside it.
+ */
+public class StockDeltaBuffer {
+
+  private final ConcurrentMap<Long, LongAdder> deltas = new ConcurrentHashMap<>();
+
+  /**
+   * Adds the delta to the pending sum of the id.
+   *
+   * @return false, without adding it, when the pending sum would leave the int range
+   */
+  public boolean add(Long id, int delta) {
+    LongAdder adder = deltas.computeIfAbsent(id, key -> new LongAdder());
+    long pending = adder.sum() + delta;
+    if (pending > Integer.MAX_VALUE || pending < Integer.MIN_VALUE) {
+      return false;
+    }
+    adder.add(delta);
+    return true;
+  }
+
+  /**
+   * Takes the accumulated non-zero deltas, leaving zero behind. Concurrent adds can take a sum past
+   * the int range, as add checks it before adding; the part beyond it is left for the next drain.
+   */
+  public Map<Long, Long> drain() {
+    Map<Long, Long> drained = new HashMap<>();
+    deltas.forEach((id, adder) -> {
+      long delta = adder.sumThenReset();
+      long inRange = Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, delta));
+      if (inRange != delta) {
+        adder.add(delta - inRange);
+      }
+      if (inRange != 0) {
+        drained.put(id, inRange);
+      }
+    });
+    return drained;
+  }
+
+  /** Puts drained deltas back, e.g. when applying them failed. */
+  public void restore(Map<Long, Long> drained) {
+    drained.forEach((id, delta) -> deltas.computeIfAbsent(id, key -> new LongAdder()).add(delta));
+  }
+}
@@ -0,0 +1,5 @@
+package com.fulfilment.application.monolith.common;
+
+/** Outcome of a {@link StockDelta}: the new stock, or null when the delta was buffered. */
+public record StockDeltaResult(Long id, Integer stock, boolean buffered) {
+}
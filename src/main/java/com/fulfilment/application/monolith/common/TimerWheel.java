@@ -0,0 +1,102 @@
+package com.fulfilment.application.monolith.common;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: a ring of slots, one per tick, holding the timeouts due in that tick.
+ *
+ * <p>Scheduling adds the timeout to the slot of its deadline, rounded up to the next tick, without
+ * locking; a deadline further away than one revolution shares its slot with nearer ones and is
+ * kept there until its tick comes. Time only moves when {@link #advance} is called, by one thread
+ * at a time, which fires the timeouts of every tick passed since the previous call. A timeout thus
+ * fires at most one tick plus the interval between advances after its deadline, never before.
+ *
+ * @param <T> the item a timeout fires with
+ */
+public class TimerWheel<T> {
+
+  private static final class Timeout<T> {
+
+    private final T item;
+    private final long deadlineTick;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private Timeout(T item, long deadlineTick) {
+      this.item = item;
+      this.deadlineTick = deadlineTick;
+    }
+  }
+
+  private final long tickMillis;
+  private final List<Queue<Timeout<T>>> slots;
+  // tick whose slot was last drained; timeouts are never added to a slot at or before it
+  private volatile long processedTick;
+
+  public TimerWheel(Duration tick, int slotCount, long nowMillis) {
+    if (tick.toMillis() < 1 || slotCount < 1) {
+      throw new IllegalArgumentException("Tick and slot count must be positive");
+    }
+    this.tickMillis = tick.toMillis();
+    this.slots = new ArrayList<>(slotCount);
+    for (int i = 0; i < slotCount; i++) {
+      slots.add(new ConcurrentLinkedQueue<>());
+    }
+    this.processedTick = nowMillis / tickMillis;
+  }
+
+  public void schedule(T item, long deadlineMillis) {
+    Timeout<T> timeout = new Timeout<>(item, -Math.floorDiv(-deadlineMillis, tickMillis));
+    long processed = processedTick;
+    long target = Math.max(timeout.deadlineTick, processed + 1);
+    slot(target).add(timeout);
+    // advance may have drained the target slot meanwhile; then the timeout goes to a later slot,
+    // and should both copies be seen, the first one to fire marks it done
+    while ((processed = processedTick) >= target) {
+      target = processed + 1;
+      slot(target).add(timeout);
+    }
+  }
+
+  /**
+   * Moves the wheel to {@code nowMillis}, passing the item of every timeout due by then to
+   * {@code fired}.
+   *
+   * @return the number of timeouts fired
+   */
+  public synchronized int advance(long nowMillis, Consumer<T> fired) {
+    long nowTick = nowMillis / tickMillis;
+    if (nowTick <= processedTick) {
+      return 0;
+    }
+    // after a pause longer than a revolution every slot is drained once
+    long start = Math.max(processedTick + 1, nowTick - slots.size() + 1);
+    processedTick = start - 1;
+    int count = 0;
+    List<Timeout<T>> later = new ArrayList<>();
+    for (long tick = start; tick <= nowTick; tick++) {
+      processedTick = tick;
+      Queue<Timeout<T>> slot = slot(tick);
+      for (Timeout<T> timeout; (timeout = slot.poll()) != null; ) {
+        if (timeout.deadlineTick > nowTick) {
+          later.add(timeout);
+        } else if (timeout.done.compareAndSet(false, true)) {
+          fired.accept(timeout.item);
+          count++;
+        }
+      }
+      slot.addAll(later);
+      later.clear();
+    }
+    return count;
+  }
+
+  private Queue<Timeout<T>> slot(long tick) {
+    return slots.get((int) Math.floorMod(tick, (long) slots.size()));
+  }
+}
@@ -0,0 +1,119 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.jboss.logging.Logger;
+
+/**
+ * Defers work until the current JTA transaction completes.
+ *
+ * <p>All callbacks of a transaction are collected in a single synchronization and run in
+ * registration order: first the {@link #afterCommit} actions (only when the transaction
+ * committed) or the {@link #afterRollback} actions (only when it did not), then the
+ * {@link #afterCompletion} actions (always). A failing callback is logged and
+ * does not prevent the remaining ones from running. Without an active transaction the action runs
+ * immediately.
+ *
+ * <p>{@link #transactionLocal} binds a value to the current transaction, e.g. to remember which
+ * resources it already holds.
+ */
+@ApplicationScoped
+public class TransactionCallbacks {
+
+  private static final Logger LOGGER = Logger.getLogger(TransactionCallbacks.class.getName());
+
+  private final TransactionSynchronizationRegistry registry;
+
+  public TransactionCallbacks(TransactionSynchronizationRegistry registry) {
+    this.registry = registry;
+  }
+
+  public boolean isTransactionActive() {
+    return registry.getTransactionStatus() == Status.STATUS_ACTIVE;
+  }
+
+  public void afterCommit(Runnable action) {
+    if (!isTransactionActive()) {
+      action.run();
+      return;
+    }
+    callbacks().commitActions.add(action);
+  }
+
+  /** Runs the action if the current transaction does not commit; without one it never runs. */
+  public void afterRollback(Runnable action) {
+    if (isTransactionActive()) {
+      callbacks().rollbackActions.add(action);
+    }
+  }
+
+  public void afterCompletion(Runnable action) {
+    if (!isTransactionActive()) {
+      action.run();
+      return;
+    }
+    callbacks().completionActions.add(action);
+  }
+
+  /**
+   * Returns the value bound to {@code key} in the current transaction, creating it on first use.
+   * Without an active transaction a new value is returned on every call.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T transactionLocal(Object key, Supplier<T> initialValue) {
+    if (!isTransactionActive()) {
+      return initialValue.get();
+    }
+    T value = (T) registry.getResource(key);
+    if (value == null) {
+      value = initialValue.get();
+      registry.putResource(key, value);
+    }
+    return value;
+  }
+
+  private Callbacks callbacks() {
+    Callbacks callbacks = (Callbacks) registry.getResource(Callbacks.class);
+    if (callbacks == null) {
+      callbacks = new Callbacks();
+      registry.putResource(Callbacks.class, callbacks);
+      registry.registerInterposedSynchronization(callbacks);
+    }
+    return callbacks;
+  }
+
+  private static final class Callbacks implements Synchronization {
+
+    private final List<Runnable> commitActions = new ArrayList<>();
+    private final List<Runnable> rollbackActions = new ArrayList<>();
+    private final List<Runnable> completionActions = new ArrayList<>();
+
+    @Override
+    public void beforeCompletion() {
+      // No action required before completion
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      if (status == Status.STATUS_COMMITTED) {
+        commitActions.forEach(Callbacks::runSafely);
+      } else {
+        rollbackActions.forEach(Callbacks::runSafely);
+      }
+      completionActions.forEach(Callbacks::runSafely);
+    }
+
+    private static void runSafely(Runnable action) {
+      try {
+        action.run();
+      } catch (RuntimeException e) {
+        LOGGER.error("Transaction completion callback failed", e);
+      }
+    }
+  }
+}
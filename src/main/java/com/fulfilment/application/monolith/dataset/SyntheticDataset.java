@@ -0,0 +1,288 @@
+package com.fulfilment.application.monolith.dataset;
+
+import com.fulfilment.application.monolith.location.LocationGateway;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.interceptor.Interceptor;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import javax.sql.DataSource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Fills the database with a synthetic dataset for scale tests when {@code dataset.generate} is set,
+ * as it is in the {@code scale} profile: {@code dataset.stores} stores, {@code dataset.products}
+ * products and {@code dataset.warehouses} warehouses spread over {@code dataset.locations}
+ * generated locations.
+ *
+ * <ul>
+ *   <li>Warehouses pick their location from a Zipf distribution with exponent
+ *       {@code dataset.location-skew}, so {@code SCALE-000001} is the hottest location and most
+ *       locations have few warehouses or none.
+ *   <li>A share {@code dataset.archived-share} of the warehouses is archived.
+ *   <li>Product and store stock follows a Pareto distribution with exponent {@code dataset.stock-tail}:
+ *       most have a little stock, a long tail has a lot.
+ * </ul>
+ *
+ * <p>The rows are written with plain JDBC in batches of {@code dataset.batch-size}, each committed
+ * on its own, bypassing Hibernate, and the id sequences are moved past them. The generated locations
+ * are written with the bundled ones to {@code location.registry.file}, with room for a few more
+ * warehouses each, and the registry is reloaded. The generator runs before the in-memory indexes
+ * are rebuilt at startup, so they include the generated rows. A seed makes the dataset repeatable;
+ * when its first warehouse exists already the generator does nothing.
+ */
+@ApplicationScoped
+public class SyntheticDataset {
+
+  private static final Logger LOGGER = Logger.getLogger(SyntheticDataset.class.getName());
+
+  static final String LOCATION_FORMAT = "SCALE-%06d";
+  static final String WAREHOUSE_FORMAT = "SWH.%07d";
+  private static final String STORE_FORMAT = "STORE-%07d";
+  private static final String PRODUCT_FORMAT = "PRODUCT-%07d";
+  private static final int MIN_CAPACITY = 20;
+  private static final int MAX_CAPACITY = 500;
+  private static final int MAX_STOCK = 1_000_000;
+  private static final int WAREHOUSE_AGE_DAYS = 5 * 365;
+
+  private final DataSource dataSource;
+  private final Instance<LocationGateway> locationGateway;
+  private final boolean enabled;
+  private final int stores;
+  private final int products;
+  private final int warehouses;
+  private final int locations;
+  private final double locationSkew;
+  private final double archivedShare;
+  private final double stockTail;
+  private final int batchSize;
+  private final long seed;
+  private final Optional<String> registryFile;
+
+  public SyntheticDataset(
+      DataSource dataSource,
+      Instance<LocationGateway> locationGateway,
+      @ConfigProperty(name = "dataset.generate", defaultValue = "false") boolean enabled,
+      @ConfigProperty(name = "dataset.stores", defaultValue = "1000000") int stores,
+      @ConfigProperty(name = "dataset.products", defaultValue = "2000000") int products,
+      @ConfigProperty(name = "dataset.warehouses", defaultValue = "1000000") int warehouses,
+      @ConfigProperty(name = "dataset.locations", defaultValue = "20000") int locations,
+      @ConfigProperty(name = "dataset.location-skew", defaultValue = "1.0") double locationSkew,
+      @ConfigProperty(name = "dataset.archived-share", defaultValue = "0.2") double archivedShare,
+      @ConfigProperty(name = "dataset.stock-tail", defaultValue = "1.2") double stockTail,
+      @ConfigProperty(name = "dataset.batch-size", defaultValue = "1000") int batchSize,
+      @ConfigProperty(name = "dataset.seed", defaultValue = "42") long seed,
+      @ConfigProperty(name = "location.registry.file") Optional<String> registryFile) {
+    this.dataSource = dataSource;
+    this.locationGateway = locationGateway;
+    this.enabled = enabled;
+    this.stores = stores;
+    this.products = products;
+    this.warehouses = warehouses;
+    this.locations = locations;
+    this.locationSkew = locationSkew;
+    this.archivedShare = archivedShare;
+    this.stockTail = stockTail;
+    this.batchSize = batchSize;
+    this.seed = seed;
+    this.registryFile = registryFile;
+  }
+
+  // before the observers that rebuild the in-memory indexes from the database
+  void onStart(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) StartupEvent event) {
+    if (enabled) {
+      generate();
+    }
+  }
+
+  /** Writes the dataset unless it exists already. */
+  public void generate() {
+    if (registryFile.isEmpty()) {
+      throw new IllegalStateException("The generated locations need a location.registry.file to be written to");
+    }
+    long start = System.nanoTime();
+    SplittableRandom random = new SplittableRandom(seed);
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      if (exists(connection)) {
+        LOGGER.infof("Synthetic dataset with seed %d exists already, not generating it", seed);
+        return;
+      }
+      insertStores(connection, random.split());
+      insertProducts(connection, random.split());
+      Occupancy occupancy = insertWarehouses(connection, random.split());
+      writeLocations(Path.of(registryFile.get()), occupancy);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to generate the synthetic dataset", e);
+    }
+    // the gateway may have loaded the registry before it was written
+    locationGateway.get().reload();
+    LOGGER.infof("Generated synthetic dataset in %d s", (System.nanoTime() - start) / 1_000_000_000);
+  }
+
+  private boolean exists(Connection connection) throws SQLException {
+    try (PreparedStatement query =
+        connection.prepareStatement("select count(*) from warehouse where businessUnitCode = ?")) {
+      query.setString(1, String.format(WAREHOUSE_FORMAT, 1));
+      try (ResultSet result = query.executeQuery()) {
+        result.next();
+        return result.getLong(1) > 0;
+      }
+    }
+  }
+
+  private void insertStores(Connection connection, SplittableRandom random) throws SQLException {
+    insert(connection, "store", "insert into store(id, name, quantityProductsInStock) values (?, ?, ?)",
+        stores, (insert, i) -> {
+          insert.setString(2, String.format(STORE_FORMAT, i + 1));
+          insert.setInt(3, longTail(random));
+        });
+  }
+
+  private void insertProducts(Connection connection, SplittableRandom random) throws SQLException {
+    insert(connection, "product",
+        "insert into product(id, name, description, price, stock) values (?, ?, ?, ?, ?)",
+        products, (insert, i) -> {
+          insert.setString(2, String.format(PRODUCT_FORMAT, i + 1));
+          insert.setString(3, "Synthetic product " + (i + 1));
+          insert.setBigDecimal(4, BigDecimal.valueOf(99 + random.nextInt(100_000), 2));
+          insert.setInt(5, longTail(random));
+        });
+  }
+
+  private Occupancy insertWarehouses(Connection connection, SplittableRandom random) throws SQLException {
+    ZipfSampler locationSampler = new ZipfSampler(locations, locationSkew);
+    Occupancy occupancy = new Occupancy(locations);
+    LocalDateTime now = LocalDateTime.now().withNano(0);
+    insert(connection, "warehouse",
+        "insert into warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt, version)"
+            + " values (?, ?, ?, ?, ?, ?, ?, 0)",
+        warehouses, (insert, i) -> {
+          int location = locationSampler.sample(random);
+          int capacity = random.nextInt(MIN_CAPACITY, MAX_CAPACITY + 1);
+          int ageMinutes = random.nextInt(WAREHOUSE_AGE_DAYS * 24 * 60) + 1;
+          LocalDateTime createdAt = now.minusMinutes(ageMinutes);
+          insert.setString(2, String.format(WAREHOUSE_FORMAT, i + 1));
+          insert.setString(3, String.format(LOCATION_FORMAT, location + 1));
+          insert.setInt(4, capacity);
+          insert.setInt(5, random.nextInt(capacity + 1));
+          insert.setTimestamp(6, Timestamp.valueOf(createdAt));
+          if (random.nextDouble() < archivedShare) {
+            insert.setTimestamp(7, Timestamp.valueOf(createdAt.plusMinutes(random.nextInt(ageMinutes))));
+          } else {
+            insert.setNull(7, Types.TIMESTAMP);
+            occupancy.warehouses[location]++;
+            occupancy.capacity[location] += capacity;
+          }
+        });
+    return occupancy;
+  }
+
+  // the id is the first parameter of the insert; the writer sets the others
+  private void insert(Connection connection, String table, String sql, int count, RowWriter writer)
+      throws SQLException {
+    long start = System.nanoTime();
+    long firstId = nextId(connection, table);
+    try (PreparedStatement insert = connection.prepareStatement(sql)) {
+      for (int i = 0; i < count; i++) {
+        insert.setLong(1, firstId + i);
+        writer.write(insert, i);
+        insert.addBatch();
+        if ((i + 1) % batchSize == 0 || i == count - 1) {
+          insert.executeBatch();
+          connection.commit();
+        }
+      }
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH " + (firstId + count));
+    }
+    connection.commit();
+    long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+    LOGGER.infof("Generated %d rows of %s in %d ms (%d rows/s)", count, table, millis, count * 1000L / millis);
+  }
+
+  private static long nextId(Connection connection, String table) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery("select coalesce(max(id), 0) + 1 from " + table)) {
+      result.next();
+      return result.getLong(1);
+    }
+  }
+
+  // Pareto with minimum 1: half of the values are at most 2^(1/tail), a few are in the thousands
+  private int longTail(SplittableRandom random) {
+    double value = Math.pow(1 - random.nextDouble(), -1 / stockTail);
+    return (int) Math.min(MAX_STOCK, Math.floor(value));
+  }
+
+  // every location gets room for a tenth more warehouses than it has, and at least two
+  private void writeLocations(Path path, Occupancy occupancy) {
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+        writer.write(bundledLocations());
+        writer.write("\n# generated with seed " + seed + "\n");
+        for (int location = 0; location < locations; location++) {
+          int extra = Math.max(2, occupancy.warehouses[location] / 10);
+          writer.write(String.format(LOCATION_FORMAT, location + 1) + ","
+              + (occupancy.warehouses[location] + extra) + ","
+              + Math.min(Integer.MAX_VALUE, occupancy.capacity[location] + (long) extra * MAX_CAPACITY)
+              + "\n");
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write the generated locations to " + path, e);
+    }
+    LOGGER.infof("Wrote %d generated locations to %s", locations, path);
+  }
+
+  private static String bundledLocations() throws IOException {
+    try (InputStream bundled =
+        SyntheticDataset.class.getClassLoader().getResourceAsStream(LocationGateway.BUNDLED_REGISTRY)) {
+      if (bundled == null) {
+        throw new IllegalStateException("Bundled location registry not found: " + LocationGateway.BUNDLED_REGISTRY);
+      }
+      return new String(bundled.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  @FunctionalInterface
+  private interface RowWriter {
+    void write(PreparedStatement insert, int index) throws SQLException;
+  }
+
+  // active warehouses and their capacity by location rank
+  private static final class Occupancy {
+
+    private final int[] warehouses;
+    private final long[] capacity;
+
+    private Occupancy(int locations) {
+      this.warehouses = new int[locations];
+      this.capacity = new long[locations];
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.fulfilment.application.monolith.dataset;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Samples ranks {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^exponent},
+ * so that rank 0 is the most frequent and the frequencies fall off in a long tail; an exponent of 0
+ * samples uniformly.
+ */
+final class ZipfSampler {
+
+  private final double[] cumulative;
+
+  ZipfSampler(int n, double exponent) {
+    if (n < 1 || exponent < 0) {
+      throw new IllegalArgumentException("Rank count must be positive and exponent not negative");
+    }
+    cumulative = new double[n];
+    double total = 0;
+    for (int rank = 0; rank < n; rank++) {
+      total += 1 / Math.pow(rank + 1, exponent);
+      cumulative[rank] = total;
+    }
+  }
+
+  int sample(SplittableRandom random) {
+    double point = random.nextDouble() * cumulative[cumulative.length - 1];
+    int found = Arrays.binarySearch(cumulative, point);
+    // a miss returns -(insertion point) - 1, the first rank whose cumulative weight exceeds point
+    return Math.min(found >= 0 ? found + 1 : -found - 1, cumulative.length - 1);
+  }
+}
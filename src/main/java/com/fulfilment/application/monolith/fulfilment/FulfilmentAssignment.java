@@ -0,0 +1,5 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+/** Request to let a warehouse, by business unit code, supply a product to a store. */
+public record FulfilmentAssignment(Long productId, Long storeId, String warehouse) {
+}
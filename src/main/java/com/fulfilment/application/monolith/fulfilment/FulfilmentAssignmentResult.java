@@ -0,0 +1,25 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+/**
+ * Outcome of one assignment of a bulk request: the id of the created unit, or why it was rejected.
+ */
+public record FulfilmentAssignmentResult(int index, Status status, Long id, String error) {
+
+  public enum Status {
+    APPLIED,
+    /** A product id, store id or warehouse is missing. */
+    INVALID,
+    /** The product, store or active warehouse does not exist. */
+    NOT_FOUND,
+    /** The unit exists already or would break a limit rule. */
+    CONFLICT
+  }
+
+  static FulfilmentAssignmentResult applied(int index, Long id) {
+    return new FulfilmentAssignmentResult(index, Status.APPLIED, id, null);
+  }
+
+  static FulfilmentAssignmentResult rejected(int index, Status status, String error) {
+    return new FulfilmentAssignmentResult(index, status, null, error);
+  }
+}
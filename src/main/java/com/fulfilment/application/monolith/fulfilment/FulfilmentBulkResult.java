@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import java.util.List;
+
+public record FulfilmentBulkResult(int applied, int rejected, List<FulfilmentAssignmentResult> results) {
+
+  static FulfilmentBulkResult of(List<FulfilmentAssignmentResult> results) {
+    int applied = (int) results.stream()
+        .filter(result -> result.status() == FulfilmentAssignmentResult.Status.APPLIED)
+        .count();
+    return new FulfilmentBulkResult(applied, results.size() - applied, results);
+  }
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+/** Fulfilment units could not be changed in time because another transaction is changing them. */
+public class FulfilmentBusyException extends RuntimeException {
+
+  public FulfilmentBusyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,177 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import static com.fulfilment.application.monolith.common.LongIntCounter.pack;
+
+import com.fulfilment.application.monolith.common.LongIntCounter;
+import com.fulfilment.application.monolith.common.TransactionCallbacks;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * In-memory counts of the fulfilment units by product, store and warehouse id, so that the limit
+ * rules are checked without count queries:
+ *
+ * <ul>
+ *   <li>a product is supplied to a store by at most {@code fulfilment.max-warehouses-per-product-per-store}
+ *       warehouses,
+ *   <li>a store is supplied by at most {@code fulfilment.max-warehouses-per-store} warehouses,
+ *   <li>a warehouse supplies at most {@code fulfilment.max-products-per-warehouse} product types.
+ * </ul>
+ *
+ * <p>Pairs of ids are packed into one {@code long} key of a {@link LongIntCounter}. The index is
+ * rebuilt from the database at startup. A transaction {@linkplain #lock locks} the index before it
+ * checks the rules and holds it until it completes, so its checks and changes never interleave with
+ * another transaction's; its changes are counted right away, so later checks of the same
+ * transaction see them, and taken back if it rolls back.
+ */
+@ApplicationScoped
+public class FulfilmentConstraintIndex {
+
+  private static final Logger LOGGER = Logger.getLogger(FulfilmentConstraintIndex.class.getName());
+
+  private final FulfilmentUnitRepository unitRepository;
+  private final TransactionCallbacks transactionCallbacks;
+  private final int maxWarehousesPerProductPerStore;
+  private final int maxWarehousesPerStore;
+  private final int maxProductsPerWarehouse;
+  private final Duration lockTimeout;
+  private final Semaphore lock = new Semaphore(1);
+
+  // guarded by this
+  private final LongIntCounter unitsByProductStore = new LongIntCounter();
+  private final LongIntCounter unitsByStoreWarehouse = new LongIntCounter();
+  private final LongIntCounter warehousesByStore = new LongIntCounter();
+  private final LongIntCounter unitsByWarehouseProduct = new LongIntCounter();
+  private final LongIntCounter productsByWarehouse = new LongIntCounter();
+
+  public FulfilmentConstraintIndex(
+      FulfilmentUnitRepository unitRepository,
+      TransactionCallbacks transactionCallbacks,
+      @ConfigProperty(name = "fulfilment.max-warehouses-per-product-per-store", defaultValue = "2")
+          int maxWarehousesPerProductPerStore,
+      @ConfigProperty(name = "fulfilment.max-warehouses-per-store", defaultValue = "3") int maxWarehousesPerStore,
+      @ConfigProperty(name = "fulfilment.max-products-per-warehouse", defaultValue = "5") int maxProductsPerWarehouse,
+      @ConfigProperty(name = "fulfilment.lock-timeout", defaultValue = "5s") Duration lockTimeout) {
+    this.unitRepository = unitRepository;
+    this.transactionCallbacks = transactionCallbacks;
+    this.maxWarehousesPerProductPerStore = maxWarehousesPerProductPerStore;
+    this.maxWarehousesPerStore = maxWarehousesPerStore;
+    this.maxProductsPerWarehouse = maxProductsPerWarehouse;
+    this.lockTimeout = lockTimeout;
+  }
+
+  @Transactional
+  void onStart(@Observes StartupEvent event) {
+    rebuild();
+  }
+
+  /** Replaces all counts with those of the units in the database. */
+  @Transactional
+  public synchronized void rebuild() {
+    unitsByProductStore.clear();
+    unitsByStoreWarehouse.clear();
+    warehousesByStore.clear();
+    unitsByWarehouseProduct.clear();
+    productsByWarehouse.clear();
+    int[] units = {0};
+    try (Stream<FulfilmentUnit> all = unitRepository.streamAll()) {
+      all.forEach(unit -> {
+        count(unit.productId, unit.storeId, unit.warehouseId, 1);
+        units[0]++;
+      });
+    }
+    LOGGER.infof("Fulfilment constraint index rebuilt with %d units", units[0]);
+  }
+
+  /**
+   * Locks the index until the current transaction completes; does nothing when the transaction
+   * holds the lock already.
+   *
+   * @throws FulfilmentBusyException if the lock is not acquired within {@code fulfilment.lock-timeout}
+   */
+  public void lock() {
+    HeldLock held = transactionCallbacks.transactionLocal(HeldLock.class, HeldLock::new);
+    if (held.held) {
+      return;
+    }
+    try {
+      if (!lock.tryAcquire(lockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        throw new FulfilmentBusyException("Fulfilment units are being changed by another request, retry later");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FulfilmentBusyException("Interrupted while waiting for the fulfilment lock");
+    }
+    held.held = true;
+    transactionCallbacks.afterCompletion(lock::release);
+  }
+
+  /**
+   * The rule the unit would break, or null when it can be added. Requires the {@linkplain #lock lock}.
+   *
+   * @param warehouse business unit code of the warehouse, for the message
+   */
+  public synchronized String violationOf(long productId, long storeId, long warehouseId, String warehouse) {
+    if (unitsByProductStore.get(pack(productId, storeId)) >= maxWarehousesPerProductPerStore) {
+      return "Product " + productId + " is supplied to store " + storeId + " by "
+          + maxWarehousesPerProductPerStore + " warehouses already";
+    }
+    if (unitsByStoreWarehouse.get(pack(storeId, warehouseId)) == 0
+        && warehousesByStore.get(storeId) >= maxWarehousesPerStore) {
+      return "Store " + storeId + " is supplied by " + maxWarehousesPerStore + " warehouses already";
+    }
+    if (unitsByWarehouseProduct.get(pack(warehouseId, productId)) == 0
+        && productsByWarehouse.get(warehouseId) >= maxProductsPerWarehouse) {
+      return "Warehouse " + warehouse + " supplies " + maxProductsPerWarehouse + " product types already";
+    }
+    return null;
+  }
+
+  /** Counts a unit added by the current transaction. Requires the {@linkplain #lock lock}. */
+  public void added(long productId, long storeId, long warehouseId) {
+    countInTransaction(productId, storeId, warehouseId, 1);
+  }
+
+  /** Uncounts units removed by the current transaction. Requires the {@linkplain #lock lock}. */
+  public void removed(List<FulfilmentUnit> units) {
+    for (FulfilmentUnit unit : units) {
+      countInTransaction(unit.productId, unit.storeId, unit.warehouseId, -1);
+    }
+  }
+
+  private void countInTransaction(long productId, long storeId, long warehouseId, int delta) {
+    synchronized (this) {
+      count(productId, storeId, warehouseId, delta);
+    }
+    transactionCallbacks.afterRollback(() -> {
+      synchronized (this) {
+        count(productId, storeId, warehouseId, -delta);
+      }
+    });
+  }
+
+  // delta is 1 or -1; a distinct count changes with the first unit of a pair or the last one
+  private void count(long productId, long storeId, long warehouseId, int delta) {
+    int pairCountWhenDistinct = delta > 0 ? 1 : 0;
+    unitsByProductStore.add(pack(productId, storeId), delta);
+    if (unitsByStoreWarehouse.add(pack(storeId, warehouseId), delta) == pairCountWhenDistinct) {
+      warehousesByStore.add(storeId, delta);
+    }
+    if (unitsByWarehouseProduct.add(pack(warehouseId, productId), delta) == pairCountWhenDistinct) {
+      productsByWarehouse.add(warehouseId, delta);
+    }
+  }
+
+  private static final class HeldLock {
+    private boolean held;
+  }
+}
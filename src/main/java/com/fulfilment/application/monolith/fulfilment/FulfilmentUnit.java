@@ -0,0 +1,34 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * A warehouse supplying a product to a store. The warehouse is kept both by database id, which the
+ * {@link FulfilmentConstraintIndex} counts by, and by business unit code, which the API shows.
+ */
+@Entity
+@Table(name = "fulfilment_unit",
+    uniqueConstraints = @UniqueConstraint(name = "uk_fulfilment_unit",
+        columnNames = {"storeId", "productId", "warehouseId"}),
+    indexes = {
+        @Index(name = "ix_fulfilment_unit_product", columnList = "productId"),
+        @Index(name = "ix_fulfilment_unit_warehouse", columnList = "warehouseId")})
+public class FulfilmentUnit extends PanacheEntity {
+
+  @Column(nullable = false)
+  public Long productId;
+
+  @Column(nullable = false)
+  public Long storeId;
+
+  @Column(nullable = false)
+  public Long warehouseId;
+
+  @Column(nullable = false, length = 40)
+  public String warehouse;
+}
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.List;
+
+@ApplicationScoped
+public class FulfilmentUnitRepository implements PanacheRepository<FulfilmentUnit> {
+
+  /** Units matching all given filters, each of which may be null, ordered by store, product and id. */
+  public List<FulfilmentUnitView> list(Long storeId, Long productId, String warehouse) {
+    StringBuilder query = new StringBuilder("1 = 1");
+    Parameters params = new Parameters();
+    if (storeId != null) {
+      query.append(" and storeId = :storeId");
+      params.and("storeId", storeId);
+    }
+    if (productId != null) {
+      query.append(" and productId = :productId");
+      params.and("productId", productId);
+    }
+    if (warehouse != null) {
+      query.append(" and warehouse = :warehouse");
+      params.and("warehouse", warehouse);
+    }
+    return find(query.toString(), Sort.by("storeId").and("productId").and("id"), params)
+        .project(FulfilmentUnitView.class)
+        .list();
+  }
+
+  /** All units of any of the stores, in one query. */
+  public List<FulfilmentUnit> listByStores(Collection<Long> storeIds) {
+    return storeIds.isEmpty() ? List.of() : list("storeId in ?1", storeIds);
+  }
+}
@@ -0,0 +1,101 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.common.ReadOnlyTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Which warehouses supply which products to which stores. Assignments are checked against the
+ * limit rules of the {@link FulfilmentConstraintIndex}.
+ */
+@Path("fulfilment-units")
+@ApplicationScoped
+@Produces("application/json")
+@Consumes("application/json")
+public class FulfilmentUnitResource {
+
+  private final FulfilmentUnits fulfilmentUnits;
+  private final FulfilmentUnitRepository unitRepository;
+  private final int maxBatchSize;
+
+  public FulfilmentUnitResource(
+      FulfilmentUnits fulfilmentUnits,
+      FulfilmentUnitRepository unitRepository,
+      @ConfigProperty(name = "fulfilment.batch.max-size", defaultValue = "1000") int maxBatchSize) {
+    this.fulfilmentUnits = fulfilmentUnits;
+    this.unitRepository = unitRepository;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  @GET
+  @ReadOnlyTransaction
+  public List<FulfilmentUnitView> list(
+      @QueryParam("storeId") Long storeId,
+      @QueryParam("productId") Long productId,
+      @QueryParam("warehouse") String warehouse) {
+    return unitRepository.list(storeId, productId, warehouse);
+  }
+
+  @POST
+  public Response assign(FulfilmentAssignment assignment) {
+    FulfilmentAssignmentResult result = assignAll(List.of(assignment == null
+        ? new FulfilmentAssignment(null, null, null)
+        : assignment)).get(0);
+    return switch (result.status()) {
+      case APPLIED -> Response.ok(new FulfilmentUnitView(
+          result.id(), assignment.productId(), assignment.storeId(), assignment.warehouse())).status(201).build();
+      case INVALID -> throw new WebApplicationException(result.error(), 422);
+      case NOT_FOUND -> throw new WebApplicationException(result.error(), 404);
+      case CONFLICT -> throw new WebApplicationException(result.error(), 409);
+    };
+  }
+
+  /**
+   * Applies up to {@code fulfilment.batch.max-size} assignments in one transaction. Rejected
+   * assignments are reported per index and do not prevent the others from being applied.
+   */
+  @POST
+  @Path("bulk")
+  public FulfilmentBulkResult assignInBulk(List<FulfilmentAssignment> assignments) {
+    if (assignments == null || assignments.isEmpty()) {
+      throw new WebApplicationException("At least one assignment is required", 422);
+    }
+    if (assignments.size() > maxBatchSize) {
+      throw new WebApplicationException("At most " + maxBatchSize + " assignments can be applied at once", 422);
+    }
+    return FulfilmentBulkResult.of(assignAll(assignments));
+  }
+
+  @DELETE
+  @Path("{id}")
+  public Response unassign(Long id) {
+    boolean removed;
+    try {
+      removed = fulfilmentUnits.unassign(id);
+    } catch (FulfilmentBusyException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+    if (!removed) {
+      throw new WebApplicationException("Fulfilment unit with id of " + id + " does not exist.", 404);
+    }
+    return Response.status(204).build();
+  }
+
+  private List<FulfilmentAssignmentResult> assignAll(List<FulfilmentAssignment> assignments) {
+    try {
+      return fulfilmentUnits.assign(assignments);
+    } catch (FulfilmentBusyException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+  }
+}
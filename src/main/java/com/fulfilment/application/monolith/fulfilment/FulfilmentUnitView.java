@@ -0,0 +1,8 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/** Read-only projection of a {@link FulfilmentUnit}; {@code warehouse} is the business unit code. */
+@RegisterForReflection
+public record FulfilmentUnitView(Long id, Long productId, Long storeId, String warehouse) {
+}
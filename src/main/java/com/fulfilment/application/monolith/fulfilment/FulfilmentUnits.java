@@ -0,0 +1,169 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import static com.fulfilment.application.monolith.fulfilment.FulfilmentAssignmentResult.Status.CONFLICT;
+import static com.fulfilment.application.monolith.fulfilment.FulfilmentAssignmentResult.Status.INVALID;
+import static com.fulfilment.application.monolith.fulfilment.FulfilmentAssignmentResult.Status.NOT_FOUND;
+
+import com.fulfilment.application.monolith.products.ProductRepository;
+import com.fulfilment.application.monolith.stores.StoreRepository;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns warehouses to supply products to stores, checking the limit rules of the
+ * {@link FulfilmentConstraintIndex}. Products, stores and warehouses of a request are looked up
+ * with one query each, however many assignments it has. Units of the stores of a request whose
+ * warehouse has been archived are removed before the rules are checked.
+ */
+@ApplicationScoped
+public class FulfilmentUnits {
+
+  private final FulfilmentUnitRepository unitRepository;
+  private final FulfilmentConstraintIndex constraintIndex;
+  private final ProductRepository productRepository;
+  private final StoreRepository storeRepository;
+  private final WarehouseStore warehouseStore;
+
+  public FulfilmentUnits(
+      FulfilmentUnitRepository unitRepository,
+      FulfilmentConstraintIndex constraintIndex,
+      ProductRepository productRepository,
+      StoreRepository storeRepository,
+      WarehouseStore warehouseStore) {
+    this.unitRepository = unitRepository;
+    this.constraintIndex = constraintIndex;
+    this.productRepository = productRepository;
+    this.storeRepository = storeRepository;
+    this.warehouseStore = warehouseStore;
+  }
+
+  /**
+   * Adds a unit for every valid assignment, in order, each checked against the units of the ones
+   * before it. Invalid assignments are reported and skipped.
+   */
+  @Transactional
+  public List<FulfilmentAssignmentResult> assign(List<FulfilmentAssignment> assignments) {
+    constraintIndex.lock();
+    List<FulfilmentAssignment> complete = assignments.stream().filter(FulfilmentUnits::isComplete).toList();
+    Set<Long> products = productRepository.findExistingIds(
+        complete.stream().map(FulfilmentAssignment::productId).distinct().toList());
+    Set<Long> stores = storeRepository.findExistingIds(
+        complete.stream().map(FulfilmentAssignment::storeId).distinct().toList());
+    List<FulfilmentUnit> units = unitRepository.listByStores(stores);
+    Set<String> codes = new HashSet<>();
+    complete.forEach(assignment -> codes.add(assignment.warehouse()));
+    units.forEach(unit -> codes.add(unit.warehouse));
+    Map<String, Long> warehouses = warehouseStore.findActiveIds(codes);
+    Set<UnitKey> existing = new HashSet<>();
+    List<FulfilmentUnit> ofArchived = new ArrayList<>();
+    for (FulfilmentUnit unit : units) {
+      if (unit.warehouseId.equals(warehouses.get(unit.warehouse))) {
+        existing.add(new UnitKey(unit.productId, unit.storeId, unit.warehouseId));
+      } else {
+        ofArchived.add(unit);
+      }
+    }
+    removeAll(ofArchived);
+
+    List<FulfilmentAssignmentResult> results = new ArrayList<>(assignments.size());
+    for (int index = 0; index < assignments.size(); index++) {
+      FulfilmentAssignment assignment = assignments.get(index);
+      if (!isComplete(assignment)) {
+        results.add(FulfilmentAssignmentResult.rejected(index, INVALID,
+            "Product id, store id and warehouse are required"));
+      } else if (!products.contains(assignment.productId())) {
+        results.add(FulfilmentAssignmentResult.rejected(index, NOT_FOUND,
+            "Product with id of " + assignment.productId() + " does not exist"));
+      } else if (!stores.contains(assignment.storeId())) {
+        results.add(FulfilmentAssignmentResult.rejected(index, NOT_FOUND,
+            "Store with id of " + assignment.storeId() + " does not exist"));
+      } else if (!warehouses.containsKey(assignment.warehouse())) {
+        results.add(FulfilmentAssignmentResult.rejected(index, NOT_FOUND,
+            "Warehouse " + assignment.warehouse() + " does not exist or is archived"));
+      } else {
+        results.add(add(index, assignment, warehouses.get(assignment.warehouse()), existing));
+      }
+    }
+    return results;
+  }
+
+  @Transactional
+  public boolean unassign(Long id) {
+    constraintIndex.lock();
+    FulfilmentUnit unit = unitRepository.findById(id);
+    if (unit == null) {
+      return false;
+    }
+    unitRepository.delete(unit);
+    constraintIndex.removed(List.of(unit));
+    return true;
+  }
+
+  /** Removes the units of a store that is being deleted in the current transaction. */
+  @Transactional
+  public void removeAllOfStore(Long storeId) {
+    constraintIndex.lock();
+    List<FulfilmentUnit> units = unitRepository.list("storeId", storeId);
+    if (!units.isEmpty()) {
+      unitRepository.delete("storeId", storeId);
+      constraintIndex.removed(units);
+    }
+  }
+
+  /** Removes the units of a product that is being deleted in the current transaction. */
+  @Transactional
+  public void removeAllOfProduct(Long productId) {
+    constraintIndex.lock();
+    List<FulfilmentUnit> units = unitRepository.list("productId", productId);
+    if (!units.isEmpty()) {
+      unitRepository.delete("productId", productId);
+      constraintIndex.removed(units);
+    }
+  }
+
+  // units of warehouses archived since they were added no longer supply anything, nor count against the limits
+  private void removeAll(List<FulfilmentUnit> units) {
+    if (!units.isEmpty()) {
+      unitRepository.delete("id in ?1", units.stream().map(unit -> unit.id).toList());
+      constraintIndex.removed(units);
+    }
+  }
+
+  private FulfilmentAssignmentResult add(int index, FulfilmentAssignment assignment, long warehouseId,
+      Set<UnitKey> existing) {
+    UnitKey key = new UnitKey(assignment.productId(), assignment.storeId(), warehouseId);
+    if (existing.contains(key)) {
+      return FulfilmentAssignmentResult.rejected(index, CONFLICT, "Warehouse " + assignment.warehouse()
+          + " supplies product " + assignment.productId() + " to store " + assignment.storeId() + " already");
+    }
+    String violation = constraintIndex.violationOf(
+        assignment.productId(), assignment.storeId(), warehouseId, assignment.warehouse());
+    if (violation != null) {
+      return FulfilmentAssignmentResult.rejected(index, CONFLICT, violation);
+    }
+
+    FulfilmentUnit unit = new FulfilmentUnit();
+    unit.productId = assignment.productId();
+    unit.storeId = assignment.storeId();
+    unit.warehouseId = warehouseId;
+    unit.warehouse = assignment.warehouse();
+    unitRepository.persist(unit);
+    constraintIndex.added(unit.productId, unit.storeId, warehouseId);
+    existing.add(key);
+    return FulfilmentAssignmentResult.applied(index, unit.id);
+  }
+
+  private static boolean isComplete(FulfilmentAssignment assignment) {
+    return assignment != null && assignment.productId() != null && assignment.storeId() != null
+        && assignment.warehouse() != null;
+  }
+
+  private record UnitKey(long productId, long storeId, long warehouseId) {
+  }
+}
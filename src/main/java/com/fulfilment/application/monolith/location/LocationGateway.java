@@ -3,23 +3,47 @@ package com.fulfilment.application.monolith.location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+/**
+ * Resolves locations from an in-memory registry loaded from {@code location.registry.file}, or from
+ * the bundled {@code locations.csv} when no file is configured.
+ *
+ * <p>Lookups read a volatile reference to an immutable snapshot and never lock. {@link #reload()}
+ * builds a new snapshot and swaps it in; a failed reload keeps serving the previous one.
+ */
 @ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-  private static final List<Location> locations = new ArrayList<>();
-
-  static {
-    locations.add(new Location("ZWOLLE-001", 1, 40));
-    locations.add(new Location("ZWOLLE-002", 2, 50));
-    locations.add(new Location("AMSTERDAM-001", 5, 100));
-    locations.add(new Location("AMSTERDAM-002", 3, 75));
-    locations.add(new Location("TILBURG-001", 1, 40));
-    locations.add(new Location("HELMOND-001", 1, 45));
-    locations.add(new Location("EINDHOVEN-001", 2, 70));
-    locations.add(new Location("VETSBY-001", 1, 90));
+  private static final Logger LOGGER = Logger.getLogger(LocationGateway.class.getName());
+
+  public static final String BUNDLED_REGISTRY = "locations.csv";
+
+  private final Optional<String> registryFile;
+
+  private volatile LocationRegistry registry;
+  private long lastLoadMillis;
+  private long reloads;
+  private long failedReloads;
+  private String lastFailure;
+
+  public LocationGateway(
+      @ConfigProperty(name = "location.registry.file") Optional<String> registryFile) {
+    this.registryFile = registryFile;
+    long start = System.nanoTime();
+    this.registry = load();
+    this.lastLoadMillis = (System.nanoTime() - start) / 1_000_000;
+    LOGGER.infof("Loaded %d locations from %s", registry.size(), registry.source());
   }
 
   @Override
@@ -27,9 +51,57 @@ public class LocationGateway implements LocationResolver {
     if (identifier == null) {
       return null;
     }
-    return locations.stream()
-        .filter(loc -> identifier.equals(loc.getIdentification()))
-        .findFirst()
-        .orElse(null);
+    return registry.get(identifier);
+  }
+
+  /** Reloads the registry from its source and atomically replaces the current snapshot. */
+  public synchronized LocationRegistryStats reload() {
+    long start = System.nanoTime();
+    try {
+      LocationRegistry reloaded = load();
+      registry = reloaded;
+      lastLoadMillis = (System.nanoTime() - start) / 1_000_000;
+      reloads++;
+      LOGGER.infof("Reloaded %d locations from %s", reloaded.size(), reloaded.source());
+    } catch (RuntimeException e) {
+      failedReloads++;
+      lastFailure = e.getMessage();
+      LOGGER.error("Failed to reload location registry, keeping the previous one", e);
+      throw e;
+    }
+    return stats();
+  }
+
+  public synchronized LocationRegistryStats stats() {
+    LocationRegistry current = registry;
+    return new LocationRegistryStats(
+        current.source(),
+        current.size(),
+        current.loadedAt(),
+        lastLoadMillis,
+        reloads,
+        failedReloads,
+        lastFailure);
+  }
+
+  private LocationRegistry load() {
+    try {
+      if (registryFile.isPresent()) {
+        Path path = Path.of(registryFile.get());
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+          return LocationRegistry.parse(reader, path.toString());
+        }
+      }
+      InputStream bundled = LocationGateway.class.getClassLoader().getResourceAsStream(BUNDLED_REGISTRY);
+      if (bundled == null) {
+        throw new IllegalStateException("Bundled location registry not found: " + BUNDLED_REGISTRY);
+      }
+      try (BufferedReader reader =
+          new BufferedReader(new InputStreamReader(bundled, StandardCharsets.UTF_8))) {
+        return LocationRegistry.parse(reader, "classpath:" + BUNDLED_REGISTRY);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read location registry", e);
+    }
   }
 }
@@ -0,0 +1,75 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of all known locations, indexed by identification.
+ *
+ * <p>The file format is one location per line: {@code identification,maxNumberOfWarehouses,maxCapacity}.
+ * Blank lines and lines starting with {@code #} are ignored.
+ */
+final class LocationRegistry {
+
+  private final Map<String, Location> locationsByIdentifier;
+  private final String source;
+  private final Instant loadedAt;
+
+  private LocationRegistry(Map<String, Location> locationsByIdentifier, String source) {
+    this.locationsByIdentifier = Map.copyOf(locationsByIdentifier);
+    this.source = source;
+    this.loadedAt = Instant.now();
+  }
+
+  static LocationRegistry parse(BufferedReader reader, String source) throws IOException {
+    Map<String, Location> locations = new HashMap<>();
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      Location location = parseLine(trimmed, source, lineNumber);
+      if (locations.putIfAbsent(location.getIdentification(), location) != null) {
+        throw new IllegalArgumentException(
+            "Duplicate location " + location.getIdentification() + " at " + source + ":" + lineNumber);
+      }
+    }
+    return new LocationRegistry(locations, source);
+  }
+
+  private static Location parseLine(String line, String source, int lineNumber) {
+    String[] columns = line.split(",");
+    if (columns.length != 3 || columns[0].isBlank()) {
+      throw new IllegalArgumentException("Malformed location at " + source + ":" + lineNumber);
+    }
+    try {
+      return new Location(
+          columns[0].trim(), Integer.parseInt(columns[1].trim()), Integer.parseInt(columns[2].trim()));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Malformed location at " + source + ":" + lineNumber, e);
+    }
+  }
+
+  Location get(String identifier) {
+    return locationsByIdentifier.get(identifier);
+  }
+
+  int size() {
+    return locationsByIdentifier.size();
+  }
+
+  String source() {
+    return source;
+  }
+
+  Instant loadedAt() {
+    return loadedAt;
+  }
+}
@@ -0,0 +1,30 @@
+package com.fulfilment.application.monolith.location;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+
+@Path("admin/locations")
+@ApplicationScoped
+@Produces("application/json")
+public class LocationRegistryResource {
+
+  private final LocationGateway locationGateway;
+
+  public LocationRegistryResource(LocationGateway locationGateway) {
+    this.locationGateway = locationGateway;
+  }
+
+  @GET
+  public LocationRegistryStats stats() {
+    return locationGateway.stats();
+  }
+
+  @POST
+  @Path("reload")
+  public LocationRegistryStats reload() {
+    return locationGateway.reload();
+  }
+}
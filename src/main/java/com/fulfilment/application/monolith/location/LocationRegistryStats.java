@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.location;
+
+import java.time.Instant;
+
+/** Snapshot of the location registry state, as exposed on the admin endpoint. */
+public record LocationRegistryStats(
+    String source,
+    int locations,
+    Instant loadedAt,
+    long lastLoadMillis,
+    long reloads,
+    long failedReloads,
+    String lastFailure) {
+}
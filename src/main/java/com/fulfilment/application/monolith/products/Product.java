@@ -5,10 +5,14 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import java.math.BigDecimal;
 
 @Entity
 @Cacheable
+// keyset pages are read in (name, id) order
+@Table(indexes = @Index(name = "ix_product_name_id", columnList = "name, id"))
 public class Product {
 
   @Id
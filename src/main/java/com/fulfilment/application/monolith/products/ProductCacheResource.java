@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.products;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+
+@Path("admin/product-cache")
+@ApplicationScoped
+@Produces("application/json")
+public class ProductCacheResource {
+
+  private final ProductCatalogueCache productCache;
+
+  public ProductCacheResource(ProductCatalogueCache productCache) {
+    this.productCache = productCache;
+  }
+
+  @GET
+  public ProductCacheStats stats() {
+    return productCache.stats();
+  }
+}
@@ -0,0 +1,8 @@
+package com.fulfilment.application.monolith.products;
+
+/**
+ * Figures of the {@link ProductCatalogueCache} since start. Misses include lookups of unknown ids
+ * before they were cached as negative entries; evictions count entries dropped for size or age.
+ */
+public record ProductCacheStats(long size, long hits, long misses, long evictions, double hitRate) {
+}
@@ -0,0 +1,82 @@
+package com.fulfilment.application.monolith.products;
+
+import com.fulfilment.application.monolith.common.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Read-through cache of single product lookups, bounded by {@code product.cache.max-size}.
+ *
+ * <p>Found products are kept for {@code product.cache.ttl}; ids that do not exist are remembered as
+ * negative entries for the shorter {@code product.cache.negative-ttl}, so repeated lookups of unknown
+ * ids do not reach the database either. Concurrent misses of the same id wait for a single load.
+ * Writes {@linkplain #invalidateAfterCommit invalidate} the product once their transaction commits.
+ */
+@ApplicationScoped
+public class ProductCatalogueCache {
+
+  private final ProductRepository productRepository;
+  private final TransactionCallbacks transactionCallbacks;
+  private final Cache<Long, Optional<ProductView>> cache;
+
+  public ProductCatalogueCache(
+      ProductRepository productRepository,
+      TransactionCallbacks transactionCallbacks,
+      @ConfigProperty(name = "product.cache.max-size", defaultValue = "10000") long maxSize,
+      @ConfigProperty(name = "product.cache.ttl", defaultValue = "5m") Duration ttl,
+      @ConfigProperty(name = "product.cache.negative-ttl", defaultValue = "30s") Duration negativeTtl) {
+    this.productRepository = productRepository;
+    this.transactionCallbacks = transactionCallbacks;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new Expiry<Long, Optional<ProductView>>() {
+          @Override
+          public long expireAfterCreate(Long id, Optional<ProductView> product, long now) {
+            return (product.isPresent() ? ttl : negativeTtl).toNanos();
+          }
+
+          @Override
+          public long expireAfterUpdate(Long id, Optional<ProductView> product, long now, long remaining) {
+            return expireAfterCreate(id, product, now);
+          }
+
+          @Override
+          public long expireAfterRead(Long id, Optional<ProductView> product, long now, long remaining) {
+            return remaining;
+          }
+        })
+        .recordStats()
+        .build();
+  }
+
+  /** The product, loaded in the caller's transaction on a miss; null when it does not exist. */
+  public ProductView get(Long id) {
+    return cache.get(id, this::load).orElse(null);
+  }
+
+  /** Drops the cached product, or the negative entry of its id, after the current transaction commits. */
+  public void invalidateAfterCommit(Long id) {
+    transactionCallbacks.afterCommit(() -> cache.invalidate(id));
+  }
+
+  public ProductCacheStats stats() {
+    CacheStats stats = cache.stats();
+    return new ProductCacheStats(
+        cache.estimatedSize(),
+        stats.hitCount(),
+        stats.missCount(),
+        stats.evictionCount(),
+        stats.hitRate());
+  }
+
+  private Optional<ProductView> load(Long id) {
+    return Optional.ofNullable(
+        productRepository.find("id", id).project(ProductView.class).firstResult());
+  }
+}
@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.products;
+
+import com.fulfilment.application.monolith.common.NameMatch;
+import com.fulfilment.application.monolith.common.NamePrefixIndex;
+import com.fulfilment.application.monolith.common.TransactionCallbacks;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import java.util.stream.Stream;
+import org.jboss.logging.Logger;
+
+/**
+ * Product names for prefix search, see {@link NamePrefixIndex}. Built from the database at startup
+ * and then kept up to date by the product writes once their transaction has committed.
+ */
+@ApplicationScoped
+public class ProductNameIndex {
+
+  private static final Logger LOGGER = Logger.getLogger(ProductNameIndex.class.getName());
+
+  private final ProductRepository productRepository;
+  private final TransactionCallbacks transactionCallbacks;
+  private final NamePrefixIndex index = new NamePrefixIndex();
+
+  public ProductNameIndex(ProductRepository productRepository, TransactionCallbacks transactionCallbacks) {
+    this.productRepository = productRepository;
+    this.transactionCallbacks = transactionCallbacks;
+  }
+
+  @Transactional
+  void onStart(@Observes StartupEvent event) {
+    rebuild();
+  }
+
+  /** Replaces the whole index with the names in the database. */
+  @Transactional
+  public void rebuild() {
+    index.clear();
+    try (Stream<NameMatch> names = productRepository.findAll().project(NameMatch.class).stream()) {
+      names.forEach(name -> index.put(name.id(), name.name()));
+    }
+    LOGGER.infof("Product name index rebuilt with %d names", index.size());
+  }
+
+  public List<NameMatch> search(String prefix, int limit) {
+    return index.search(prefix, limit);
+  }
+
+  /** Indexes the product under its name after the current transaction commits. */
+  public void putAfterCommit(Long id, String name) {
+    transactionCallbacks.afterCommit(() -> index.put(id, name));
+  }
+
+  public void removeAfterCommit(Long id) {
+    transactionCallbacks.afterCommit(() -> index.remove(id));
+  }
+}
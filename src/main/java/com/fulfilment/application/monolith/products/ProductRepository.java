@@ -1,7 +1,82 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.common.NameCursor;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @ApplicationScoped
-public class ProductRepository implements PanacheRepository<Product> {}
+public class ProductRepository implements PanacheRepository<Product> {
+
+  /**
+   * Adds {@code delta} to the stock of the product in one statement, without reading it first. A
+   * delta that would take the stock out of the int range of the column is not applied, nor, when
+   * guarded, one that would take it below zero.
+   *
+   * @return whether the stock was changed
+   */
+  public boolean addStock(Long id, long delta, boolean guarded) {
+    // the sum is checked as a long, so that the check itself cannot overflow
+    return update("stock = stock + ?1 where id = ?2 and cast(stock as Long) + ?3 between ?4 and ?5",
+        Math.toIntExact(delta), id, delta, guarded ? 0L : Integer.MIN_VALUE, (long) Integer.MAX_VALUE) > 0;
+  }
+
+  /**
+   * Takes {@code quantity} off the stock in one statement, leaving zero when there is less.
+   *
+   * @return whether the product exists
+   */
+  public boolean takeStockDownToZero(Long id, long quantity) {
+    return update("stock = case when stock > ?1 then stock - ?1 else 0 end where id = ?2",
+        Math.toIntExact(quantity), id) > 0;
+  }
+
+  /**
+   * The stock of the product, or null when it does not exist, with the row locked until the
+   * current transaction completes: a write to the stock committed meanwhile is either read or waits.
+   */
+  public Integer findStockForUpdate(Long id) {
+    return getEntityManager()
+        .createQuery("select stock from Product where id = ?1", Integer.class)
+        .setParameter(1, id)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultStream()
+        .findFirst()
+        .orElse(null);
+  }
+
+  /** The stock of the product, or null when it does not exist. */
+  public Integer findStock(Long id) {
+    return getEntityManager()
+        .createQuery("select stock from Product where id = ?1", Integer.class)
+        .setParameter(1, id)
+        .getResultStream()
+        .findFirst()
+        .orElse(null);
+  }
+
+  /** Those of the ids that belong to an existing product, in one query. */
+  public Set<Long> findExistingIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(getEntityManager()
+        .createQuery("select id from Product where id in ?1", Long.class)
+        .setParameter(1, ids)
+        .getResultList());
+  }
+
+  /** Up to {@code limit} products in (name, id) order, starting after the cursor or at the start. */
+  public List<ProductView> listPage(NameCursor after, int limit) {
+    Sort order = Sort.by("name").and("id");
+    var query = after == null
+        ? findAll(order)
+        : find("(name, id) > (?1, ?2)", order, after.name(), after.id());
+    return query.project(ProductView.class).range(0, limit - 1).list();
+  }
+}
@@ -0,0 +1,7 @@
+package com.fulfilment.application.monolith.products;
+
+import java.time.Instant;
+
+/** Stock of a product held for an order until it is committed or released, or expires. */
+public record ProductReservation(String id, Long productId, int quantity, Instant expiresAt) {
+}
@@ -0,0 +1,5 @@
+package com.fulfilment.application.monolith.products;
+
+/** Body of a reservation; without {@code ttlSeconds} the configured default TTL applies. */
+public record ProductReservationRequest(Long productId, int quantity, Integer ttlSeconds) {
+}
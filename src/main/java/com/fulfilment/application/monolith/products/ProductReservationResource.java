@@ -0,0 +1,75 @@
+package com.fulfilment.application.monolith.products;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import java.time.Duration;
+
+/**
+ * Reservations of product stock for checkout, see {@link ProductReservations}. A reservation that
+ * was committed, released or has expired is no longer found.
+ */
+@Path("reservations")
+@ApplicationScoped
+@Produces("application/json")
+public class ProductReservationResource {
+
+  private final ProductReservations reservations;
+
+  public ProductReservationResource(ProductReservations reservations) {
+    this.reservations = reservations;
+  }
+
+  @POST
+  @Consumes("application/json")
+  public Response reserve(ProductReservationRequest request) {
+    if (request == null || request.productId() == null) {
+      throw new WebApplicationException("Product id was not set on request.", 422);
+    }
+    if (request.quantity() < 1) {
+      throw new WebApplicationException("Quantity must be positive.", 422);
+    }
+    Duration ttl = null;
+    if (request.ttlSeconds() != null) {
+      ttl = Duration.ofSeconds(request.ttlSeconds());
+      if (ttl.compareTo(Duration.ofSeconds(1)) < 0 || ttl.compareTo(reservations.maxTtl()) > 0) {
+        throw new WebApplicationException(
+            "TTL must be between 1 and " + reservations.maxTtl().toSeconds() + " seconds.", 422);
+      }
+    }
+    ProductReservation reservation;
+    try {
+      reservation = reservations.reserve(request.productId(), request.quantity(), ttl);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException("Product with id of " + request.productId() + " does not exist.", 404);
+    }
+    if (reservation == null) {
+      throw new WebApplicationException(
+          "Not enough stock of product " + request.productId() + " left to reserve.", 409);
+    }
+    return Response.ok(reservation).status(201).build();
+  }
+
+  @POST
+  @Path("{id}/commit")
+  public Response commit(String id) {
+    if (!reservations.commit(id)) {
+      throw new WebApplicationException("Reservation " + id + " is not held.", 404);
+    }
+    return Response.status(204).build();
+  }
+
+  @DELETE
+  @Path("{id}")
+  public Response release(String id) {
+    if (!reservations.release(id)) {
+      throw new WebApplicationException("Reservation " + id + " is not held.", 404);
+    }
+    return Response.status(204).build();
+  }
+}
@@ -0,0 +1,10 @@
+package com.fulfilment.application.monolith.products;
+
+/**
+ * Figures of the {@link ProductReservations} since start. {@code held} is the number of
+ * reservations currently holding stock; {@code rejected} counts reservations refused for lack of
+ * stock, {@code pendingCommits} the committed quantities not written to the products yet.
+ */
+public record ProductReservationStats(
+    long held, long reserved, long rejected, long committed, long released, long expired, long pendingCommits) {
+}
@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.products;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+
+@Path("admin/product-reservations")
+@ApplicationScoped
+@Produces("application/json")
+public class ProductReservationStatsResource {
+
+  private final ProductReservations reservations;
+
+  public ProductReservationStatsResource(ProductReservations reservations) {
+    this.reservations = reservations;
+  }
+
+  @GET
+  public ProductReservationStats stats() {
+    return reservations.stats();
+  }
+}
@@ -0,0 +1,295 @@
+package com.fulfilment.application.monolith.products;
+
+import com.fulfilment.application.monolith.common.CollectionVersions;
+import com.fulfilment.application.monolith.common.StockDeltaBuffer;
+import com.fulfilment.application.monolith.common.TimerWheel;
+import com.fulfilment.application.monolith.common.TransactionCallbacks;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Holds product stock for in-flight orders without locking product rows.
+ *
+ * <p>Each product has an in-memory counter of the stock available to reserve, loaded from
+ * {@code Product.stock} on its first reservation. A reservation takes its quantity off the counter
+ * with a compare-and-set that fails when not enough is left, so a reservation never takes the
+ * counter below zero and reservations of the same product never wait on a lock. Releasing or expiring a reservation
+ * gives the quantity back; committing it keeps it taken and buffers it to be subtracted from
+ * {@code Product.stock}, every {@code product.reservation.flush-interval} in one transaction.
+ *
+ * <p>A reservation expires after its TTL, driven by a {@link TimerWheel} advanced every
+ * {@code product.reservation.tick}. Whichever of commit, release or expiry removes the reservation
+ * first decides its outcome. Reservations live in memory only and are lost on restart, which
+ * releases them.
+ *
+ * <p>Every other write to {@code Product.stock} goes through {@link #beforeStockWrite} first. A
+ * guarded decrease is taken off the counter right away and fails when it would take stock that is
+ * reserved or committed but not yet written; other changes move the counter once they commit. The
+ * counter is loaded with the product row locked and before the write, so a write is never both
+ * part of the stock loaded and added to the counter, nor neither.
+ */
+@ApplicationScoped
+public class ProductReservations {
+
+  private static final Logger LOGGER = Logger.getLogger(ProductReservations.class.getName());
+
+  private final ProductRepository productRepository;
+  private final CollectionVersions collectionVersions;
+  private final ProductCatalogueCache productCache;
+  private final TransactionCallbacks transactionCallbacks;
+  private final Duration defaultTtl;
+  private final Duration maxTtl;
+  private final ConcurrentMap<Long, AtomicLong> available = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ProductReservation> reservations = new ConcurrentHashMap<>();
+  private final TimerWheel<String> expiries;
+  private final StockDeltaBuffer committed = new StockDeltaBuffer();
+  private final LongAdder pendingCommits = new LongAdder();
+  private final LongAdder reservedCount = new LongAdder();
+  private final LongAdder rejectedCount = new LongAdder();
+  private final LongAdder committedCount = new LongAdder();
+  private final LongAdder releasedCount = new LongAdder();
+  private final LongAdder expiredCount = new LongAdder();
+
+  public ProductReservations(
+      ProductRepository productRepository,
+      CollectionVersions collectionVersions,
+      ProductCatalogueCache productCache,
+      TransactionCallbacks transactionCallbacks,
+      @ConfigProperty(name = "product.reservation.ttl", defaultValue = "15m") Duration defaultTtl,
+      @ConfigProperty(name = "product.reservation.max-ttl", defaultValue = "1h") Duration maxTtl,
+      @ConfigProperty(name = "product.reservation.tick", defaultValue = "1s") Duration tick,
+      @ConfigProperty(name = "product.reservation.wheel-slots", defaultValue = "512") int wheelSlots) {
+    this.productRepository = productRepository;
+    this.collectionVersions = collectionVersions;
+    this.productCache = productCache;
+    this.transactionCallbacks = transactionCallbacks;
+    this.defaultTtl = defaultTtl;
+    this.maxTtl = maxTtl;
+    this.expiries = new TimerWheel<>(tick, wheelSlots, System.currentTimeMillis());
+  }
+
+  public Duration maxTtl() {
+    return maxTtl;
+  }
+
+  /** Stock of the product left to reserve, or null when the product does not exist. */
+  public Long available(Long productId) {
+    AtomicLong counter = counterOf(productId);
+    return counter != null ? counter.get() : null;
+  }
+
+  /**
+   * Reserves stock of the product for the TTL, or the default TTL when null.
+   *
+   * @return the reservation, or null when less than {@code quantity} is available
+   * @throws IllegalArgumentException if the product does not exist
+   */
+  public ProductReservation reserve(Long productId, int quantity, Duration ttl) {
+    if (quantity < 1) {
+      throw new IllegalArgumentException("Quantity must be positive");
+    }
+    AtomicLong counter = counterOf(productId);
+    if (counter == null) {
+      throw new IllegalArgumentException("Product " + productId + " does not exist");
+    }
+    if (!take(counter, quantity)) {
+      rejectedCount.increment();
+      return null;
+    }
+
+    Instant expiresAt = Instant.now().plus(ttl != null ? ttl : defaultTtl);
+    ProductReservation reservation =
+        new ProductReservation(UUID.randomUUID().toString(), productId, quantity, expiresAt);
+    // held before it is scheduled, so an expiry can never fire for a reservation not held yet
+    reservations.put(reservation.id(), reservation);
+    expiries.schedule(reservation.id(), expiresAt.toEpochMilli());
+    reservedCount.increment();
+    return reservation;
+  }
+
+  /** Commits a held reservation; returns false when it is not held (any more). */
+  public boolean commit(String reservationId) {
+    ProductReservation reservation = reservations.remove(reservationId);
+    if (reservation == null) {
+      return false;
+    }
+    // always taken: the pending commits of a product were reserved from its stock, an int
+    committed.add(reservation.productId(), -reservation.quantity());
+    pendingCommits.add(reservation.quantity());
+    committedCount.increment();
+    return true;
+  }
+
+  /** Releases a held reservation; returns false when it is not held (any more). */
+  public boolean release(String reservationId) {
+    ProductReservation reservation = reservations.remove(reservationId);
+    if (reservation == null) {
+      return false;
+    }
+    giveBack(reservation);
+    releasedCount.increment();
+    return true;
+  }
+
+  @Scheduled(every = "${product.reservation.tick:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void onTick() {
+    expire(Instant.now());
+  }
+
+  /** Releases the reservations that expired by {@code now}; returns how many. */
+  public int expire(Instant now) {
+    int[] expired = {0};
+    expiries.advance(now.toEpochMilli(), id -> {
+      ProductReservation reservation = reservations.remove(id);
+      if (reservation != null) {
+        giveBack(reservation);
+        expired[0]++;
+      }
+    });
+    expiredCount.add(expired[0]);
+    return expired[0];
+  }
+
+  /**
+   * Accounts for a write of the current transaction that changes the stock of the product by
+   * {@code delta}; call it before the write, which must not have locked the product row yet, or after
+   * an unguarded write once {@link #available} has loaded the counter before the write. A
+   * guarded decrease is taken off the stock available to reserve right away, and given back if the
+   * transaction rolls back; any other change is made once the transaction commits.
+   *
+   * @return false when the product does not exist, or when the write is a guarded decrease and
+   *     less than {@code -delta} is available
+   */
+  public boolean beforeStockWrite(Long productId, long delta, boolean guarded) {
+    AtomicLong counter = counterOf(productId);
+    if (counter == null) {
+      return false;
+    }
+    if (guarded && delta < 0) {
+      if (!take(counter, -delta)) {
+        return false;
+      }
+      transactionCallbacks.afterRollback(() -> counter.addAndGet(-delta));
+    } else if (delta != 0) {
+      transactionCallbacks.afterCommit(() -> counter.addAndGet(delta));
+    }
+    return true;
+  }
+
+  /** Drops the counter of a deleted product once the current transaction commits. */
+  public void forgetAfterCommit(Long productId) {
+    transactionCallbacks.afterCommit(() -> available.remove(productId));
+  }
+
+  @Scheduled(every = "${product.reservation.flush-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void onSchedule() {
+    flush();
+  }
+
+  /** Subtracts the committed quantities from the product stock; returns the number of products changed. */
+  public synchronized int flush() {
+    Map<Long, Long> deltas = committed.drain();
+    if (deltas.isEmpty()) {
+      return 0;
+    }
+    try {
+      int changed = QuarkusTransaction.requiringNew().call(() -> apply(deltas));
+      // the deltas are the negated quantities
+      pendingCommits.add(deltas.values().stream().mapToLong(Long::longValue).sum());
+      return changed;
+    } catch (RuntimeException e) {
+      committed.restore(deltas);
+      LOGGER.error("Failed to write committed product reservations, keeping them for the next flush", e);
+      throw e;
+    }
+  }
+
+  @PreDestroy
+  void flushOnShutdown() {
+    flush();
+  }
+
+  public ProductReservationStats stats() {
+    return new ProductReservationStats(
+        reservations.size(),
+        reservedCount.sum(),
+        rejectedCount.sum(),
+        committedCount.sum(),
+        releasedCount.sum(),
+        expiredCount.sum(),
+        pendingCommits.sum());
+  }
+
+  private int apply(Map<Long, Long> deltas) {
+    int changed = 0;
+    for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+      // reservations are only taken from stock that is there, unless an unguarded write took it since
+      boolean written = productRepository.addStock(delta.getKey(), delta.getValue(), true);
+      if (!written && productRepository.takeStockDownToZero(delta.getKey(), -delta.getValue())) {
+        LOGGER.warnf("Product %d had less stock than its committed reservations of %d, its stock is now 0",
+            delta.getKey(), -delta.getValue());
+        written = true;
+      }
+      if (written) {
+        productCache.invalidateAfterCommit(delta.getKey());
+        changed++;
+      } else {
+        LOGGER.warnf("Dropping committed reservations of %d of product %d, which no longer exists",
+            -delta.getValue(), delta.getKey());
+      }
+    }
+    if (changed > 0) {
+      collectionVersions.bumpAfterCommit(CollectionVersions.PRODUCTS);
+    }
+    return changed;
+  }
+
+  private void giveBack(ProductReservation reservation) {
+    AtomicLong counter = available.get(reservation.productId());
+    if (counter != null) {
+      counter.addAndGet(reservation.quantity());
+    }
+  }
+
+  private static boolean take(AtomicLong counter, long quantity) {
+    long current;
+    do {
+      current = counter.get();
+      if (current < quantity) {
+        return false;
+      }
+    } while (!counter.compareAndSet(current, current - quantity));
+    return true;
+  }
+
+  // the counter is put in place before the row lock is released, so a concurrent stock write
+  // either commits before the stock is read or finds the counter in beforeStockWrite
+  private AtomicLong counterOf(Long productId) {
+    AtomicLong counter = available.get(productId);
+    if (counter != null) {
+      return counter;
+    }
+    return QuarkusTransaction.requiringNew().call(() -> {
+      Integer stock = productRepository.findStockForUpdate(productId);
+      if (stock == null) {
+        return null;
+      }
+      AtomicLong loaded = available.putIfAbsent(productId, new AtomicLong(stock));
+      return loaded != null ? loaded : available.get(productId);
+    });
+  }
+}
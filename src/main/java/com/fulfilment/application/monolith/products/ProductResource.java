@@ -1,7 +1,18 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.common.CollectionVersions;
+import com.fulfilment.application.monolith.common.NameCursor;
+import com.fulfilment.application.monolith.common.NameMatch;
+import com.fulfilment.application.monolith.common.NamePages;
+import com.fulfilment.application.monolith.common.NamePrefixIndex;
+import com.fulfilment.application.monolith.common.ReadOnlyTransaction;
+import com.fulfilment.application.monolith.common.StockDelta;
+import com.fulfilment.application.monolith.common.StockDeltaResult;
+import com.fulfilment.application.monolith.fulfilment.FulfilmentBusyException;
+import com.fulfilment.application.monolith.fulfilment.FulfilmentUnits;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
@@ -10,8 +21,11 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import java.util.List;
 
 @Path("product")
@@ -21,24 +35,68 @@ import java.util.List;
 public class ProductResource {
 
   private final ProductRepository productRepository;
-
-  public ProductResource(ProductRepository productRepository) {
+  private final ProductStockDeltas stockDeltas;
+  private final CollectionVersions collectionVersions;
+  private final ProductCatalogueCache productCache;
+  private final ProductNameIndex nameIndex;
+  private final ProductReservations reservations;
+  private final FulfilmentUnits fulfilmentUnits;
+
+  public ProductResource(
+      ProductRepository productRepository,
+      ProductStockDeltas stockDeltas,
+      CollectionVersions collectionVersions,
+      ProductCatalogueCache productCache,
+      ProductNameIndex nameIndex,
+      ProductReservations reservations,
+      FulfilmentUnits fulfilmentUnits) {
     this.productRepository = productRepository;
+    this.stockDeltas = stockDeltas;
+    this.collectionVersions = collectionVersions;
+    this.productCache = productCache;
+    this.nameIndex = nameIndex;
+    this.reservations = reservations;
+    this.fulfilmentUnits = fulfilmentUnits;
+  }
+
+  /**
+   * Lists by name. Without {@code limit} and {@code after} all of them are returned; otherwise a
+   * keyset page, see {@link NamePages}.
+   */
+  @GET
+  @ReadOnlyTransaction
+  public Response get(
+      @QueryParam("after") String after, @QueryParam("limit") Integer limit, @Context UriInfo uriInfo) {
+    Integer pageSize = NamePages.pageSize(after, limit);
+    if (pageSize == null) {
+      return Response.ok(productRepository.findAll(Sort.by("name")).project(ProductView.class).list()).build();
+    }
+    List<ProductView> rows = productRepository.listPage(NameCursor.decode(after), pageSize + 1);
+    return NamePages.toResponse(rows, pageSize, row -> new NameCursor(row.name(), row.id()), uriInfo);
   }
 
+  /**
+   * Up to {@code limit} products whose name starts with the prefix, ignoring case and diacritics, in
+   * name order. Served from memory by the {@link ProductNameIndex}.
+   */
   @GET
-  public List<Product> get() {
-    return productRepository.listAll(Sort.by("name"));
+  @Path("search")
+  public List<NameMatch> search(@QueryParam("prefix") String prefix, @QueryParam("limit") Integer limit) {
+    if (prefix == null) {
+      throw new WebApplicationException("Prefix was not set on request.", 422);
+    }
+    return nameIndex.search(prefix, NamePrefixIndex.searchLimit(limit));
   }
 
   @GET
   @Path("{id}")
-  public Product getSingle(Long id) {
-    Product entity = productRepository.findById(id);
-    if (entity == null) {
+  @ReadOnlyTransaction
+  public ProductView getSingle(Long id) {
+    ProductView view = productCache.get(id);
+    if (view == null) {
       throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
     }
-    return entity;
+    return view;
   }
 
   @POST
@@ -52,6 +110,10 @@ public class ProductResource {
     }
 
     productRepository.persist(product);
+    collectionVersions.bumpAfterCommit(CollectionVersions.PRODUCTS);
+    // the id may have been looked up and cached as unknown before
+    productCache.invalidateAfterCommit(product.id);
+    nameIndex.putAfterCommit(product.id, product.name);
     return Response.ok(product).status(201).build();
   }
 
@@ -63,11 +125,17 @@ public class ProductResource {
       throw new WebApplicationException("Product Name was not set on request.", 422);
     }
 
-    Product entity = productRepository.findById(id);
+    // the stock available to reserve is loaded before the row is locked, see ProductReservations
+    Product entity = reservations.available(id) != null
+        ? productRepository.findById(id, LockModeType.PESSIMISTIC_WRITE)
+        : null;
 
     if (entity == null) {
       throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
     }
+    if (!reservations.beforeStockWrite(id, product.getStock() - entity.getStock(), true)) {
+      throw new WebApplicationException("Stock of product " + id + " would go below the stock reserved.", 409);
+    }
 
     entity.name = product.name;
     entity.description = product.description;
@@ -75,10 +143,58 @@ public class ProductResource {
     entity.setStock(product.getStock());
 
     productRepository.persist(entity);
+    collectionVersions.bumpAfterCommit(CollectionVersions.PRODUCTS);
+    productCache.invalidateAfterCommit(id);
+    nameIndex.putAfterCommit(id, entity.name);
 
     return entity;
   }
 
+  /**
+   * Changes the stock of the product by a delta in one update statement, so concurrent deltas never
+   * overwrite each other. See {@link StockDelta} for the guard and the buffered mode.
+   */
+  @POST
+  @Path("{id}/stock-delta")
+  @Transactional
+  public Response addStock(Long id, StockDelta request) {
+    if (request == null) {
+      throw new WebApplicationException("Stock delta was not set on request.", 422);
+    }
+    if (request.buffered()) {
+      if (!request.allowNegative()) {
+        throw new WebApplicationException("Buffered stock deltas cannot be guarded, set allowNegative.", 422);
+      }
+      if (productCache.get(id) == null) {
+        throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
+      }
+      if (!stockDeltas.add(id, request.delta())) {
+        throw new WebApplicationException(
+            "Buffered stock deltas of product " + id + " would overflow, retry after the next flush.", 409);
+      }
+      return Response.accepted(new StockDeltaResult(id, null, true)).build();
+    }
+
+    boolean guarded = !request.allowNegative();
+    if (!reservations.beforeStockWrite(id, request.delta(), guarded)) {
+      if (productRepository.count("id", id) == 0) {
+        throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
+      }
+      throw new WebApplicationException("Stock of product " + id + " would go below the stock reserved.", 409);
+    }
+    if (!productRepository.addStock(id, request.delta(), guarded)) {
+      if (productRepository.count("id", id) == 0) {
+        throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
+      }
+      throw new WebApplicationException("Stock of product " + id + " would go "
+          + (guarded && request.delta() < 0 ? "below zero." : "out of range."), 409);
+    }
+    collectionVersions.bumpAfterCommit(CollectionVersions.PRODUCTS);
+    productCache.invalidateAfterCommit(id);
+    ProductView product = productRepository.find("id", id).project(ProductView.class).firstResult();
+    return Response.ok(new StockDeltaResult(id, product.stock(), false)).build();
+  }
+
   @DELETE
   @Path("{id}")
   @Transactional
@@ -87,7 +203,16 @@ public class ProductResource {
     if (entity == null) {
       throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
     }
+    try {
+      fulfilmentUnits.removeAllOfProduct(id);
+    } catch (FulfilmentBusyException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
     productRepository.delete(entity);
+    collectionVersions.bumpAfterCommit(CollectionVersions.PRODUCTS);
+    productCache.invalidateAfterCommit(id);
+    nameIndex.removeAfterCommit(id);
+    reservations.forgetAfterCommit(id);
     return Response.status(204).build();
   }
 
@@ -0,0 +1,97 @@
+package com.fulfilment.application.monolith.products;
+
+import com.fulfilment.application.monolith.common.CollectionVersions;
+import com.fulfilment.application.monolith.common.StockDeltaBuffer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.jboss.logging.Logger;
+
+/**
+ * Buffered stock deltas of products. Deltas are accumulated in memory and applied every
+ * {@code stock.delta.flush-interval}, all of them in one transaction with one update per product.
+ */
+@ApplicationScoped
+public class ProductStockDeltas {
+
+  private static final Logger LOGGER = Logger.getLogger(ProductStockDeltas.class.getName());
+
+  private final ProductRepository productRepository;
+  private final CollectionVersions collectionVersions;
+  private final ProductCatalogueCache productCache;
+  private final ProductReservations reservations;
+  private final StockDeltaBuffer buffer = new StockDeltaBuffer();
+
+  public ProductStockDeltas(
+      ProductRepository productRepository,
+      CollectionVersions collectionVersions,
+      ProductCatalogueCache productCache,
+      ProductReservations reservations) {
+    this.productRepository = productRepository;
+    this.collectionVersions = collectionVersions;
+    this.productCache = productCache;
+    this.reservations = reservations;
+  }
+
+  /** Buffers the delta; false when the pending deltas of the product would no longer fit in an int. */
+  public boolean add(Long productId, int delta) {
+    return buffer.add(productId, delta);
+  }
+
+  @Scheduled(every = "${stock.delta.flush-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void onSchedule() {
+    flush();
+  }
+
+  /** Applies the buffered deltas; returns the number of products changed. */
+  public synchronized int flush() {
+    Map<Long, Long> deltas = buffer.drain();
+    if (deltas.isEmpty()) {
+      return 0;
+    }
+    try {
+      return QuarkusTransaction.requiringNew().call(() -> apply(deltas));
+    } catch (RuntimeException e) {
+      buffer.restore(deltas);
+      LOGGER.error("Failed to apply buffered product stock deltas, keeping them for the next flush", e);
+      throw e;
+    }
+  }
+
+  @PreDestroy
+  void flushOnShutdown() {
+    flush();
+  }
+
+  // a delta that cannot be applied is dropped rather than failing the flush, which would keep it
+  // and fail every flush after it, holding back the deltas of all other products
+  private int apply(Map<Long, Long> deltas) {
+    int changed = 0;
+    // all counters are loaded before the first row is locked, see ProductReservations
+    Set<Long> missing = new HashSet<>();
+    for (Long productId : deltas.keySet()) {
+      if (reservations.available(productId) == null) {
+        missing.add(productId);
+      }
+    }
+    for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+      if (!missing.contains(delta.getKey()) && productRepository.addStock(delta.getKey(), delta.getValue(), false)) {
+        reservations.beforeStockWrite(delta.getKey(), delta.getValue(), false);
+        productCache.invalidateAfterCommit(delta.getKey());
+        changed++;
+      } else {
+        LOGGER.warnf("Dropping buffered stock delta %d of product %d, which no longer exists or whose"
+            + " stock it would take out of range", delta.getValue(), delta.getKey());
+      }
+    }
+    if (changed > 0) {
+      collectionVersions.bumpAfterCommit(CollectionVersions.PRODUCTS);
+    }
+    return changed;
+  }
+}
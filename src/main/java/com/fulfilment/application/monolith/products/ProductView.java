@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.products;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import java.math.BigDecimal;
+
+/**
+ * Read-only projection of a {@link Product}, selected straight from the query so that listing
+ * products does not load managed entities. Serializes to the same JSON as the entity.
+ */
+@RegisterForReflection
+public record ProductView(Long id, String name, String description, BigDecimal price, int stock) {
+}
@@ -1,55 +1,87 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.common.JournalStats;
+import com.fulfilment.application.monolith.common.SegmentedJournal;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.nio.file.Files;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+/**
+ * Emulates the legacy store manager by appending each store change to a {@link SegmentedJournal}
+ * in {@code store.legacy-journal.directory}. A change counts as sent once it is durable; concurrent
+ * senders share fsyncs.
+ */
 @ApplicationScoped
 public class LegacyStoreManagerGateway {
 
   private static final Logger LOGGER = Logger.getLogger(LegacyStoreManagerGateway.class.getName());
 
+  private final SegmentedJournal journal;
+
+  public LegacyStoreManagerGateway(
+      @ConfigProperty(name = "store.legacy-journal.directory") Optional<String> directory,
+      @ConfigProperty(name = "store.legacy-journal.segment-size", defaultValue = "64M")
+          MemorySize segmentSize) {
+    if (segmentSize.asLongValue() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "store.legacy-journal.segment-size must be below 2G, was " + segmentSize.asLongValue());
+    }
+    Path path = Path.of(directory.orElse(
+        Path.of(System.getProperty("java.io.tmpdir"), "legacy-store-journal").toString()));
+    try {
+      this.journal = new SegmentedJournal(path, Math.toIntExact(segmentSize.asLongValue()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open legacy store journal at " + path, e);
+    }
+    LOGGER.infof("Legacy store journal opened at %s, end offset %d", path, journal.endOffset());
+  }
+
   public void createStoreOnLegacySystem(Store store) {
-    // just to emulate as this would send this to a legacy system, let's write a
-    // temp file with the
-    writeToFile(store);
+    append("Store created", store);
   }
 
   public void updateStoreOnLegacySystem(Store store) {
-    // just to emulate as this would send this to a legacy system, let's write a
-    // temp file with the
-    writeToFile(store);
+    append("Store updated", store);
   }
 
-  private void writeToFile(Store store) {
-    try {
-      // Step 1: Create a temporary file
-      Path tempFile;
-
-      tempFile = Files.createTempFile(store.name, ".txt");
-
-      LOGGER.info("Temporary file created at: " + tempFile.toString());
-
-      // Step 2: Write data to the temporary file
-      String content = "Store created. [ name ="
-          + store.name
-          + " ] [ items on stock ="
-          + store.getQuantityProductsInStock()
-          + "]";
-      Files.write(tempFile, content.getBytes());
-      LOGGER.info("Data written to temporary file.");
+  public JournalStats stats() {
+    return journal.stats();
+  }
 
-      // Step 3: Optionally, read the data back to verify
-      String readContent = new String(Files.readAllBytes(tempFile));
-      LOGGER.info("Data read from temporary file: " + readContent);
+  /** Passes the journalled changes from {@code fromOffset} on to the consumer; returns the end offset. */
+  public long replay(long fromOffset, SegmentedJournal.RecordConsumer consumer) {
+    try {
+      return journal.replay(fromOffset, consumer);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to replay legacy store journal", e);
+    }
+  }
 
-      // Step 4: Delete the temporary file when done
-      Files.delete(tempFile);
-      LOGGER.info("Temporary file deleted.");
+  @PreDestroy
+  void close() {
+    try {
+      journal.close();
+    } catch (IOException e) {
+      LOGGER.warn("Failed to close legacy store journal", e);
+    }
+  }
 
-    } catch (Exception e) {
-      LOGGER.error("Failed to write store to legacy file", e);
+  private void append(String event, Store store) {
+    String content = event + ". [ id =" + store.id
+        + " ] [ name =" + store.name
+        + " ] [ items on stock =" + store.getQuantityProductsInStock() + "]";
+    try {
+      journal.append(content.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      // reported to the caller, so that the outbox dispatcher retries the change
+      throw new UncheckedIOException("Failed to write store to legacy journal", e);
     }
   }
 }
@@ -0,0 +1,197 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Sends the store changes recorded in the outbox to the legacy store manager, in the background
+ * and in batches, so that store requests never wait on the legacy system.
+ *
+ * <p>Delivery is at least once: an entry is removed only after the gateway accepted it. A failed
+ * entry is retried with exponential backoff and marked {@link StoreOutboxEntry.Status#DEAD} after
+ * {@code store.outbox.max-attempts} attempts. Changes of one store are sent in the order they were
+ * made; a store whose oldest change is waiting for a retry holds back its later changes.
+ *
+ * <p>Updates are coalesced per store: the legacy system only needs the latest state, so when an
+ * update is due, the newest pending update of that store is sent in its place and all pending
+ * updates up to it are removed. A store's create is always sent before any of its updates.
+ *
+ * <p>No transaction is held while the gateway is called: a batch is read in one transaction and
+ * its outcome written in another.
+ */
+@ApplicationScoped
+public class LegacyStoreOutboxDispatcher {
+
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreOutboxDispatcher.class.getName());
+
+  private final StoreOutboxRepository outboxRepository;
+  private final LegacyStoreManagerGateway legacyStoreManagerGateway;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final Duration retryBackoff;
+  private final Duration maxRetryBackoff;
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final MeterRegistry registry;
+  private final Timer dispatchTimer;
+  private final Timer deliveryLag;
+
+  public LegacyStoreOutboxDispatcher(
+      StoreOutboxRepository outboxRepository,
+      LegacyStoreManagerGateway legacyStoreManagerGateway,
+      MeterRegistry registry,
+      @ConfigProperty(name = "store.outbox.batch-size", defaultValue = "100") int batchSize,
+      @ConfigProperty(name = "store.outbox.max-attempts", defaultValue = "10") int maxAttempts,
+      @ConfigProperty(name = "store.outbox.retry-backoff", defaultValue = "1s") Duration retryBackoff,
+      @ConfigProperty(name = "store.outbox.max-retry-backoff", defaultValue = "5m")
+          Duration maxRetryBackoff) {
+    this.outboxRepository = outboxRepository;
+    this.legacyStoreManagerGateway = legacyStoreManagerGateway;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.retryBackoff = retryBackoff;
+    this.maxRetryBackoff = maxRetryBackoff;
+    this.registry = registry;
+    this.dispatchTimer = Timer.builder("store.outbox.dispatch")
+        .description("Time to send one batch of outbox entries to the legacy store manager")
+        .publishPercentileHistogram()
+        .register(registry);
+    this.deliveryLag = Timer.builder("store.outbox.delivery.lag")
+        .description("Time from a store change to its delivery to the legacy store manager")
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+
+  @Scheduled(every = "${store.outbox.dispatch-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void onSchedule() {
+    // keep draining while batches come back full, so a backlog does not wait for the next tick
+    while (dispatch() == batchSize) {
+      LOGGER.debug("Outbox batch was full, dispatching the next one");
+    }
+  }
+
+  /** Sends one batch of due entries; returns how many entries were attempted. */
+  public int dispatch() {
+    Timer.Sample sample = Timer.start(registry);
+    int attempted = dispatchBatch();
+    if (attempted > 0) {
+      sample.stop(dispatchTimer);
+    }
+    return attempted;
+  }
+
+  private int dispatchBatch() {
+    List<StoreOutboxEntry> due = new ArrayList<>();
+    Map<Long, List<StoreOutboxEntry>> pendingUpdates = new HashMap<>();
+    QuarkusTransaction.requiringNew().run(() -> {
+      due.addAll(outboxRepository.findDue(LocalDateTime.now(), batchSize));
+      List<Long> updatedStores = due.stream()
+          .filter(entry -> entry.type == StoreOutboxEntry.Type.UPDATED)
+          .map(entry -> entry.storeId)
+          .toList();
+      for (StoreOutboxEntry update : outboxRepository.findPendingUpdates(updatedStores)) {
+        pendingUpdates.computeIfAbsent(update.storeId, id -> new ArrayList<>()).add(update);
+      }
+    });
+    if (due.isEmpty()) {
+      return 0;
+    }
+
+    List<Long> delivered = new ArrayList<>();
+    List<StoreOutboxEntry> failed = new ArrayList<>();
+    for (StoreOutboxEntry entry : due) {
+      // a due update is the oldest pending change of its store, so its pending updates are all
+      // newer ones and the newest of them stands for all
+      List<StoreOutboxEntry> updates = entry.type == StoreOutboxEntry.Type.UPDATED
+          ? pendingUpdates.getOrDefault(entry.storeId, List.of(entry))
+          : List.of(entry);
+      StoreOutboxEntry newest = updates.get(updates.size() - 1);
+      try {
+        send(entry.type, newest);
+        updates.forEach(update -> delivered.add(update.id));
+        // the entry is the oldest of the changes delivered
+        deliveryLag.record(Duration.between(entry.createdAt, LocalDateTime.now()));
+        coalesced.add(updates.size() - 1);
+      } catch (RuntimeException e) {
+        recordFailure(entry, e);
+        failed.add(entry);
+      }
+    }
+
+    QuarkusTransaction.requiringNew().run(() -> {
+      outboxRepository.deleteDelivered(delivered);
+      failed.forEach(outboxRepository::markFailed);
+    });
+    sent.add(due.size() - failed.size());
+    failures.add(failed.size());
+    return due.size();
+  }
+
+  /** Counts since start, and the pending and dead entries currently in the outbox. */
+  public StoreOutboxStats stats() {
+    return QuarkusTransaction.requiringNew().call(() -> new StoreOutboxStats(
+        outboxRepository.countByStatus(StoreOutboxEntry.Status.PENDING),
+        outboxRepository.countByStatus(StoreOutboxEntry.Status.DEAD),
+        sent.sum(),
+        coalesced.sum(),
+        failures.sum()));
+  }
+
+  private void send(StoreOutboxEntry.Type type, StoreOutboxEntry snapshot) {
+    Store store = snapshot.toStore();
+    Timer.Sample sample = Timer.start(registry);
+    String outcome = "failure";
+    try {
+      switch (type) {
+        case CREATED -> legacyStoreManagerGateway.createStoreOnLegacySystem(store);
+        case UPDATED -> legacyStoreManagerGateway.updateStoreOnLegacySystem(store);
+        default -> throw new IllegalStateException("Unknown outbox entry type: " + type);
+      }
+      outcome = "success";
+    } finally {
+      sample.stop(Timer.builder("store.outbox.send")
+          .description("Latency of the calls to the legacy store manager")
+          .tag("type", type.name())
+          .tag("outcome", outcome)
+          .publishPercentileHistogram()
+          .register(registry));
+    }
+  }
+
+  private void recordFailure(StoreOutboxEntry entry, RuntimeException e) {
+    entry.attempts++;
+    entry.lastError = truncate(String.valueOf(e.getMessage()));
+    if (entry.attempts >= maxAttempts) {
+      entry.status = StoreOutboxEntry.Status.DEAD;
+      LOGGER.errorf(e, "Giving up on %s of store %d after %d attempts",
+          entry.type, entry.storeId, entry.attempts);
+    } else {
+      entry.nextAttemptAt = LocalDateTime.now().plus(backoff(entry.attempts));
+      LOGGER.warnf("Sending %s of store %d to the legacy system failed (attempt %d), retrying at %s: %s",
+          entry.type, entry.storeId, entry.attempts, entry.nextAttemptAt, e.getMessage());
+    }
+  }
+
+  private Duration backoff(int attempts) {
+    Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+    return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+  }
+
+  private static String truncate(String message) {
+    return message.length() > 1000 ? message.substring(0, 1000) : message;
+  }
+}
@@ -4,9 +4,13 @@ import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 @Entity
 @Cacheable
+// keyset pages are read in (name, id) order
+@Table(indexes = @Index(name = "ix_store_name_id", columnList = "name, id"))
 public class Store extends PanacheEntity {
 
   @Column(length = 40, unique = true)
@@ -0,0 +1,80 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A store change that still has to be sent to the legacy store manager. Written in the same
+ * transaction as the change itself and removed once the legacy system accepted it. Carries a
+ * snapshot of the store, so later changes or a delete of the store do not affect what is sent.
+ */
+@Entity
+@Table(name = "store_outbox", indexes = {
+    @Index(name = "ix_store_outbox_status_next_attempt", columnList = "status, nextAttemptAt"),
+    @Index(name = "ix_store_outbox_store", columnList = "storeId")})
+public class StoreOutboxEntry extends PanacheEntity {
+
+  public enum Type {
+    CREATED,
+    UPDATED
+  }
+
+  public enum Status {
+    PENDING,
+    /** Gave up after the maximum number of attempts; kept for inspection and manual replay. */
+    DEAD
+  }
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  public Type type;
+
+  @Column(nullable = false)
+  public Long storeId;
+
+  @Column(length = 40)
+  public String storeName;
+
+  public int quantityProductsInStock;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  public Status status = Status.PENDING;
+
+  public int attempts;
+
+  @Column(nullable = false)
+  public LocalDateTime createdAt;
+
+  @Column(nullable = false)
+  public LocalDateTime nextAttemptAt;
+
+  @Column(length = 1000)
+  public String lastError;
+
+  public StoreOutboxEntry() {
+  }
+
+  StoreOutboxEntry(Type type, Store store, LocalDateTime now) {
+    this.type = type;
+    this.storeId = store.id;
+    this.storeName = store.name;
+    this.quantityProductsInStock = store.getQuantityProductsInStock();
+    this.createdAt = now;
+    this.nextAttemptAt = now;
+  }
+
+  /** The store as it was when the change was made. */
+  Store toStore() {
+    Store store = new Store(storeName);
+    store.id = storeId;
+    store.setQuantityProductsInStock(quantityProductsInStock);
+    return store;
+  }
+}
@@ -0,0 +1,77 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class StoreOutboxRepository implements PanacheRepository<StoreOutboxEntry> {
+
+  private final Duration coalesceWindow;
+
+  public StoreOutboxRepository(
+      @ConfigProperty(name = "store.outbox.coalesce-window", defaultValue = "250ms")
+          Duration coalesceWindow) {
+    this.coalesceWindow = coalesceWindow;
+  }
+
+  /**
+   * Records the change to the store in the current transaction. An update is held back for the
+   * coalesce window, so that further updates of the store made meanwhile are sent as one.
+   */
+  public void enqueue(StoreOutboxEntry.Type type, Store store) {
+    LocalDateTime now = LocalDateTime.now();
+    StoreOutboxEntry entry = new StoreOutboxEntry(type, store, now);
+    if (type == StoreOutboxEntry.Type.UPDATED) {
+      entry.nextAttemptAt = now.plus(coalesceWindow);
+    }
+    persist(entry);
+  }
+
+  /**
+   * Pending entries that are due, oldest first. Only the oldest pending entry of each store is
+   * returned, so a store's changes reach the legacy system in order even when one is retried. A
+   * store whose creation is dead is never created on the legacy system, so its later entries are
+   * held back with it.
+   */
+  public List<StoreOutboxEntry> findDue(LocalDateTime now, int limit) {
+    return find("from StoreOutboxEntry due where due.status = ?1 and due.nextAttemptAt <= ?2"
+            + " and not exists (select 1 from StoreOutboxEntry earlier"
+            + " where earlier.storeId = due.storeId and earlier.id < due.id"
+            + " and (earlier.status = ?1 or (earlier.status = ?3 and earlier.type = ?4)))"
+            + " order by due.id",
+        StoreOutboxEntry.Status.PENDING, now, StoreOutboxEntry.Status.DEAD,
+        StoreOutboxEntry.Type.CREATED)
+        .range(0, limit - 1)
+        .list();
+  }
+
+  /** Pending updates of the given stores, oldest first, whether due or not. */
+  public List<StoreOutboxEntry> findPendingUpdates(Collection<Long> storeIds) {
+    if (storeIds.isEmpty()) {
+      return List.of();
+    }
+    return list("status = ?1 and type = ?2 and storeId in ?3 order by id",
+        StoreOutboxEntry.Status.PENDING, StoreOutboxEntry.Type.UPDATED, storeIds);
+  }
+
+  public long countByStatus(StoreOutboxEntry.Status status) {
+    return count("status", status);
+  }
+
+  /** Records a failed attempt: the entry is retried at {@code nextAttemptAt} or, when dead, never. */
+  public void markFailed(StoreOutboxEntry entry) {
+    update("attempts = ?1, nextAttemptAt = ?2, status = ?3, lastError = ?4 where id = ?5",
+        entry.attempts, entry.nextAttemptAt, entry.status, entry.lastError, entry.id);
+  }
+
+  public void deleteDelivered(Collection<Long> ids) {
+    if (!ids.isEmpty()) {
+      delete("id in ?1", ids);
+    }
+  }
+}
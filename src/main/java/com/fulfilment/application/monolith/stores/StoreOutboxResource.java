@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+
+@Path("admin/store-outbox")
+@ApplicationScoped
+@Produces("application/json")
+public class StoreOutboxResource {
+
+  private final LegacyStoreOutboxDispatcher dispatcher;
+
+  public StoreOutboxResource(LegacyStoreOutboxDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  @GET
+  public StoreOutboxStats stats() {
+    return dispatcher.stats();
+  }
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.stores;
+
+/**
+ * State of the store outbox: entries {@code pending} delivery and {@code dead} ones, and since
+ * start the entries {@code sent}, the updates {@code coalesced} into a newer one instead of being
+ * sent, and the failed attempts.
+ */
+public record StoreOutboxStats(long pending, long dead, long sent, long coalesced, long failures) {
+}
@@ -1,8 +1,48 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.common.NameCursor;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @ApplicationScoped
 public class StoreRepository implements PanacheRepository<Store> {
+
+  /**
+   * Adds {@code delta} to the stock of the store in one statement, without reading it first. A
+   * delta that would take the stock out of the int range of the column is not applied, nor, when
+   * guarded, one that would take it below zero.
+   *
+   * @return whether the stock was changed
+   */
+  public boolean addStock(Long id, long delta, boolean guarded) {
+    // the sum is checked as a long, so that the check itself cannot overflow
+    return update("quantityProductsInStock = quantityProductsInStock + ?1 where id = ?2"
+            + " and cast(quantityProductsInStock as Long) + ?3 between ?4 and ?5",
+        Math.toIntExact(delta), id, delta, guarded ? 0L : Integer.MIN_VALUE, (long) Integer.MAX_VALUE) > 0;
+  }
+
+  /** Those of the ids that belong to an existing store, in one query. */
+  public Set<Long> findExistingIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(getEntityManager()
+        .createQuery("select id from Store where id in ?1", Long.class)
+        .setParameter(1, ids)
+        .getResultList());
+  }
+
+  /** Up to {@code limit} stores in (name, id) order, starting after the cursor or at the start. */
+  public List<StoreView> listPage(NameCursor after, int limit) {
+    Sort order = Sort.by("name").and("id");
+    var query = after == null
+        ? findAll(order)
+        : find("(name, id) > (?1, ?2)", order, after.name(), after.id());
+    return query.project(StoreView.class).range(0, limit - 1).list();
+  }
 }
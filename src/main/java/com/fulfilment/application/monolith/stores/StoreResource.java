@@ -1,11 +1,18 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.common.CollectionVersions;
+import com.fulfilment.application.monolith.common.NameCursor;
+import com.fulfilment.application.monolith.common.NameMatch;
+import com.fulfilment.application.monolith.common.NamePages;
+import com.fulfilment.application.monolith.common.NamePrefixIndex;
+import com.fulfilment.application.monolith.common.ReadOnlyTransaction;
+import com.fulfilment.application.monolith.common.StockDelta;
+import com.fulfilment.application.monolith.common.StockDeltaResult;
+import com.fulfilment.application.monolith.fulfilment.FulfilmentBusyException;
+import com.fulfilment.application.monolith.fulfilment.FulfilmentUnits;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.transaction.Status;
-import jakarta.transaction.Synchronization;
 import jakarta.transaction.Transactional;
-import jakarta.transaction.TransactionManager;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
@@ -14,8 +21,11 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import java.util.List;
 
 @Path("stores")
@@ -25,59 +35,65 @@ import java.util.List;
 public class StoreResource {
 
   private final StoreRepository storeRepository;
-  private final LegacyStoreManagerGateway legacyStoreManagerGateway;
-  private final TransactionManager transactionManager;
+  private final StoreOutboxRepository outboxRepository;
+  private final StoreStockDeltas stockDeltas;
+  private final CollectionVersions collectionVersions;
+  private final StoreNameIndex nameIndex;
+  private final FulfilmentUnits fulfilmentUnits;
 
   public StoreResource(
       StoreRepository storeRepository,
-      LegacyStoreManagerGateway legacyStoreManagerGateway,
-      TransactionManager transactionManager) {
+      StoreOutboxRepository outboxRepository,
+      StoreStockDeltas stockDeltas,
+      CollectionVersions collectionVersions,
+      StoreNameIndex nameIndex,
+      FulfilmentUnits fulfilmentUnits) {
     this.storeRepository = storeRepository;
-    this.legacyStoreManagerGateway = legacyStoreManagerGateway;
-    this.transactionManager = transactionManager;
+    this.outboxRepository = outboxRepository;
+    this.stockDeltas = stockDeltas;
+    this.collectionVersions = collectionVersions;
+    this.nameIndex = nameIndex;
+    this.fulfilmentUnits = fulfilmentUnits;
   }
 
   /**
-   * Registers a callback to notify the legacy system only after the current
-   * transaction has committed,
-   * so the legacy system receives confirmed data.
+   * Lists by name. Without {@code limit} and {@code after} all of them are returned; otherwise a
+   * keyset page, see {@link NamePages}.
    */
-  private void notifyLegacyAfterCommit(Runnable action) {
-    try {
-      transactionManager
-          .getTransaction()
-          .registerSynchronization(
-              new Synchronization() {
-                @Override
-                public void beforeCompletion() {
-                  // No action required before completion
-                }
-
-                @Override
-                public void afterCompletion(int status) {
-                  if (status == Status.STATUS_COMMITTED) {
-                    action.run();
-                  }
-                }
-              });
-    } catch (Exception e) {
-      throw new IllegalStateException("Failed to register post-commit sync", e);
+  @GET
+  @ReadOnlyTransaction
+  public Response get(
+      @QueryParam("after") String after, @QueryParam("limit") Integer limit, @Context UriInfo uriInfo) {
+    Integer pageSize = NamePages.pageSize(after, limit);
+    if (pageSize == null) {
+      return Response.ok(storeRepository.findAll(Sort.by("name")).project(StoreView.class).list()).build();
     }
+    List<StoreView> rows = storeRepository.listPage(NameCursor.decode(after), pageSize + 1);
+    return NamePages.toResponse(rows, pageSize, row -> new NameCursor(row.name(), row.id()), uriInfo);
   }
 
+  /**
+   * Up to {@code limit} stores whose name starts with the prefix, ignoring case and diacritics, in
+   * name order. Served from memory by the {@link StoreNameIndex}.
+   */
   @GET
-  public List<Store> get() {
-    return storeRepository.listAll(Sort.by("name"));
+  @Path("search")
+  public List<NameMatch> search(@QueryParam("prefix") String prefix, @QueryParam("limit") Integer limit) {
+    if (prefix == null) {
+      throw new WebApplicationException("Prefix was not set on request.", 422);
+    }
+    return nameIndex.search(prefix, NamePrefixIndex.searchLimit(limit));
   }
 
   @GET
   @Path("{id}")
-  public Store getSingle(Long id) {
-    Store entity = storeRepository.findById(id);
-    if (entity == null) {
+  @ReadOnlyTransaction
+  public StoreView getSingle(Long id) {
+    StoreView view = storeRepository.find("id", id).project(StoreView.class).firstResult();
+    if (view == null) {
       throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
     }
-    return entity;
+    return view;
   }
 
   @POST
@@ -92,7 +108,10 @@ public class StoreResource {
 
     storeRepository.persist(store);
 
-    notifyLegacyAfterCommit(() -> legacyStoreManagerGateway.createStoreOnLegacySystem(store));
+    // sent to the legacy system by LegacyStoreOutboxDispatcher once this transaction committed
+    outboxRepository.enqueue(StoreOutboxEntry.Type.CREATED, store);
+    collectionVersions.bumpAfterCommit(CollectionVersions.STORES);
+    nameIndex.putAfterCommit(store.id, store.name);
 
     return Response.ok(store).status(201).build();
   }
@@ -114,9 +133,9 @@ public class StoreResource {
     entity.name = updatedStore.name;
     entity.setQuantityProductsInStock(updatedStore.getQuantityProductsInStock());
 
-    Store entityRef = entity;
-    notifyLegacyAfterCommit(
-        () -> legacyStoreManagerGateway.updateStoreOnLegacySystem(entityRef));
+    outboxRepository.enqueue(StoreOutboxEntry.Type.UPDATED, entity);
+    collectionVersions.bumpAfterCommit(CollectionVersions.STORES);
+    nameIndex.putAfterCommit(id, entity.name);
 
     return entity;
   }
@@ -143,13 +162,52 @@ public class StoreResource {
       entity.setQuantityProductsInStock(updatedStore.getQuantityProductsInStock());
     }
 
-    Store entityRef = entity;
-    notifyLegacyAfterCommit(
-        () -> legacyStoreManagerGateway.updateStoreOnLegacySystem(entityRef));
+    outboxRepository.enqueue(StoreOutboxEntry.Type.UPDATED, entity);
+    collectionVersions.bumpAfterCommit(CollectionVersions.STORES);
+    nameIndex.putAfterCommit(id, entity.name);
 
     return entity;
   }
 
+  /**
+   * Changes the stock of the store by a delta in one update statement, so concurrent deltas never
+   * overwrite each other. See {@link StockDelta} for the guard and the buffered mode.
+   */
+  @POST
+  @Path("{id}/stock-delta")
+  @Transactional
+  public Response addStock(Long id, StockDelta request) {
+    if (request == null) {
+      throw new WebApplicationException("Stock delta was not set on request.", 422);
+    }
+    if (request.buffered()) {
+      if (!request.allowNegative()) {
+        throw new WebApplicationException("Buffered stock deltas cannot be guarded, set allowNegative.", 422);
+      }
+      if (storeRepository.findById(id) == null) {
+        throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      }
+      if (!stockDeltas.add(id, request.delta())) {
+        throw new WebApplicationException(
+            "Buffered stock deltas of store " + id + " would overflow, retry after the next flush.", 409);
+      }
+      return Response.accepted(new StockDeltaResult(id, null, true)).build();
+    }
+
+    boolean guarded = !request.allowNegative();
+    if (!storeRepository.addStock(id, request.delta(), guarded)) {
+      if (storeRepository.count("id", id) == 0) {
+        throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      }
+      throw new WebApplicationException("Stock of store " + id + " would go "
+          + (guarded && request.delta() < 0 ? "below zero." : "out of range."), 409);
+    }
+    StoreView store = storeRepository.find("id", id).project(StoreView.class).firstResult();
+    outboxRepository.enqueue(StoreOutboxEntry.Type.UPDATED, store.toStore());
+    collectionVersions.bumpAfterCommit(CollectionVersions.STORES);
+    return Response.ok(new StockDeltaResult(id, store.quantityProductsInStock(), false)).build();
+  }
+
   @DELETE
   @Path("{id}")
   @Transactional
@@ -158,7 +216,14 @@ public class StoreResource {
     if (entity == null) {
       throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
     }
+    try {
+      fulfilmentUnits.removeAllOfStore(id);
+    } catch (FulfilmentBusyException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
     storeRepository.delete(entity);
+    collectionVersions.bumpAfterCommit(CollectionVersions.STORES);
+    nameIndex.removeAfterCommit(id);
     return Response.status(204).build();
   }
 
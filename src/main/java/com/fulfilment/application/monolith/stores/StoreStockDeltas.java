@@ -0,0 +1,89 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.common.CollectionVersions;
+import com.fulfilment.application.monolith.common.StockDeltaBuffer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.jboss.logging.Logger;
+
+/**
+ * Buffered stock deltas of stores. Deltas are accumulated in memory and applied every
+ * {@code stock.delta.flush-interval}, all of them in one transaction with one update per store, and
+ * each changed store is put in the outbox once for the legacy system.
+ */
+@ApplicationScoped
+public class StoreStockDeltas {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreStockDeltas.class.getName());
+
+  private final StoreRepository storeRepository;
+  private final StoreOutboxRepository outboxRepository;
+  private final CollectionVersions collectionVersions;
+  private final StockDeltaBuffer buffer = new StockDeltaBuffer();
+
+  public StoreStockDeltas(
+      StoreRepository storeRepository,
+      StoreOutboxRepository outboxRepository,
+      CollectionVersions collectionVersions) {
+    this.storeRepository = storeRepository;
+    this.outboxRepository = outboxRepository;
+    this.collectionVersions = collectionVersions;
+  }
+
+  /** Buffers the delta; false when the pending deltas of the store would no longer fit in an int. */
+  public boolean add(Long storeId, int delta) {
+    return buffer.add(storeId, delta);
+  }
+
+  @Scheduled(every = "${stock.delta.flush-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void onSchedule() {
+    flush();
+  }
+
+  /** Applies the buffered deltas; returns the number of stores changed. */
+  public synchronized int flush() {
+    Map<Long, Long> deltas = buffer.drain();
+    if (deltas.isEmpty()) {
+      return 0;
+    }
+    try {
+      return QuarkusTransaction.requiringNew().call(() -> apply(deltas));
+    } catch (RuntimeException e) {
+      buffer.restore(deltas);
+      LOGGER.error("Failed to apply buffered store stock deltas, keeping them for the next flush", e);
+      throw e;
+    }
+  }
+
+  @PreDestroy
+  void flushOnShutdown() {
+    flush();
+  }
+
+  // a delta that cannot be applied is dropped rather than failing the flush, which would keep it
+  // and fail every flush after it, holding back the deltas of all other stores
+  private int apply(Map<Long, Long> deltas) {
+    Set<Long> changed = new HashSet<>();
+    for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+      if (storeRepository.addStock(delta.getKey(), delta.getValue(), false)) {
+        changed.add(delta.getKey());
+      } else {
+        LOGGER.warnf("Dropping buffered stock delta %d of store %d, which no longer exists or whose"
+            + " stock it would take out of range", delta.getValue(), delta.getKey());
+      }
+    }
+    if (changed.isEmpty()) {
+      return 0;
+    }
+    storeRepository.find("id in ?1", changed).project(StoreView.class).stream()
+        .forEach(view -> outboxRepository.enqueue(StoreOutboxEntry.Type.UPDATED, view.toStore()));
+    collectionVersions.bumpAfterCommit(CollectionVersions.STORES);
+    return changed.size();
+  }
+}
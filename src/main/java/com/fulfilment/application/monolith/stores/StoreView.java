@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Read-only projection of a {@link Store}, selected straight from the query so that listing stores
+ * does not load managed entities. Serializes to the same JSON as the entity.
+ */
+@RegisterForReflection
+public record StoreView(Long id, String name, int quantityProductsInStock) {
+
+  /** A detached store with this state, e.g. as snapshot for the outbox. */
+  Store toStore() {
+    Store store = new Store(name);
+    store.id = id;
+    store.setQuantityProductsInStock(quantityProductsInStock);
+    return store;
+  }
+}
@@ -5,13 +5,20 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "warehouse")
+@Table(
+    name = "warehouse",
+    uniqueConstraints = @UniqueConstraint(
+        name = DbWarehouse.BUSINESS_UNIT_CODE_CONSTRAINT, columnNames = "businessUnitCode"))
 @Cacheable
 public class DbWarehouse {
 
+  static final String BUSINESS_UNIT_CODE_CONSTRAINT = "uk_warehouse_business_unit_code";
+
   @Id
   @GeneratedValue
   public Long id;
@@ -28,6 +35,9 @@ public class DbWarehouse {
 
   private LocalDateTime archivedAt;
 
+  @Version
+  private Long version;
+
   public DbWarehouse() {
     // Required no-arg constructor for JPA
   }
@@ -79,4 +89,12 @@ public class DbWarehouse {
   public void setArchivedAt(LocalDateTime archivedAt) {
     this.archivedAt = archivedAt;
   }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
 }
@@ -1,54 +1,163 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.common.CollectionVersions;
+import com.fulfilment.application.monolith.common.ReadOnlyTransaction;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseVersionConflictException;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.PersistenceException;
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
   private static final String BUSINESS_UNIT_CODE = "businessUnitCode";
+  private static final int STREAM_FETCH_SIZE = 500;
+
+  private final CollectionVersions collectionVersions;
+
+  public WarehouseRepository(CollectionVersions collectionVersions) {
+    this.collectionVersions = collectionVersions;
+  }
 
   @Override
   public void create(Warehouse warehouse) {
-    DbWarehouse db = toDb(warehouse);
-    db.setCreatedAt(warehouse.getCreationAt() != null
-        ? warehouse.getCreationAt().toLocalDateTime()
-        : LocalDateTime.now());
-    persist(db);
+    insert(warehouse);
+    flushUnique("Business unit code already exists: " + warehouse.getBusinessUnitCode());
+    collectionVersions.bumpAfterCommit(CollectionVersions.WAREHOUSES);
   }
 
+  // replace and archive have already read the row, so the changed columns are written by code in
+  // one UPDATE that also checks the version, instead of loading and dirty checking the entity
   @Override
   public void update(Warehouse warehouse) {
-    DbWarehouse db = find(BUSINESS_UNIT_CODE, warehouse.getBusinessUnitCode()).firstResult();
-    if (db == null) {
-      throw new IllegalArgumentException("Warehouse not found: " + warehouse.getBusinessUnitCode());
-    }
-    db.setLocation(warehouse.getLocation());
-    db.setCapacity(warehouse.getCapacity());
-    db.setStock(warehouse.getStock());
-    db.setArchivedAt(warehouse.getArchivedAt() != null
-        ? warehouse.getArchivedAt().toLocalDateTime()
-        : null);
-    persist(db);
+    updateByCode(warehouse, "location = ?1, capacity = ?2, stock = ?3",
+        warehouse.getLocation(), warehouse.getCapacity(), warehouse.getStock());
   }
 
   @Override
-  public void remove(Warehouse warehouse) {
-    DbWarehouse db = find(BUSINESS_UNIT_CODE, warehouse.getBusinessUnitCode()).firstResult();
-    if (db != null) {
-      delete(db);
+  public void archive(Warehouse warehouse) {
+    updateByCode(warehouse, "archivedAt = ?1", warehouse.getArchivedAt().toLocalDateTime());
+  }
+
+  private void updateByCode(Warehouse warehouse, String assignments, Object... values) {
+    List<Object> params = new ArrayList<>(Arrays.asList(values));
+    StringBuilder query = new StringBuilder(assignments)
+        .append(", version = version + 1 where businessUnitCode = ?");
+    params.add(warehouse.getBusinessUnitCode());
+    query.append(params.size());
+    if (warehouse.getVersion() != null) {
+      params.add(warehouse.getVersion());
+      query.append(" and version = ?").append(params.size());
+    }
+
+    if (update(query.toString(), params.toArray()) == 0) {
+      if (warehouse.getVersion() == null) {
+        throw new IllegalArgumentException("Warehouse not found: " + warehouse.getBusinessUnitCode());
+      }
+      throw new WarehouseVersionConflictException(
+          "Warehouse " + warehouse.getBusinessUnitCode() + " was changed since version " + warehouse.getVersion());
     }
+    if (warehouse.getVersion() != null) {
+      warehouse.setVersion(warehouse.getVersion() + 1);
+    }
+    collectionVersions.bumpAfterCommit(CollectionVersions.WAREHOUSES);
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    if (warehouses.isEmpty()) {
+      return;
+    }
+    for (Warehouse warehouse : warehouses) {
+      insert(warehouse);
+    }
+    flushUnique("A business unit code of the batch already exists");
+    collectionVersions.bumpAfterCommit(CollectionVersions.WAREHOUSES);
+  }
+
+  @Override
+  public void updateAll(List<Warehouse> warehouses) {
+    if (warehouses.isEmpty()) {
+      return;
+    }
+    Map<String, DbWarehouse> managed = new HashMap<>();
+    for (DbWarehouse db : list("businessUnitCode in ?1",
+        warehouses.stream().map(Warehouse::getBusinessUnitCode).toList())) {
+      managed.put(db.getBusinessUnitCode(), db);
+    }
+    for (Warehouse warehouse : warehouses) {
+      DbWarehouse db = managed.get(warehouse.getBusinessUnitCode());
+      if (db == null) {
+        throw new IllegalArgumentException("Warehouse not found: " + warehouse.getBusinessUnitCode());
+      }
+      // the managed entity's @Version guards the flush, this guards the changes made since the read
+      if (warehouse.getVersion() != null && !warehouse.getVersion().equals(db.getVersion())) {
+        throw new WarehouseVersionConflictException(
+            "Warehouse " + warehouse.getBusinessUnitCode() + " was changed since version " + warehouse.getVersion());
+      }
+      copyChanges(warehouse, db);
+    }
+    flush();
+    for (Warehouse warehouse : warehouses) {
+      warehouse.setVersion(managed.get(warehouse.getBusinessUnitCode()).getVersion());
+    }
+    collectionVersions.bumpAfterCommit(CollectionVersions.WAREHOUSES);
+  }
+
+  @Override
+  public void remove(Warehouse warehouse) {
+    delete(BUSINESS_UNIT_CODE, warehouse.getBusinessUnitCode());
+    collectionVersions.bumpAfterCommit(CollectionVersions.WAREHOUSES);
   }
 
   @Override
   public Warehouse findByBusinessUnitCode(String buCode) {
-    DbWarehouse db = find(BUSINESS_UNIT_CODE, buCode).firstResult();
-    return db != null ? toDomain(db) : null;
+    WarehouseRow row = find(BUSINESS_UNIT_CODE, buCode).project(WarehouseRow.class).firstResult();
+    return row != null ? row.toDomain() : null;
+  }
+
+  @Override
+  public List<Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+    if (buCodes.isEmpty()) {
+      return List.of();
+    }
+    return find("businessUnitCode in ?1", buCodes).project(WarehouseRow.class).stream()
+        .map(WarehouseRow::toDomain)
+        .toList();
+  }
+
+  @Override
+  public Map<String, Long> findActiveIds(Collection<String> buCodes) {
+    if (buCodes.isEmpty()) {
+      return Map.of();
+    }
+    Map<String, Long> ids = new HashMap<>();
+    for (Object[] row : getEntityManager()
+        .createQuery("select businessUnitCode, id from DbWarehouse"
+            + " where businessUnitCode in ?1 and archivedAt is null", Object[].class)
+        .setParameter(1, buCodes)
+        .getResultList()) {
+      ids.put((String) row[0], (Long) row[1]);
+    }
+    return ids;
   }
 
   @Override
@@ -58,35 +167,149 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
 
   @Override
   public int sumCapacityByLocation(String locationId) {
-    List<DbWarehouse> list = list("location = ?1 and archivedAt is null", locationId);
-    return list.stream().mapToInt(d -> d.getCapacity() != null ? d.getCapacity() : 0).sum();
+    Number sum = (Number) getEntityManager()
+        .createQuery("select coalesce(sum(capacity), 0) from DbWarehouse"
+            + " where location = ?1 and archivedAt is null")
+        .setParameter(1, locationId)
+        .getSingleResult();
+    return sum.intValue();
+  }
+
+  @Override
+  public Map<String, LocationOccupancy> occupancyByLocation() {
+    return toOccupancies(getEntityManager()
+        .createQuery("select location, count(*), coalesce(sum(capacity), 0) from DbWarehouse"
+            + " where archivedAt is null and location is not null group by location")
+        .getResultList());
+  }
+
+  @Override
+  public Map<String, LocationOccupancy> occupancyOfActive(Collection<String> buCodes) {
+    if (buCodes.isEmpty()) {
+      return Map.of();
+    }
+    return toOccupancies(getEntityManager()
+        .createQuery("select location, count(*), coalesce(sum(capacity), 0) from DbWarehouse"
+            + " where businessUnitCode in ?1 and archivedAt is null and location is not null"
+            + " group by location")
+        .setParameter(1, buCodes)
+        .getResultList());
+  }
+
+  @Override
+  public int archiveAll(Collection<String> buCodes, ZonedDateTime archivedAt) {
+    if (buCodes.isEmpty()) {
+      return 0;
+    }
+    return bumpIfChanged(update("archivedAt = ?1, version = version + 1"
+        + " where businessUnitCode in ?2 and archivedAt is null",
+        archivedAt.toLocalDateTime(), buCodes));
+  }
+
+  @Override
+  public int archiveAllAtLocation(String locationId, ZonedDateTime archivedAt) {
+    return bumpIfChanged(update(
+        "archivedAt = ?1, version = version + 1 where location = ?2 and archivedAt is null",
+        archivedAt.toLocalDateTime(), locationId));
+  }
+
+  private int bumpIfChanged(int rows) {
+    if (rows > 0) {
+      collectionVersions.bumpAfterCommit(CollectionVersions.WAREHOUSES);
+    }
+    return rows;
+  }
+
+  private static Map<String, LocationOccupancy> toOccupancies(List<?> rows) {
+    Map<String, LocationOccupancy> occupancies = new HashMap<>();
+    for (Object row : rows) {
+      Object[] columns = (Object[]) row;
+      occupancies.put((String) columns[0], new LocationOccupancy(
+          ((Number) columns[1]).longValue(), ((Number) columns[2]).intValue()));
+    }
+    return occupancies;
   }
 
   @Override
   public List<Warehouse> listActive() {
-    return list("archivedAt is null", io.quarkus.panache.common.Sort.ascending(BUSINESS_UNIT_CODE))
+    return find("archivedAt is null", Sort.ascending(BUSINESS_UNIT_CODE))
+        .project(WarehouseRow.class)
         .stream()
-        .map(WarehouseRepository::toDomain)
+        .map(WarehouseRow::toDomain)
         .toList();
   }
 
+  @Override
+  public List<Warehouse> listActivePage(String after, int limit) {
+    var query = after == null
+        ? find("archivedAt is null", Sort.ascending(BUSINESS_UNIT_CODE))
+        : find("archivedAt is null and businessUnitCode > ?1", Sort.ascending(BUSINESS_UNIT_CODE), after);
+    return query.project(WarehouseRow.class)
+        .range(0, limit - 1)
+        .stream()
+        .map(WarehouseRow::toDomain)
+        .toList();
+  }
+
+  // in a transaction so that the driver can honour the fetch size (Postgres needs autocommit off)
+  @Override
+  @ReadOnlyTransaction
+  public void forEachActive(Consumer<Warehouse> consumer) {
+    try (Stream<WarehouseRow> rows = find("archivedAt is null", Sort.ascending(BUSINESS_UNIT_CODE))
+        .project(WarehouseRow.class)
+        .withHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+        .stream()) {
+      rows.forEach(row -> consumer.accept(row.toDomain()));
+    }
+  }
+
+  private void insert(Warehouse warehouse) {
+    DbWarehouse db = toDb(warehouse);
+    db.setCreatedAt(warehouse.getCreationAt() != null
+        ? warehouse.getCreationAt().toLocalDateTime()
+        : LocalDateTime.now());
+    persist(db);
+    warehouse.setVersion(db.getVersion());
+  }
+
+  // inserts are flushed right away so that a duplicate business unit code is reported as such
+  private void flushUnique(String duplicateMessage) {
+    try {
+      flush();
+    } catch (PersistenceException e) {
+      ConstraintViolationException violation = constraintViolation(e);
+      if (violation != null && violation.getConstraintName() != null
+          && violation.getConstraintName().toLowerCase(Locale.ROOT)
+              .contains(DbWarehouse.BUSINESS_UNIT_CODE_CONSTRAINT)) {
+        throw new WarehouseValidationException(duplicateMessage);
+      }
+      throw e;
+    }
+  }
+
+  private static ConstraintViolationException constraintViolation(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation) {
+        return violation;
+      }
+    }
+    return null;
+  }
+
   private static DbWarehouse toDb(Warehouse w) {
     DbWarehouse db = new DbWarehouse();
     db.setBusinessUnitCode(w.getBusinessUnitCode());
     db.setLocation(w.getLocation());
     db.setCapacity(w.getCapacity());
     db.setStock(w.getStock());
+    db.setArchivedAt(w.getArchivedAt() != null ? w.getArchivedAt().toLocalDateTime() : null);
     return db;
   }
 
-  private static Warehouse toDomain(DbWarehouse db) {
-    Warehouse w = new Warehouse();
-    w.setBusinessUnitCode(db.getBusinessUnitCode());
-    w.setLocation(db.getLocation());
-    w.setCapacity(db.getCapacity());
-    w.setStock(db.getStock());
-    w.setCreationAt(db.getCreatedAt() != null ? db.getCreatedAt().atZone(ZoneOffset.UTC) : null);
-    w.setArchivedAt(db.getArchivedAt() != null ? db.getArchivedAt().atZone(ZoneOffset.UTC) : null);
-    return w;
+  private static void copyChanges(Warehouse w, DbWarehouse db) {
+    db.setLocation(w.getLocation());
+    db.setCapacity(w.getCapacity());
+    db.setStock(w.getStock());
+    db.setArchivedAt(w.getArchivedAt() != null ? w.getArchivedAt().toLocalDateTime() : null);
   }
 }
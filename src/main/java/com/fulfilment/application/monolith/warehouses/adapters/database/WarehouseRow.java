@@ -0,0 +1,33 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Projection of a {@link DbWarehouse} for reads. Rows are not managed entities, so reading many of
+ * them does not grow the persistence context and they never go stale after a bulk update.
+ */
+@RegisterForReflection
+public record WarehouseRow(
+    String businessUnitCode,
+    String location,
+    Integer capacity,
+    Integer stock,
+    LocalDateTime createdAt,
+    LocalDateTime archivedAt,
+    Long version) {
+
+  Warehouse toDomain() {
+    Warehouse w = new Warehouse();
+    w.setBusinessUnitCode(businessUnitCode);
+    w.setLocation(location);
+    w.setCapacity(capacity);
+    w.setStock(stock);
+    w.setCreationAt(createdAt != null ? createdAt.atZone(ZoneOffset.UTC) : null);
+    w.setArchivedAt(archivedAt != null ? archivedAt.atZone(ZoneOffset.UTC) : null);
+    w.setVersion(version);
+    return w;
+  }
+}
@@ -0,0 +1,37 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.fulfilment.application.monolith.warehouses.domain.OccupancyConsistencyReport;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+
+@Path("admin/warehouse-occupancy")
+@ApplicationScoped
+@Produces("application/json")
+public class OccupancyLedgerResource {
+
+  private final LocationOccupancyLedger occupancyLedger;
+
+  public OccupancyLedgerResource(LocationOccupancyLedger occupancyLedger) {
+    this.occupancyLedger = occupancyLedger;
+  }
+
+  @GET
+  @Path("{locationId}")
+  public LocationOccupancy get(String locationId) {
+    return occupancyLedger.occupancyOf(locationId);
+  }
+
+  @POST
+  @Path("consistency-check")
+  public OccupancyConsistencyReport checkConsistency(
+      @QueryParam("repair") @DefaultValue("false") boolean repair) {
+    return occupancyLedger.checkConsistency(repair);
+  }
+}
@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.warehouse.api.beans.Warehouse;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Adds the version of a single warehouse unit in a response as its ETag, to be sent back in the
+ * If-Match header of a replace.
+ */
+@Provider
+public class WarehouseETagFilter implements ContainerResponseFilter {
+
+  @Override
+  public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+    if (response.getEntity() instanceof Warehouse warehouse
+        && warehouse.getVersion() != null
+        && !response.getHeaders().containsKey(HttpHeaders.ETAG)) {
+      response.getHeaders().putSingle(HttpHeaders.ETAG, new EntityTag(warehouse.getVersion().toString()));
+    }
+  }
+}
@@ -1,37 +1,108 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.common.NamePages;
+import com.fulfilment.application.monolith.common.ReadOnlyTransaction;
+import com.fulfilment.application.monolith.warehouses.domain.LocationBusyException;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseNotFoundException;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseVersionConflictException;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCommand;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCommandResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ApplyWarehouseBatchOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.BulkArchiveWarehousesOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.warehouse.api.WarehouseResource;
 import com.warehouse.api.beans.Warehouse;
+import com.warehouse.api.beans.WarehouseArchiveRequest;
+import com.warehouse.api.beans.WarehouseArchiveResult;
+import com.warehouse.api.beans.WarehouseBatch;
+import com.warehouse.api.beans.WarehouseBatchResult;
+import com.warehouse.api.beans.WarehouseOperation;
+import com.warehouse.api.beans.WarehouseOperationResult;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 public class WarehouseResourceImpl implements WarehouseResource {
 
   private final CreateWarehouseOperation createWarehouseOperation;
+  private final ReplaceWarehouseOperation replaceWarehouseOperation;
   private final ArchiveWarehouseOperation archiveWarehouseOperation;
+  private final BulkArchiveWarehousesOperation bulkArchiveWarehousesOperation;
+  private final ApplyWarehouseBatchOperation applyWarehouseBatchOperation;
   private final WarehouseStore warehouseStore;
+  private final ObjectMapper objectMapper;
+  private final int maxBatchSize;
 
   public WarehouseResourceImpl(
       CreateWarehouseOperation createWarehouseOperation,
+      ReplaceWarehouseOperation replaceWarehouseOperation,
       ArchiveWarehouseOperation archiveWarehouseOperation,
-      WarehouseStore warehouseStore) {
+      BulkArchiveWarehousesOperation bulkArchiveWarehousesOperation,
+      ApplyWarehouseBatchOperation applyWarehouseBatchOperation,
+      WarehouseStore warehouseStore,
+      ObjectMapper objectMapper,
+      @ConfigProperty(name = "warehouse.batch.max-size", defaultValue = "1000") int maxBatchSize) {
     this.createWarehouseOperation = createWarehouseOperation;
+    this.replaceWarehouseOperation = replaceWarehouseOperation;
     this.archiveWarehouseOperation = archiveWarehouseOperation;
+    this.bulkArchiveWarehousesOperation = bulkArchiveWarehousesOperation;
+    this.applyWarehouseBatchOperation = applyWarehouseBatchOperation;
     this.warehouseStore = warehouseStore;
+    this.objectMapper = objectMapper;
+    this.maxBatchSize = maxBatchSize;
   }
 
   @Override
-  public List<Warehouse> listAllWarehousesUnits() {
-    return warehouseStore.listActive().stream()
-        .map(this::toApi)
+  @ReadOnlyTransaction
+  public List<Warehouse> listAllWarehousesUnits(String after, Integer limit) {
+    Integer pageSize = NamePages.pageSize(after, limit);
+    if (pageSize == null) {
+      return warehouseStore.listActive().stream()
+          .map(WarehouseResourceImpl::toApi)
+          .toList();
+    }
+    return warehouseStore.listActivePage(after, pageSize).stream()
+        .map(WarehouseResourceImpl::toApi)
         .toList();
   }
 
+  /**
+   * Writes each active warehouse unit as a line of JSON as soon as it is read from the database, so
+   * memory use does not depend on the number of warehouses.
+   */
+  @Override
+  public Response streamAllWarehouseUnits() {
+    StreamingOutput body = output -> {
+      try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+        // one object per line instead of the default space between root values
+        generator.setRootValueSeparator(null);
+        warehouseStore.forEachActive(warehouse -> {
+          try {
+            generator.writeObject(toApi(warehouse));
+            generator.writeRaw('\n');
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    };
+    return Response.ok(body).build();
+  }
+
   @Override
   public Warehouse createANewWarehouseUnit(@NotNull Warehouse data) {
     com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domain = toDomain(data);
@@ -39,14 +110,16 @@ public class WarehouseResourceImpl implements WarehouseResource {
       throw new WebApplicationException("Warehouse id (business unit code) is required", 422);
     }
     try {
-      createWarehouseOperation.create(domain);
+      return toApi(createWarehouseOperation.create(domain));
     } catch (WarehouseValidationException e) {
       throw new WebApplicationException(e.getMessage(), 400);
+    } catch (LocationBusyException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
     }
-    return toApi(warehouseStore.findByBusinessUnitCode(domain.getBusinessUnitCode()));
   }
 
   @Override
+  @ReadOnlyTransaction
   public Warehouse getAWarehouseUnitByID(String id) {
     com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domain = warehouseStore
         .findByBusinessUnitCode(id);
@@ -56,6 +129,30 @@ public class WarehouseResourceImpl implements WarehouseResource {
     return toApi(domain);
   }
 
+  @Override
+  public Warehouse replaceAWarehouseUnitByID(String id, String ifMatch, @NotNull Warehouse data) {
+    if (ifMatch == null || ifMatch.isBlank()) {
+      throw new WebApplicationException("If-Match header with the warehouse unit ETag is required", 428);
+    }
+    if (data.getId() != null && !data.getId().equals(id)) {
+      throw new WebApplicationException("Warehouse id in the body does not match the path", 422);
+    }
+    com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domain = toDomain(data);
+    domain.setBusinessUnitCode(id);
+    domain.setVersion(parseVersion(ifMatch));
+    try {
+      return toApi(replaceWarehouseOperation.replace(domain));
+    } catch (WarehouseNotFoundException e) {
+      throw new WebApplicationException("Warehouse unit not found", 404);
+    } catch (WarehouseValidationException e) {
+      throw new WebApplicationException(e.getMessage(), 400);
+    } catch (WarehouseVersionConflictException e) {
+      throw new WebApplicationException(e.getMessage(), 412);
+    } catch (LocationBusyException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+  }
+
   @Override
   public void archiveAWarehouseUnitByID(String id) {
     com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domain = warehouseStore
@@ -67,15 +164,100 @@ public class WarehouseResourceImpl implements WarehouseResource {
       archiveWarehouseOperation.archive(domain);
     } catch (WarehouseValidationException e) {
       throw new WebApplicationException(e.getMessage(), 400);
+    } catch (WarehouseVersionConflictException | LocationBusyException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+  }
+
+  @Override
+  public WarehouseArchiveResult archiveWarehouseUnitsInBulk(@NotNull WarehouseArchiveRequest data) {
+    boolean byLocation = data.getLocation() != null && !data.getLocation().isBlank();
+    boolean byIds = data.getIds() != null && !data.getIds().isEmpty();
+    if (byLocation == byIds) {
+      throw new WebApplicationException("Either a location or a list of ids is required", 422);
+    }
+    if (byIds && data.getIds().size() > maxBatchSize) {
+      throw new WebApplicationException("At most " + maxBatchSize + " ids can be archived at once", 422);
     }
+    WarehouseArchiveResult result = new WarehouseArchiveResult();
+    try {
+      result.setArchived(byLocation
+          ? bulkArchiveWarehousesOperation.archiveAllAtLocation(data.getLocation())
+          : bulkArchiveWarehousesOperation.archiveAll(data.getIds()));
+    } catch (LocationBusyException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+    return result;
+  }
+
+  @Override
+  public WarehouseBatchResult applyABatchOfWarehouseOperations(@NotNull WarehouseBatch data) {
+    List<WarehouseOperation> operations = data.getOperations() != null ? data.getOperations() : List.of();
+    if (operations.size() > maxBatchSize) {
+      throw new WebApplicationException(
+          "A batch can contain at most " + maxBatchSize + " operations", 422);
+    }
+    List<WarehouseCommandResult> results;
+    try {
+      results = applyWarehouseBatchOperation.apply(operations.stream().map(this::toCommand).toList());
+    } catch (LocationBusyException | WarehouseValidationException e) {
+      // a code taken by a concurrent request after the batch checked it rolls back the batch
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+
+    WarehouseBatchResult response = new WarehouseBatchResult();
+    response.setResults(results.stream().map(WarehouseResourceImpl::toApi).toList());
+    int applied = (int) results.stream().filter(WarehouseCommandResult::isApplied).count();
+    response.setApplied(applied);
+    response.setRejected(results.size() - applied);
+    return response;
+  }
+
+  // accepts "3", W/"3" or * (any version)
+  private static Long parseVersion(String ifMatch) {
+    String tag = ifMatch.trim();
+    if (tag.equals("*")) {
+      return null;
+    }
+    if (tag.startsWith("W/")) {
+      tag = tag.substring(2);
+    }
+    if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      tag = tag.substring(1, tag.length() - 1);
+    }
+    try {
+      return Long.valueOf(tag);
+    } catch (NumberFormatException e) {
+      throw new WebApplicationException("If-Match does not match the warehouse unit", 412);
+    }
+  }
+
+  private WarehouseCommand toCommand(WarehouseOperation operation) {
+    WarehouseCommand.Action action = operation.getAction() != null
+        ? WarehouseCommand.Action.valueOf(operation.getAction().name().toUpperCase(Locale.ROOT))
+        : null;
+    return new WarehouseCommand(
+        action, operation.getWarehouse() != null ? toDomain(operation.getWarehouse()) : null);
+  }
+
+  private static WarehouseOperationResult toApi(WarehouseCommandResult r) {
+    WarehouseOperationResult result = new WarehouseOperationResult();
+    result.setIndex(r.getIndex());
+    result.setId(r.getBusinessUnitCode());
+    result.setStatus(r.isApplied()
+        ? WarehouseOperationResult.Status.applied
+        : WarehouseOperationResult.Status.rejected);
+    result.setError(r.getError());
+    return result;
   }
 
-  private Warehouse toApi(com.fulfilment.application.monolith.warehouses.domain.models.Warehouse d) {
+  static Warehouse toApi(com.fulfilment.application.monolith.warehouses.domain.models.Warehouse d) {
     Warehouse w = new Warehouse();
     w.setId(d.getBusinessUnitCode());
     w.setLocation(d.getLocation());
     w.setCapacity(d.getCapacity());
     w.setStock(d.getStock());
+    w.setVersion(d.getVersion());
     return w;
   }
 
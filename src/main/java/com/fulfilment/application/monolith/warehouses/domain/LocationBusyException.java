@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.warehouses.domain;
+
+/**
+ * Thrown when a location could not be locked in time because other warehouse changes at the same
+ * location are in progress. The operation can be retried.
+ */
+public class LocationBusyException extends RuntimeException {
+
+  public LocationBusyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,160 @@
+package com.fulfilment.application.monolith.warehouses.domain;
+
+import com.fulfilment.application.monolith.common.TransactionCallbacks;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * In-memory count and capacity of active warehouses per location, so that validation does not
+ * need aggregate queries.
+ *
+ * <p>The ledger is rebuilt from the database at startup and then kept up to date by the warehouse
+ * use cases, which record their changes to be applied once their transaction has committed.
+ *
+ * <p>To make check-then-act on a location safe, use cases first {@linkplain #lockLocations lock}
+ * the locations they change. A lock is held until the transaction completes and released only
+ * after the committed changes have been applied, so the next holder validates against up to date
+ * figures. Each location has its own lock: changes at different locations never wait on each other.
+ */
+@ApplicationScoped
+public class LocationOccupancyLedger {
+
+  private static final Logger LOGGER = Logger.getLogger(LocationOccupancyLedger.class.getName());
+
+  private final WarehouseStore warehouseStore;
+  private final TransactionCallbacks transactionCallbacks;
+  private final Duration lockTimeout;
+  private final ConcurrentMap<String, LocationOccupancy> occupancies = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Semaphore> locks = new ConcurrentHashMap<>();
+
+  public LocationOccupancyLedger(
+      WarehouseStore warehouseStore,
+      TransactionCallbacks transactionCallbacks,
+      @ConfigProperty(name = "warehouse.location-lock.timeout", defaultValue = "5s")
+          Duration lockTimeout) {
+    this.warehouseStore = warehouseStore;
+    this.transactionCallbacks = transactionCallbacks;
+    this.lockTimeout = lockTimeout;
+  }
+
+  @Transactional
+  void onStart(@Observes StartupEvent event) {
+    rebuild();
+  }
+
+  /** Replaces the whole ledger with the current database aggregates. */
+  @Transactional
+  public void rebuild() {
+    Map<String, LocationOccupancy> fromStore = warehouseStore.occupancyByLocation();
+    occupancies.keySet().retainAll(fromStore.keySet());
+    occupancies.putAll(fromStore);
+    LOGGER.infof("Location occupancy ledger rebuilt for %d locations", fromStore.size());
+  }
+
+  public LocationOccupancy occupancyOf(String locationId) {
+    return occupancies.getOrDefault(locationId, LocationOccupancy.EMPTY);
+  }
+
+  /**
+   * Locks the given locations until the current transaction completes. Locations already locked by
+   * the current transaction are skipped; the others are acquired in a fixed order to avoid
+   * deadlocks between transactions locking several locations.
+   *
+   * @throws LocationBusyException if a location cannot be locked within the configured timeout
+   */
+  @Timed(value = "warehouse.location.lock", histogram = true)
+  public void lockLocations(String... locationIds) {
+    Set<String> held = transactionCallbacks.transactionLocal(HeldLocations.class, HeldLocations::new);
+    List<String> acquired = new ArrayList<>();
+    try {
+      for (String locationId : new TreeSet<>(List.of(locationIds))) {
+        if (held.contains(locationId)) {
+          continue;
+        }
+        Semaphore lock = locks.computeIfAbsent(locationId, id -> new Semaphore(1));
+        if (!lock.tryAcquire(lockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+          throw new LocationBusyException(
+              "Location " + locationId + " is busy with other warehouse changes, retry later");
+        }
+        acquired.add(locationId);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      release(acquired);
+      throw new LocationBusyException("Interrupted while waiting for location lock");
+    } catch (RuntimeException e) {
+      release(acquired);
+      throw e;
+    }
+    if (!acquired.isEmpty()) {
+      held.addAll(acquired);
+      transactionCallbacks.afterCompletion(() -> release(acquired));
+    }
+  }
+
+  private void release(List<String> locationIds) {
+    locationIds.forEach(locationId -> locks.get(locationId).release());
+  }
+
+  /**
+   * Records a change in the number or capacity of active warehouses at a location. It is applied
+   * once the current transaction commits, and discarded if it rolls back.
+   */
+  public void recordAfterCommit(String locationId, long countDelta, int capacityDelta) {
+    if (locationId == null) {
+      return;
+    }
+    LocationOccupancy delta = new LocationOccupancy(countDelta, capacityDelta);
+    transactionCallbacks.afterCommit(
+        () -> occupancies.merge(locationId, delta, LocationOccupancy::plus));
+  }
+
+  /**
+   * Compares every ledger entry with the database aggregates and optionally overwrites the
+   * drifting entries. Repairs are only exact while no warehouse changes are being committed.
+   */
+  @Transactional
+  public OccupancyConsistencyReport checkConsistency(boolean repair) {
+    Map<String, LocationOccupancy> fromStore = warehouseStore.occupancyByLocation();
+    Set<String> locations = new HashSet<>(occupancies.keySet());
+    locations.addAll(fromStore.keySet());
+
+    List<OccupancyConsistencyReport.Drift> drifts = new ArrayList<>();
+    for (String location : locations) {
+      LocationOccupancy inLedger = occupancyOf(location);
+      LocationOccupancy inStore = fromStore.getOrDefault(location, LocationOccupancy.EMPTY);
+      if (!inLedger.equals(inStore)) {
+        drifts.add(new OccupancyConsistencyReport.Drift(location, inLedger, inStore));
+        if (repair) {
+          occupancies.put(location, inStore);
+        }
+      }
+    }
+    if (!drifts.isEmpty()) {
+      LOGGER.warnf("Location occupancy ledger drifted for %d locations%s",
+          drifts.size(), repair ? ", repaired" : "");
+    }
+    return new OccupancyConsistencyReport(locations.size(), drifts, repair && !drifts.isEmpty());
+  }
+
+  private static final class HeldLocations extends HashSet<String> {
+  }
+}
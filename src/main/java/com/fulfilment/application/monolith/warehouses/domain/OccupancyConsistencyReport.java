@@ -0,0 +1,22 @@
+package com.fulfilment.application.monolith.warehouses.domain;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import java.util.List;
+
+/**
+ * Outcome of comparing the {@link LocationOccupancyLedger} with the database.
+ *
+ * @param checkedLocations number of locations known to either side
+ * @param drifts locations where the ledger and the database disagree
+ * @param repaired whether the drifting ledger entries were overwritten with the database values
+ */
+public record OccupancyConsistencyReport(
+    int checkedLocations, List<Drift> drifts, boolean repaired) {
+
+  public boolean isConsistent() {
+    return drifts.isEmpty();
+  }
+
+  public record Drift(String location, LocationOccupancy ledger, LocationOccupancy database) {
+  }
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.warehouses.domain;
+
+/** Thrown when the warehouse to replace or archive does not exist. */
+public class WarehouseNotFoundException extends WarehouseValidationException {
+
+  public WarehouseNotFoundException(String businessUnitCode) {
+    super("Warehouse not found: " + businessUnitCode);
+  }
+}
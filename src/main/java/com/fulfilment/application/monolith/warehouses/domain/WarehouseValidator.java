@@ -1,21 +1,27 @@
 package com.fulfilment.application.monolith.warehouses.domain;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
-import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
 import jakarta.enterprise.context.ApplicationScoped;
 
+/**
+ * Validation steps of the warehouse use cases. The steps are timed as {@code warehouse.validation},
+ * tagged with the check, to see which of them dominates the latency of a use case.
+ */
 @ApplicationScoped
 public class WarehouseValidator {
 
-    private final WarehouseStore warehouseStore;
     private final LocationResolver locationResolver;
+    private final LocationOccupancyLedger occupancyLedger;
 
-    public WarehouseValidator(WarehouseStore warehouseStore, LocationResolver locationResolver) {
-        this.warehouseStore = warehouseStore;
+    public WarehouseValidator(LocationResolver locationResolver, LocationOccupancyLedger occupancyLedger) {
         this.locationResolver = locationResolver;
+        this.occupancyLedger = occupancyLedger;
     }
 
+    @Timed(value = "warehouse.validation", extraTags = {"check", "location"}, histogram = true)
     public Location validateLocation(String locationId) {
         Location loc = locationResolver.resolveByIdentifier(locationId);
         if (loc == null) {
@@ -24,29 +30,35 @@ public class WarehouseValidator {
         return loc;
     }
 
-    public void validateBusinessUnitCodeUnique(String buCode) {
-        if (warehouseStore.findByBusinessUnitCode(buCode) != null) {
-            throw new WarehouseValidationException("Business unit code already exists: " + buCode);
-        }
+    public void validateLocationFeasibility(Location loc, String locationId) {
+        validateLocationFeasibility(loc, occupancyLedger.occupancyOf(locationId));
     }
 
-    public void validateLocationFeasibility(Location loc, String locationId) {
-        long currentCount = warehouseStore.countActiveByLocation(locationId);
-        if (currentCount >= loc.getMaxNumberOfWarehouses()) {
+    /** Same as {@link #validateLocationFeasibility(Location, String)} against a given occupancy. */
+    @Timed(value = "warehouse.validation", extraTags = {"check", "feasibility"}, histogram = true)
+    public void validateLocationFeasibility(Location loc, LocationOccupancy occupancy) {
+        if (occupancy.getActiveWarehouses() >= loc.getMaxNumberOfWarehouses()) {
             throw new WarehouseValidationException(
                     "Maximum number of warehouses (" + loc.getMaxNumberOfWarehouses()
-                            + ") already reached for location: " + locationId);
+                            + ") already reached for location: " + loc.getIdentification());
         }
     }
 
     public void validateCapacity(Location loc, String locationId, int newCapacity, Integer existingCapacity) {
-        int currentTotalCapacity = warehouseStore.sumCapacityByLocation(locationId);
+        validateCapacity(loc, occupancyLedger.occupancyOf(locationId), newCapacity, existingCapacity);
+    }
+
+    /** Same as {@link #validateCapacity(Location, String, int, Integer)} against a given occupancy. */
+    @Timed(value = "warehouse.validation", extraTags = {"check", "capacity"}, histogram = true)
+    public void validateCapacity(
+            Location loc, LocationOccupancy occupancy, int newCapacity, Integer existingCapacity) {
+        int currentTotalCapacity = occupancy.getTotalCapacity();
         int capacityToSubtract = existingCapacity != null ? existingCapacity : 0;
 
         if (currentTotalCapacity - capacityToSubtract + newCapacity > loc.getMaxCapacity()) {
             throw new WarehouseValidationException(
                     "Total capacity would exceed location max capacity " + loc.getMaxCapacity()
-                            + " for location: " + locationId);
+                            + " for location: " + loc.getIdentification());
         }
     }
 }
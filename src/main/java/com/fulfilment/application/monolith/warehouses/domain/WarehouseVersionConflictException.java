@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.warehouses.domain;
+
+/**
+ * Thrown when a warehouse is written against a version that is no longer current because it was
+ * changed by someone else in the meantime. Nothing was written; the caller has to re-read it.
+ */
+public class WarehouseVersionConflictException extends RuntimeException {
+
+  public WarehouseVersionConflictException(String message) {
+    super(message);
+  }
+}
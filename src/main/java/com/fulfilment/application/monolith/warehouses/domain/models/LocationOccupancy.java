@@ -0,0 +1,53 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.Objects;
+
+/** Number and total capacity of the active (non-archived) warehouses at a location. */
+public class LocationOccupancy {
+
+  public static final LocationOccupancy EMPTY = new LocationOccupancy(0, 0);
+
+  private final long activeWarehouses;
+
+  private final int totalCapacity;
+
+  public LocationOccupancy(long activeWarehouses, int totalCapacity) {
+    this.activeWarehouses = activeWarehouses;
+    this.totalCapacity = totalCapacity;
+  }
+
+  public long getActiveWarehouses() {
+    return activeWarehouses;
+  }
+
+  public int getTotalCapacity() {
+    return totalCapacity;
+  }
+
+  public LocationOccupancy plus(LocationOccupancy delta) {
+    return new LocationOccupancy(
+        activeWarehouses + delta.activeWarehouses, totalCapacity + delta.totalCapacity);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof LocationOccupancy other)) {
+      return false;
+    }
+    return activeWarehouses == other.activeWarehouses && totalCapacity == other.totalCapacity;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(activeWarehouses, totalCapacity);
+  }
+
+  @Override
+  public String toString() {
+    return "LocationOccupancy[activeWarehouses=" + activeWarehouses
+        + ", totalCapacity=" + totalCapacity + "]";
+  }
+}
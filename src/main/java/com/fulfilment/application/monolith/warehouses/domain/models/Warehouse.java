@@ -17,6 +17,9 @@ public class Warehouse {
 
   private ZonedDateTime archivedAt;
 
+  // optimistic locking version as last read; null when unknown
+  private Long version;
+
   public String getBusinessUnitCode() {
     return businessUnitCode;
   }
@@ -64,4 +67,12 @@ public class Warehouse {
   public void setArchivedAt(ZonedDateTime archivedAt) {
     this.archivedAt = archivedAt;
   }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
 }
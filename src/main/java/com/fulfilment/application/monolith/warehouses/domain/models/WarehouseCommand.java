@@ -0,0 +1,29 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/** A single create, replace or archive request, as submitted in a batch. */
+public class WarehouseCommand {
+
+  public enum Action {
+    CREATE,
+    REPLACE,
+    ARCHIVE
+  }
+
+  private final Action action;
+
+  // for ARCHIVE only the business unit code is used
+  private final Warehouse warehouse;
+
+  public WarehouseCommand(Action action, Warehouse warehouse) {
+    this.action = action;
+    this.warehouse = warehouse;
+  }
+
+  public Action getAction() {
+    return action;
+  }
+
+  public Warehouse getWarehouse() {
+    return warehouse;
+  }
+}
@@ -0,0 +1,42 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/** Outcome of one {@link WarehouseCommand} of a batch. */
+public class WarehouseCommandResult {
+
+  private final int index;
+
+  private final String businessUnitCode;
+
+  // null when the command was applied
+  private final String error;
+
+  private WarehouseCommandResult(int index, String businessUnitCode, String error) {
+    this.index = index;
+    this.businessUnitCode = businessUnitCode;
+    this.error = error;
+  }
+
+  public static WarehouseCommandResult applied(int index, String businessUnitCode) {
+    return new WarehouseCommandResult(index, businessUnitCode, null);
+  }
+
+  public static WarehouseCommandResult rejected(int index, String businessUnitCode, String error) {
+    return new WarehouseCommandResult(index, businessUnitCode, error);
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public String getBusinessUnitCode() {
+    return businessUnitCode;
+  }
+
+  public boolean isApplied() {
+    return error == null;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCommand;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCommandResult;
+import java.util.List;
+
+public interface ApplyWarehouseBatchOperation {
+  List<WarehouseCommandResult> apply(List<WarehouseCommand> commands);
+}
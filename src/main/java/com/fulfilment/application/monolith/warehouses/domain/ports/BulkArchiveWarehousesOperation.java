@@ -0,0 +1,11 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import java.util.Collection;
+
+public interface BulkArchiveWarehousesOperation {
+  /** Archives every active warehouse at the location; returns how many were archived. */
+  int archiveAllAtLocation(String locationId);
+
+  /** Archives the active warehouses among the given codes; returns how many were archived. */
+  int archiveAll(Collection<String> businessUnitCodes);
+}
@@ -3,5 +3,6 @@ package com.fulfilment.application.monolith.warehouses.domain.ports;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 
 public interface CreateWarehouseOperation {
-  void create(Warehouse warehouse);
+  /** Creates the warehouse and returns it as persisted. */
+  Warehouse create(Warehouse warehouse);
 }
@@ -3,5 +3,9 @@ package com.fulfilment.application.monolith.warehouses.domain.ports;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 
 public interface ReplaceWarehouseOperation {
-  void replace(Warehouse warehouse);
+  /**
+   * Replaces the warehouse with the same business unit code. The version of the given warehouse is
+   * the one the caller expects to replace; when null, whatever version is current is replaced.
+   */
+  Warehouse replace(Warehouse warehouse);
 }
@@ -1,23 +1,68 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface WarehouseStore {
   void create(Warehouse warehouse);
 
+  /**
+   * Writes location, capacity and stock of the warehouse with the same business unit code. When the
+   * warehouse carries a version, only that version is updated and the version is incremented.
+   */
   void update(Warehouse warehouse);
 
+  /** Writes the archive timestamp, with the same version check as {@link #update}. */
+  void archive(Warehouse warehouse);
+
   void remove(Warehouse warehouse);
 
   Warehouse findByBusinessUnitCode(String buCode);
 
+  /** Warehouses, archived or not, with any of the given business unit codes, in one query. */
+  List<Warehouse> findByBusinessUnitCodes(Collection<String> buCodes);
+
+  /** Database ids of the non-archived warehouses with any of the given codes, by code, in one query. */
+  Map<String, Long> findActiveIds(Collection<String> buCodes);
+
+  /** Inserts all warehouses, flushing them in JDBC batches. */
+  void createAll(List<Warehouse> warehouses);
+
+  /** Updates all warehouses by business unit code, flushing them in JDBC batches. */
+  void updateAll(List<Warehouse> warehouses);
+
   /** Number of non-archived warehouses at the given location. */
   long countActiveByLocation(String locationId);
 
   /** Sum of capacity of non-archived warehouses at the given location. */
   int sumCapacityByLocation(String locationId);
 
+  /** Count and capacity of non-archived warehouses for every location, in one aggregate query. */
+  Map<String, LocationOccupancy> occupancyByLocation();
+
+  /** Count and capacity, per location, of the non-archived warehouses with any of the given codes. */
+  Map<String, LocationOccupancy> occupancyOfActive(Collection<String> buCodes);
+
+  /** Archives the non-archived warehouses with any of the given codes in one statement; returns how many. */
+  int archiveAll(Collection<String> buCodes, ZonedDateTime archivedAt);
+
+  /** Archives all non-archived warehouses at the location in one statement; returns how many. */
+  int archiveAllAtLocation(String locationId, ZonedDateTime archivedAt);
+
   /** List all non-archived warehouses (for listing endpoint). */
   List<Warehouse> listActive();
+
+  /**
+   * Keyset page of non-archived warehouses ordered by business unit code: up to {@code limit}
+   * warehouses whose code sorts after {@code after}, or from the start when it is null.
+   */
+  List<Warehouse> listActivePage(String after, int limit);
+
+  /** Passes every non-archived warehouse to the consumer as it is read, by business unit code. */
+  void forEachActive(Consumer<Warehouse> consumer);
 }
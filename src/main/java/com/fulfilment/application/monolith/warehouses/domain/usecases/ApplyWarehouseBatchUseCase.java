@@ -0,0 +1,268 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidator;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCommand;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCommandResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ApplyWarehouseBatchOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Applies a list of create, replace and archive commands in one transaction.
+ *
+ * <p>Existing warehouses are read with one query and every location is resolved once. Once their
+ * locations are locked the warehouses are read again, so that a change committed in between is
+ * validated against rather than overwritten; the update checks the version read then. Commands are
+ * then validated in order with the same rules as the single-item use cases, against a working copy
+ * of the location occupancies so that capacity is checked cumulatively across the batch. Rejected
+ * commands are reported and skipped; the accepted ones are written together at the end.
+ */
+@ApplicationScoped
+public class ApplyWarehouseBatchUseCase implements ApplyWarehouseBatchOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final WarehouseValidator warehouseValidator;
+  private final LocationResolver locationResolver;
+  private final LocationOccupancyLedger occupancyLedger;
+
+  public ApplyWarehouseBatchUseCase(
+      WarehouseStore warehouseStore,
+      WarehouseValidator warehouseValidator,
+      LocationResolver locationResolver,
+      LocationOccupancyLedger occupancyLedger) {
+    this.warehouseStore = warehouseStore;
+    this.warehouseValidator = warehouseValidator;
+    this.locationResolver = locationResolver;
+    this.occupancyLedger = occupancyLedger;
+  }
+
+  @Override
+  @jakarta.transaction.Transactional
+  public List<WarehouseCommandResult> apply(List<WarehouseCommand> commands) {
+    Set<String> codes = new TreeSet<>();
+    for (WarehouseCommand command : commands) {
+      if (command.getWarehouse() != null && command.getWarehouse().getBusinessUnitCode() != null) {
+        codes.add(command.getWarehouse().getBusinessUnitCode());
+      }
+    }
+    Batch batch = new Batch();
+    for (Warehouse existing : warehouseStore.findByBusinessUnitCodes(codes)) {
+      batch.warehouses.put(existing.getBusinessUnitCode(), existing);
+    }
+
+    Set<String> lockedLocations = new TreeSet<>();
+    for (WarehouseCommand command : commands) {
+      Warehouse warehouse = command.getWarehouse();
+      if (warehouse == null) {
+        continue;
+      }
+      if (warehouse.getLocation() != null && !batch.locations.containsKey(warehouse.getLocation())) {
+        Location loc = locationResolver.resolveByIdentifier(warehouse.getLocation());
+        batch.locations.put(warehouse.getLocation(), loc);
+        if (loc != null) {
+          lockedLocations.add(warehouse.getLocation());
+        }
+      }
+      Warehouse existing = batch.warehouses.get(warehouse.getBusinessUnitCode());
+      if (existing != null && existing.getLocation() != null) {
+        lockedLocations.add(existing.getLocation());
+      }
+    }
+    occupancyLedger.lockLocations(lockedLocations.toArray(String[]::new));
+
+    // a warehouse may have changed between the read and the locks: the rows are read again and
+    // validated as they are now; one moved to a location the batch has not locked is left alone.
+    // Without existing rows there is nothing to overwrite, a concurrent create fails on the code.
+    Set<String> moved = new TreeSet<>();
+    if (!batch.warehouses.isEmpty()) {
+      batch.warehouses.clear();
+      for (Warehouse current : warehouseStore.findByBusinessUnitCodes(codes)) {
+        batch.warehouses.put(current.getBusinessUnitCode(), current);
+        if (current.getLocation() != null && !lockedLocations.contains(current.getLocation())) {
+          moved.add(current.getBusinessUnitCode());
+        }
+      }
+    }
+
+    List<WarehouseCommandResult> results = new ArrayList<>(commands.size());
+    for (int i = 0; i < commands.size(); i++) {
+      WarehouseCommand command = commands.get(i);
+      String code = command.getWarehouse() != null
+          ? command.getWarehouse().getBusinessUnitCode()
+          : null;
+      try {
+        if (command.getAction() == null) {
+          throw new WarehouseValidationException("Operation action is required");
+        }
+        if (command.getWarehouse() == null) {
+          throw new WarehouseValidationException("Operation warehouse is required");
+        }
+        if (moved.contains(code)) {
+          throw new WarehouseValidationException(
+              "Warehouse " + code + " was moved by another request during the batch, retry");
+        }
+        switch (command.getAction()) {
+          case CREATE -> create(batch, command.getWarehouse());
+          case REPLACE -> replace(batch, command.getWarehouse());
+          case ARCHIVE -> archive(batch, command.getWarehouse());
+        }
+        results.add(WarehouseCommandResult.applied(i, code));
+      } catch (WarehouseValidationException e) {
+        results.add(WarehouseCommandResult.rejected(i, code, e.getMessage()));
+      }
+    }
+
+    warehouseStore.createAll(new ArrayList<>(batch.creates.values()));
+    warehouseStore.updateAll(new ArrayList<>(batch.updates.values()));
+    batch.deltas.forEach((locationId, delta) -> occupancyLedger.recordAfterCommit(
+        locationId, delta.getActiveWarehouses(), delta.getTotalCapacity()));
+    return results;
+  }
+
+  private void create(Batch batch, Warehouse warehouse) {
+    String code = warehouse.getBusinessUnitCode();
+    if (code == null || code.isBlank()) {
+      throw new WarehouseValidationException("Warehouse id (business unit code) is required");
+    }
+    if (batch.warehouses.containsKey(code)) {
+      throw new WarehouseValidationException("Business unit code already exists: " + code);
+    }
+
+    Location loc = batch.location(warehouse.getLocation());
+    warehouseValidator.validateLocationFeasibility(loc, batch.occupancy(warehouse.getLocation()));
+
+    int newCapacity = warehouse.getCapacity() != null ? warehouse.getCapacity() : 0;
+    int newStock = warehouse.getStock() != null ? warehouse.getStock() : 0;
+
+    warehouseValidator.validateCapacity(loc, batch.occupancy(warehouse.getLocation()), newCapacity, null);
+
+    if (newCapacity < newStock) {
+      throw new WarehouseValidationException(
+          "Warehouse capacity must be at least the stock amount");
+    }
+
+    warehouse.setCreationAt(ZonedDateTime.now());
+    batch.warehouses.put(code, warehouse);
+    batch.creates.put(code, warehouse);
+    batch.record(warehouse.getLocation(), 1, newCapacity);
+  }
+
+  private void replace(Batch batch, Warehouse newWarehouse) {
+    String code = newWarehouse.getBusinessUnitCode();
+    Warehouse existing = batch.warehouses.get(code);
+    if (existing == null) {
+      throw new WarehouseValidationException("Warehouse not found: " + code);
+    }
+    if (existing.getArchivedAt() != null) {
+      throw new WarehouseValidationException("Cannot replace archived warehouse: " + code);
+    }
+
+    Location loc = batch.location(newWarehouse.getLocation());
+    boolean sameLocation = existing.getLocation().equals(newWarehouse.getLocation());
+
+    if (!sameLocation) {
+      warehouseValidator.validateLocationFeasibility(loc, batch.occupancy(newWarehouse.getLocation()));
+    }
+
+    int newCapacity = newWarehouse.getCapacity() != null ? newWarehouse.getCapacity() : 0;
+    int existingStock = existing.getStock() != null ? existing.getStock() : 0;
+    if (newCapacity < existingStock) {
+      throw new WarehouseValidationException(
+          "New warehouse capacity must accommodate existing stock (" + existingStock + ")");
+    }
+
+    Integer existingCapacity = sameLocation ? existing.getCapacity() : null;
+
+    warehouseValidator.validateCapacity(
+        loc, batch.occupancy(newWarehouse.getLocation()), newCapacity, existingCapacity);
+
+    int newStock = newWarehouse.getStock() != null ? newWarehouse.getStock() : 0;
+    if (newStock != existingStock) {
+      throw new WarehouseValidationException(
+          "Stock of the new warehouse must match the previous warehouse stock (" + existingStock + ")");
+    }
+
+    newWarehouse.setCreationAt(existing.getCreationAt());
+    newWarehouse.setVersion(existing.getVersion());
+    batch.write(newWarehouse);
+
+    int previousCapacity = existing.getCapacity() != null ? existing.getCapacity() : 0;
+    if (sameLocation) {
+      batch.record(newWarehouse.getLocation(), 0, newCapacity - previousCapacity);
+    } else {
+      batch.record(existing.getLocation(), -1, -previousCapacity);
+      batch.record(newWarehouse.getLocation(), 1, newCapacity);
+    }
+  }
+
+  private void archive(Batch batch, Warehouse warehouse) {
+    String code = warehouse.getBusinessUnitCode();
+    Warehouse existing = batch.warehouses.get(code);
+    if (existing == null) {
+      throw new WarehouseValidationException("Warehouse not found: " + code);
+    }
+    if (existing.getArchivedAt() != null) {
+      throw new WarehouseValidationException("Warehouse already archived: " + code);
+    }
+
+    existing.setArchivedAt(ZonedDateTime.now());
+    batch.write(existing);
+
+    int capacity = existing.getCapacity() != null ? existing.getCapacity() : 0;
+    batch.record(existing.getLocation(), -1, -capacity);
+  }
+
+  /** Working state of one batch: the warehouses as the earlier commands left them. */
+  private final class Batch {
+
+    final Map<String, Warehouse> warehouses = new HashMap<>();
+    final Map<String, Location> locations = new HashMap<>();
+    final Map<String, LocationOccupancy> occupancies = new HashMap<>();
+    final Map<String, LocationOccupancy> deltas = new LinkedHashMap<>();
+    final Map<String, Warehouse> creates = new LinkedHashMap<>();
+    final Map<String, Warehouse> updates = new LinkedHashMap<>();
+
+    Location location(String locationId) {
+      Location loc = locations.get(locationId);
+      if (loc == null) {
+        throw new WarehouseValidationException("Invalid or unknown location: " + locationId);
+      }
+      return loc;
+    }
+
+    LocationOccupancy occupancy(String locationId) {
+      return occupancies.computeIfAbsent(locationId, occupancyLedger::occupancyOf);
+    }
+
+    void record(String locationId, long countDelta, int capacityDelta) {
+      LocationOccupancy delta = new LocationOccupancy(countDelta, capacityDelta);
+      occupancies.put(locationId, occupancy(locationId).plus(delta));
+      deltas.merge(locationId, delta, LocationOccupancy::plus);
+    }
+
+    // a warehouse created earlier in the batch is not in the database yet, so it stays an insert
+    void write(Warehouse warehouse) {
+      String code = warehouse.getBusinessUnitCode();
+      warehouses.put(code, warehouse);
+      if (creates.containsKey(code)) {
+        creates.put(code, warehouse);
+      } else {
+        updates.put(code, warehouse);
+      }
+    }
+  }
+}
@@ -1,9 +1,12 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseNotFoundException;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.time.ZonedDateTime;
 
@@ -11,25 +14,33 @@ import java.time.ZonedDateTime;
 public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
+  private final LocationOccupancyLedger occupancyLedger;
 
-  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore) {
+  public ArchiveWarehouseUseCase(
+      WarehouseStore warehouseStore, LocationOccupancyLedger occupancyLedger) {
     this.warehouseStore = warehouseStore;
+    this.occupancyLedger = occupancyLedger;
   }
 
   @Override
   @jakarta.transaction.Transactional
+  @Timed(value = "warehouse.operation", extraTags = {"operation", "archive"}, histogram = true)
   public void archive(Warehouse warehouse) {
     Warehouse existing = warehouseStore.findByBusinessUnitCode(warehouse.getBusinessUnitCode());
     if (existing == null) {
-      throw new WarehouseValidationException(
-          "Warehouse not found: " + warehouse.getBusinessUnitCode());
+      throw new WarehouseNotFoundException(warehouse.getBusinessUnitCode());
     }
     if (existing.getArchivedAt() != null) {
       throw new WarehouseValidationException(
           "Warehouse already archived: " + warehouse.getBusinessUnitCode());
     }
 
+    occupancyLedger.lockLocations(existing.getLocation());
+
     existing.setArchivedAt(ZonedDateTime.now());
-    warehouseStore.update(existing);
+    warehouseStore.archive(existing);
+
+    int capacity = existing.getCapacity() != null ? existing.getCapacity() : 0;
+    occupancyLedger.recordAfterCommit(existing.getLocation(), -1, -capacity);
   }
 }
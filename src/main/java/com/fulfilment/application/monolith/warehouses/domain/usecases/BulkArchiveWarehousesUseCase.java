@@ -0,0 +1,65 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.ports.BulkArchiveWarehousesOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Archives many warehouses with a single UPDATE instead of one read-check-write per warehouse.
+ *
+ * <p>The affected locations are locked first and their archived count and capacity are read under
+ * the lock, so the occupancy ledger can be corrected by exactly what the UPDATE archived.
+ */
+@ApplicationScoped
+public class BulkArchiveWarehousesUseCase implements BulkArchiveWarehousesOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final LocationOccupancyLedger occupancyLedger;
+
+  public BulkArchiveWarehousesUseCase(
+      WarehouseStore warehouseStore, LocationOccupancyLedger occupancyLedger) {
+    this.warehouseStore = warehouseStore;
+    this.occupancyLedger = occupancyLedger;
+  }
+
+  @Override
+  @jakarta.transaction.Transactional
+  public int archiveAllAtLocation(String locationId) {
+    occupancyLedger.lockLocations(locationId);
+
+    int capacity = warehouseStore.sumCapacityByLocation(locationId);
+    int archived = warehouseStore.archiveAllAtLocation(locationId, ZonedDateTime.now());
+
+    if (archived > 0) {
+      occupancyLedger.recordAfterCommit(locationId, -archived, -capacity);
+    }
+    return archived;
+  }
+
+  @Override
+  @jakarta.transaction.Transactional
+  public int archiveAll(Collection<String> businessUnitCodes) {
+    // the locations are only known after reading, and may change until they are locked:
+    // read again under the lock until no new location turns up
+    Set<String> locked = new HashSet<>();
+    Map<String, LocationOccupancy> archiving = warehouseStore.occupancyOfActive(businessUnitCodes);
+    while (!locked.containsAll(archiving.keySet())) {
+      occupancyLedger.lockLocations(archiving.keySet().stream().sorted().toArray(String[]::new));
+      locked.addAll(archiving.keySet());
+      archiving = warehouseStore.occupancyOfActive(businessUnitCodes);
+    }
+
+    int archived = warehouseStore.archiveAll(businessUnitCodes, ZonedDateTime.now());
+
+    archiving.forEach((locationId, occupancy) -> occupancyLedger.recordAfterCommit(
+        locationId, -occupancy.getActiveWarehouses(), -occupancy.getTotalCapacity()));
+    return archived;
+  }
+}
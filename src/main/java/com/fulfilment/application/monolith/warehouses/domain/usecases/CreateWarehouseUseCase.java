@@ -1,11 +1,13 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidator;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.time.ZonedDateTime;
 
@@ -14,19 +16,26 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final WarehouseValidator warehouseValidator;
+  private final LocationOccupancyLedger occupancyLedger;
 
-  public CreateWarehouseUseCase(WarehouseStore warehouseStore, WarehouseValidator warehouseValidator) {
+  public CreateWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      WarehouseValidator warehouseValidator,
+      LocationOccupancyLedger occupancyLedger) {
     this.warehouseStore = warehouseStore;
     this.warehouseValidator = warehouseValidator;
+    this.occupancyLedger = occupancyLedger;
   }
 
   @Override
   @jakarta.transaction.Transactional
-  public void create(Warehouse warehouse) {
-    warehouseValidator.validateBusinessUnitCodeUnique(warehouse.getBusinessUnitCode());
-
+  @Timed(value = "warehouse.operation", extraTags = {"operation", "create"}, histogram = true)
+  public Warehouse create(Warehouse warehouse) {
+    // uniqueness of the business unit code is enforced by the store on insert
     Location loc = warehouseValidator.validateLocation(warehouse.getLocation());
 
+    occupancyLedger.lockLocations(warehouse.getLocation());
+
     warehouseValidator.validateLocationFeasibility(loc, warehouse.getLocation());
 
     int newCapacity = warehouse.getCapacity() != null ? warehouse.getCapacity() : 0;
@@ -41,5 +50,7 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
 
     warehouse.setCreationAt(ZonedDateTime.now());
     warehouseStore.create(warehouse);
+    occupancyLedger.recordAfterCommit(warehouse.getLocation(), 1, newCapacity);
+    return warehouse;
   }
 }
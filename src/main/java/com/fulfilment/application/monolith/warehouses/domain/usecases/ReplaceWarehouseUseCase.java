@@ -1,11 +1,15 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseNotFoundException;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidator;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseVersionConflictException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.annotation.Timed;
 import jakarta.enterprise.context.ApplicationScoped;
 
 @ApplicationScoped
@@ -13,27 +17,42 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final WarehouseValidator warehouseValidator;
+  private final LocationOccupancyLedger occupancyLedger;
 
-  public ReplaceWarehouseUseCase(WarehouseStore warehouseStore, WarehouseValidator warehouseValidator) {
+  public ReplaceWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      WarehouseValidator warehouseValidator,
+      LocationOccupancyLedger occupancyLedger) {
     this.warehouseStore = warehouseStore;
     this.warehouseValidator = warehouseValidator;
+    this.occupancyLedger = occupancyLedger;
   }
 
   @Override
   @jakarta.transaction.Transactional
-  public void replace(Warehouse newWarehouse) {
+  @Timed(value = "warehouse.operation", extraTags = {"operation", "replace"}, histogram = true)
+  public Warehouse replace(Warehouse newWarehouse) {
     Warehouse existing = warehouseStore.findByBusinessUnitCode(newWarehouse.getBusinessUnitCode());
     if (existing == null) {
-      throw new WarehouseValidationException(
-          "Warehouse not found: " + newWarehouse.getBusinessUnitCode());
+      throw new WarehouseNotFoundException(newWarehouse.getBusinessUnitCode());
     }
     if (existing.getArchivedAt() != null) {
       throw new WarehouseValidationException(
           "Cannot replace archived warehouse: " + newWarehouse.getBusinessUnitCode());
     }
+    if (newWarehouse.getVersion() == null) {
+      newWarehouse.setVersion(existing.getVersion());
+    } else if (!newWarehouse.getVersion().equals(existing.getVersion())) {
+      // the store checks the version again in the update, this only saves the validation
+      throw new WarehouseVersionConflictException(
+          "Warehouse " + newWarehouse.getBusinessUnitCode() + " was changed since version "
+              + newWarehouse.getVersion());
+    }
 
     Location loc = warehouseValidator.validateLocation(newWarehouse.getLocation());
 
+    occupancyLedger.lockLocations(existing.getLocation(), newWarehouse.getLocation());
+
     if (!existing.getLocation().equals(newWarehouse.getLocation())) {
       warehouseValidator.validateLocationFeasibility(loc, newWarehouse.getLocation());
     }
@@ -59,5 +78,14 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
     newWarehouse.setCreationAt(existing.getCreationAt());
     warehouseStore.update(newWarehouse);
+
+    int previousCapacity = existing.getCapacity() != null ? existing.getCapacity() : 0;
+    if (existing.getLocation().equals(newWarehouse.getLocation())) {
+      occupancyLedger.recordAfterCommit(newWarehouse.getLocation(), 0, newCapacity - previousCapacity);
+    } else {
+      occupancyLedger.recordAfterCommit(existing.getLocation(), -1, -previousCapacity);
+      occupancyLedger.recordAfterCommit(newWarehouse.getLocation(), 1, newCapacity);
+    }
+    return newWarehouse;
   }
 }
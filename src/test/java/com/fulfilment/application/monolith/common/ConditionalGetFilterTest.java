@@ -0,0 +1,117 @@
+package com.fulfilment.application.monolith.common;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class ConditionalGetFilterTest {
+
+    @Inject
+    @PersistenceUnitExtension
+    SqlStatementRecorder statementRecorder;
+
+    @Test
+    void testUnchangedListIsAnsweredWithoutQuerying() {
+        String etag = etagOf("/stores");
+
+        statementRecorder.clear();
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/stores")
+                .then()
+                .statusCode(304)
+                .header("ETag", etag);
+        assertTrue(statementRecorder.statements().isEmpty());
+    }
+
+    @Test
+    void testWriteChangesTheETag() {
+        String stores = etagOf("/stores");
+        String products = etagOf("/product");
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"ETAG_" + System.nanoTime() + "\"}")
+                .when()
+                .post("/stores")
+                .then()
+                .statusCode(201);
+
+        given()
+                .header("If-None-Match", stores)
+                .when()
+                .get("/stores")
+                .then()
+                .statusCode(200)
+                .header("ETag", not(stores));
+        // other collections are unaffected
+        given()
+                .header("If-None-Match", products)
+                .when()
+                .get("/product")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    void testWarehouseWriteChangesTheETag() {
+        String etag = etagOf("/warehouse");
+
+        String version = given()
+                .when()
+                .get("/warehouse/MWH.023")
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", version)
+                .body("{\"location\": \"TILBURG-001\", \"capacity\": 30, \"stock\": 27}")
+                .when()
+                .put("/warehouse/MWH.023")
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/warehouse")
+                .then()
+                .statusCode(200)
+                .header("ETag", not(etag));
+    }
+
+    @Test
+    void testPagesHaveTheirOwnETag() {
+        assertNotEquals(etagOf("/stores"), etagOf("/stores?limit=1"));
+    }
+
+    @Test
+    void testIfNoneMatchComparison() {
+        assertTrue(ConditionalGetFilter.matches("\"stores-1-2\"", "stores-1-2"));
+        assertTrue(ConditionalGetFilter.matches("W/\"stores-1-2\"", "stores-1-2"));
+        assertTrue(ConditionalGetFilter.matches("\"other\", \"stores-1-2\"", "stores-1-2"));
+        assertTrue(ConditionalGetFilter.matches("*", "stores-1-2"));
+        assertFalse(ConditionalGetFilter.matches("\"stores-1-1\"", "stores-1-2"));
+        assertFalse(ConditionalGetFilter.matches(null, "stores-1-2"));
+    }
+
+    private static String etagOf(String path) {
+        return given()
+                .when()
+                .get(path)
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .extract().header("ETag");
+    }
+}
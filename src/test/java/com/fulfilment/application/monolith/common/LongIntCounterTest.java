@@ -0,0 +1,54 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LongIntCounterTest {
+
+    @Test
+    void testCountsMatchAMapUnderRandomChanges() {
+        LongIntCounter counter = new LongIntCounter();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            // few distinct keys, so that counts often drop to zero and keys are removed
+            long key = LongIntCounter.pack(1 + random.nextInt(40), 1 + random.nextInt(40));
+            int current = expected.getOrDefault(key, 0);
+            int delta = current > 0 && random.nextBoolean() ? -1 : 1;
+            assertEquals(current + delta, counter.add(key, delta));
+            if (current + delta == 0) {
+                expected.remove(key);
+            } else {
+                expected.put(key, current + delta);
+            }
+        }
+
+        assertEquals(expected.size(), counter.size());
+        expected.forEach((key, count) -> assertEquals(count, counter.get(key)));
+        assertEquals(0, counter.get(LongIntCounter.pack(41, 41)));
+    }
+
+    @Test
+    void testCountsCannotGoBelowZero() {
+        LongIntCounter counter = new LongIntCounter();
+        counter.add(5, 1);
+
+        assertThrows(IllegalStateException.class, () -> counter.add(5, -2));
+        assertThrows(IllegalArgumentException.class, () -> counter.add(0, 1));
+        assertEquals(1, counter.get(5));
+    }
+
+    @Test
+    void testPackKeepsBothIds() {
+        long key = LongIntCounter.pack(3, 0xFFFFFFFFL);
+
+        assertEquals(3, key >>> 32);
+        assertEquals(0xFFFFFFFFL, key & 0xFFFFFFFFL);
+        assertThrows(IllegalArgumentException.class, () -> LongIntCounter.pack(1L << 32, 1));
+    }
+}
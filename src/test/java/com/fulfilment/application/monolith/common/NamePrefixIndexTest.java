@@ -0,0 +1,67 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.ws.rs.WebApplicationException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NamePrefixIndexTest {
+
+    private final NamePrefixIndex index = new NamePrefixIndex();
+
+    @Test
+    void testMatchingIgnoresCaseAndDiacritics() {
+        index.put(1L, "BESTÅ");
+        index.put(2L, "Bestämmer");
+        index.put(3L, "KALLAX");
+        index.put(4L, "Øresund");
+
+        assertEquals(List.of(new NameMatch(1L, "BESTÅ"), new NameMatch(2L, "Bestämmer")),
+                index.search("besta", 10));
+        assertEquals(List.of(new NameMatch(2L, "Bestämmer")), index.search("BESTÄM", 10));
+        assertEquals(List.of(new NameMatch(4L, "Øresund")), index.search("ore", 10));
+        assertEquals(List.of(), index.search("kallay", 10));
+    }
+
+    @Test
+    void testMatchesAreOrderedByNameThenIdAndLimited() {
+        index.put(5L, "HENGELO");
+        index.put(2L, "HAARLEM");
+        index.put(9L, "Haarlem");
+        index.put(1L, "AMSTERDAM");
+
+        assertEquals(List.of(2L, 9L, 5L), ids(index.search("h", 10)));
+        assertEquals(List.of(2L, 9L), ids(index.search("h", 2)));
+        assertEquals(List.of(1L, 2L, 9L, 5L), ids(index.search("", 10)));
+    }
+
+    @Test
+    void testRenamingAndRemovingReplaceTheIndexedName() {
+        index.put(1L, "TONSTAD");
+        index.put(1L, "LACK");
+
+        assertEquals(List.of(), index.search("ton", 10));
+        assertEquals(List.of(new NameMatch(1L, "LACK")), index.search("la", 10));
+        assertEquals(1, index.size());
+
+        index.remove(1L);
+        index.remove(2L);
+
+        assertEquals(List.of(), index.search("", 10));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testSearchLimit() {
+        assertEquals(NamePrefixIndex.DEFAULT_LIMIT, NamePrefixIndex.searchLimit(null));
+        assertEquals(7, NamePrefixIndex.searchLimit(7));
+        assertThrows(WebApplicationException.class, () -> NamePrefixIndex.searchLimit(0));
+        assertThrows(WebApplicationException.class,
+                () -> NamePrefixIndex.searchLimit(NamePrefixIndex.MAX_LIMIT + 1));
+    }
+
+    private static List<Long> ids(List<NameMatch> matches) {
+        return matches.stream().map(NameMatch::id).toList();
+    }
+}
@@ -0,0 +1,146 @@
+package com.fulfilment.application.monolith.common;
+
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Fails every request made through RestAssured that takes more SQL statements, entity loads or
+ * flushes than the budget of its endpoint in {@code query-budgets.txt}, and every request to an
+ * endpoint without a budget. Tests {@link #enforce} the budgets before each test and
+ * {@link #remove} them after it.
+ *
+ * <p>The usage is measured with the Hibernate statistics, which count for the whole application,
+ * so requests must not run concurrently with other database work.
+ */
+public class QueryBudgets implements Filter {
+
+    private static final String BUDGETS = "/query-budgets.txt";
+    private static final List<Budget> ALL = load();
+
+    private final Statistics statistics;
+
+    private QueryBudgets(Statistics statistics) {
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Hibernate statistics are disabled, enable quarkus.hibernate-orm.metrics");
+        }
+        this.statistics = statistics;
+    }
+
+    /** Checks the budgets of the requests made through RestAssured until {@link #remove}d. */
+    public static QueryBudgets enforce(Statistics statistics) {
+        QueryBudgets queryBudgets = new QueryBudgets(statistics);
+        RestAssured.filters(queryBudgets);
+        return queryBudgets;
+    }
+
+    public void remove() {
+        List<Filter> filters = new ArrayList<>(RestAssured.filters());
+        filters.remove(this);
+        RestAssured.replaceFiltersWith(filters);
+    }
+
+    @Override
+    public Response filter(
+            FilterableRequestSpecification request, FilterableResponseSpecification response, FilterContext context) {
+        Usage before = usage();
+        Response result = context.next(request, response);
+        Usage used = usage().minus(before);
+
+        String method = request.getMethod();
+        String path = URI.create(request.getURI()).getPath();
+        Budget budget = ALL.stream()
+                .filter(candidate -> candidate.matches(method, path))
+                .min(Comparator.comparingInt(Budget::placeholders))
+                .orElseThrow(() -> new AssertionError("No query budget for " + method + " " + path
+                        + " in " + BUDGETS + ", it took " + used));
+        if (!budget.allows(used)) {
+            throw new AssertionError(method + " " + path + " took " + used + ", over the budget of "
+                    + budget.endpoint() + ": " + budget.limit());
+        }
+        return result;
+    }
+
+    private Usage usage() {
+        return new Usage(statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(),
+                statistics.getFlushCount());
+    }
+
+    private static List<Budget> load() {
+        InputStream in = QueryBudgets.class.getResourceAsStream(BUDGETS);
+        if (in == null) {
+            throw new IllegalStateException(BUDGETS + " is missing");
+        }
+        List<Budget> budgets = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    budgets.add(Budget.parse(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return budgets;
+    }
+
+    record Usage(long statements, long entityLoads, long flushes) {
+
+        Usage minus(Usage other) {
+            return new Usage(statements - other.statements, entityLoads - other.entityLoads, flushes - other.flushes);
+        }
+
+        @Override
+        public String toString() {
+            return statements + " statements, " + entityLoads + " entity loads, " + flushes + " flushes";
+        }
+    }
+
+    record Budget(String method, String template, Pattern path, int placeholders, Usage limit) {
+
+        // <method> <path template> <statements> <entity loads> <flushes>
+        static Budget parse(String line) {
+            String[] fields = line.split("\\s+");
+            if (fields.length != 5) {
+                throw new IllegalStateException("Expected <method> <path> <statements> <entity loads> <flushes>: "
+                        + line);
+            }
+            String template = fields[1];
+            // a {placeholder} matches one path segment
+            String regex = Pattern.quote(template).replaceAll("\\{[^}/]+}", "\\\\E[^/]+\\\\Q");
+            int placeholders = template.split("\\{", -1).length - 1;
+            return new Budget(fields[0], template, Pattern.compile(regex), placeholders, new Usage(
+                    Long.parseLong(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4])));
+        }
+
+        boolean matches(String method, String path) {
+            return this.method.equalsIgnoreCase(method) && this.path.matcher(path).matches();
+        }
+
+        boolean allows(Usage used) {
+            return used.statements() <= limit.statements()
+                    && used.entityLoads() <= limit.entityLoads()
+                    && used.flushes() <= limit.flushes();
+        }
+
+        String endpoint() {
+            return method + " " + template;
+        }
+    }
+}
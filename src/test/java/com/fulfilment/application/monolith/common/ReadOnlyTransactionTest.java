@@ -0,0 +1,103 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.stores.StoreRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class ReadOnlyTransactionTest {
+
+    @Inject
+    ReadOnlyReader reader;
+    @Inject
+    StoreRepository storeRepository;
+    @Inject
+    Session session;
+
+    @Test
+    void testSessionIsReadOnlyWithFlushingDisabled() {
+        assertEquals("true/MANUAL/true", reader.sessionState());
+    }
+
+    @Test
+    void testChangesToLoadedEntitiesAreNotFlushed() {
+        Long id = QuarkusTransaction.requiringNew().call(() -> {
+            Store store = new Store("READ_ONLY_" + System.nanoTime());
+            storeRepository.persist(store);
+            return store.id;
+        });
+
+        reader.rename(id, "CHANGED");
+
+        String name = QuarkusTransaction.requiringNew().call(() -> storeRepository.findById(id).name);
+        assertNotEquals("CHANGED", name);
+    }
+
+    @Test
+    void testJoinedTransactionKeepsItsSessionSettings() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            reader.sessionState();
+            assertFalse(session.isDefaultReadOnly());
+            assertEquals(FlushMode.AUTO, session.getHibernateFlushMode());
+        });
+    }
+
+    @Test
+    void testExceptionsDoNotRollBackTheCurrentTransaction() {
+        Long id = QuarkusTransaction.requiringNew().call(() -> {
+            Store store = new Store("READ_ONLY_OUTER_" + System.nanoTime());
+            storeRepository.persist(store);
+            assertThrows(WebApplicationException.class, () -> reader.notFound());
+            return store.id;
+        });
+
+        assertNotNull(QuarkusTransaction.requiringNew().call(() -> storeRepository.findById(id)));
+    }
+
+    @Test
+    void testCheckedExceptionsPassThrough() {
+        assertThrows(java.io.IOException.class, reader::fail);
+    }
+
+    @ApplicationScoped
+    static class ReadOnlyReader {
+
+        private final Session session;
+        private final StoreRepository storeRepository;
+
+        ReadOnlyReader(Session session, StoreRepository storeRepository) {
+            this.session = session;
+            this.storeRepository = storeRepository;
+        }
+
+        @ReadOnlyTransaction
+        String sessionState() {
+            return session.isDefaultReadOnly() + "/" + session.getHibernateFlushMode() + "/"
+                    + QuarkusTransaction.isActive();
+        }
+
+        @ReadOnlyTransaction
+        void rename(Long id, String name) {
+            storeRepository.findById(id).name = name;
+        }
+
+        @ReadOnlyTransaction
+        void notFound() {
+            throw new WebApplicationException("Not found", 404);
+        }
+
+        @ReadOnlyTransaction
+        void fail() throws java.io.IOException {
+            throw new java.io.IOException("read failed");
+        }
+    }
+}
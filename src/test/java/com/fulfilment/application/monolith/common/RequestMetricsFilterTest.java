@@ -0,0 +1,61 @@
+package com.fulfilment.application.monolith.common;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.allOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class RequestMetricsFilterTest {
+
+    @Test
+    void testOperationsAreExposedForPrometheus() {
+        given().when().get("/stores/1").then().statusCode(200);
+
+        // passes every validation step and is rejected by the unique constraint on insert
+        com.warehouse.api.beans.Warehouse warehouse = new com.warehouse.api.beans.Warehouse();
+        warehouse.setId("MWH.001");
+        warehouse.setLocation("AMSTERDAM-001");
+        warehouse.setCapacity(5);
+        warehouse.setStock(0);
+        given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when()
+                .post("/warehouse")
+                .then()
+                .statusCode(400);
+
+        String metrics = given()
+                .when()
+                .get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(allOf(
+                        containsString("rest_operation_seconds_count{operation=\"StoreResource.getSingle\",outcome=\"SUCCESS\"}"),
+                        containsString("rest_operation_seconds_bucket{operation=\"WarehouseResourceImpl.createANewWarehouseUnit\""),
+                        containsString("rest_operation_db_statements_count{operation=\"StoreResource.getSingle\"}"),
+                        containsString("check=\"location\""),
+                        containsString("check=\"feasibility\""),
+                        containsString("check=\"capacity\""),
+                        containsString("warehouse_location_lock_seconds_count"),
+                        containsString("operation=\"create\""),
+                        containsString("agroal_blocking_time_total_milliseconds"),
+                        containsString("hibernate_entities_loads_total")))
+                .extract()
+                .asString();
+        assertTrue(valueOf(metrics, "rest_operation_db_statements_sum{operation=\"StoreResource.getSingle\"}") >= 1);
+    }
+
+    private static double valueOf(String metrics, String series) {
+        return metrics.lines()
+                .filter(line -> line.startsWith(series + " "))
+                .mapToDouble(line -> Double.parseDouble(line.substring(series.length() + 1)))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + series + " in " + metrics));
+    }
+}
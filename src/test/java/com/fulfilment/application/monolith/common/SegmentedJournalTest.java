@@ -0,0 +1,154 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentedJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsAreReplayedInOrderAcrossSegments() throws IOException {
+        try (SegmentedJournal journal = new SegmentedJournal(directory, 64)) {
+            List<Long> offsets = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                offsets.add(journal.append(payload("event-" + i)));
+            }
+
+            List<String> replayed = new ArrayList<>();
+            List<Long> replayedOffsets = new ArrayList<>();
+            long end = journal.replay(0, (offset, payload) -> {
+                replayedOffsets.add(offset);
+                replayed.add(new String(payload, StandardCharsets.UTF_8));
+            });
+
+            assertEquals(10, replayed.size());
+            assertEquals("event-0", replayed.get(0));
+            assertEquals("event-9", replayed.get(9));
+            assertEquals(offsets, replayedOffsets);
+            assertEquals(journal.endOffset(), end);
+            // 15 byte records, 4 to a 64 byte segment
+            assertEquals(3, journal.stats().segments());
+            assertEquals(3, segmentFiles().size());
+        }
+    }
+
+    @Test
+    void testReplayFromAnOffset() throws IOException {
+        try (SegmentedJournal journal = new SegmentedJournal(directory, 64)) {
+            journal.append(payload("first"));
+            long second = journal.append(payload("second"));
+            journal.append(payload("third"));
+
+            List<String> replayed = new ArrayList<>();
+            long end = journal.replay(second, (offset, payload) -> replayed.add(new String(payload, StandardCharsets.UTF_8)));
+            assertEquals(List.of("second", "third"), replayed);
+
+            replayed.clear();
+            assertEquals(end, journal.replay(end, (offset, payload) -> replayed.add("unexpected")));
+            assertTrue(replayed.isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> journal.replay(end + 1, (offset, payload) -> { }));
+        }
+    }
+
+    @Test
+    void testReopenContinuesAfterTheLastRecordAndDropsATornOne() throws IOException {
+        long end;
+        try (SegmentedJournal journal = new SegmentedJournal(directory, 1024)) {
+            journal.append(payload("kept"));
+            end = journal.endOffset();
+        }
+        // a record whose payload never made it to disk
+        try (FileChannel segment = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            segment.write(ByteBuffer.allocate(8).putInt(20).putInt(12345).flip(), end);
+        }
+
+        try (SegmentedJournal journal = new SegmentedJournal(directory, 1024)) {
+            assertEquals(end, journal.endOffset());
+            journal.append(payload("after restart"));
+
+            List<String> replayed = new ArrayList<>();
+            journal.replay(0, (offset, payload) -> replayed.add(new String(payload, StandardCharsets.UTF_8)));
+            assertEquals(List.of("kept", "after restart"), replayed);
+        }
+    }
+
+    @Test
+    void testConcurrentAppendsShareSyncs() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        try (SegmentedJournal journal = new SegmentedJournal(directory, 4096)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        journal.append(payload(thread + "-" + i));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            List<String> replayed = Collections.synchronizedList(new ArrayList<>());
+            journal.replay(0, (offset, payload) -> replayed.add(new String(payload, StandardCharsets.UTF_8)));
+            assertEquals(threads * perThread, replayed.size());
+            assertEquals(threads * perThread, replayed.stream().distinct().count());
+            JournalStats stats = journal.stats();
+            assertEquals(threads * perThread, stats.records());
+            // appenders that queue up behind an fsync share the next one
+            assertTrue(stats.syncs() < stats.records(), stats.syncs() + " syncs for " + stats.records() + " records");
+        }
+    }
+
+    @Test
+    void testEmptyRecordIsRejected() throws IOException {
+        try (SegmentedJournal journal = new SegmentedJournal(directory, 64)) {
+            assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[0]));
+            journal.append(payload("after"));
+        }
+        try (SegmentedJournal journal = new SegmentedJournal(directory, 64)) {
+            List<String> replayed = new ArrayList<>();
+            journal.replay(0, (offset, payload) -> replayed.add(new String(payload, StandardCharsets.UTF_8)));
+            assertEquals(List.of("after"), replayed);
+        }
+    }
+
+    @Test
+    void testRecordLargerThanASegmentIsRejected() throws IOException {
+        try (SegmentedJournal journal = new SegmentedJournal(directory, 64)) {
+            assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[64]));
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
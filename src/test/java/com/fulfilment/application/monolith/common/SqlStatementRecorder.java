@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.common;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL prepared by Hibernate so tests can assert how many round trips an operation takes.
+ * It replaces the application's inspector, and hands every statement on to it.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+@Alternative
+@Priority(1)
+public class SqlStatementRecorder implements StatementInspector {
+
+    private final StatementMetricsInspector metricsInspector;
+    private final List<String> statements = new ArrayList<>();
+
+    public SqlStatementRecorder(@PersistenceUnitExtension StatementMetricsInspector metricsInspector) {
+        this.metricsInspector = metricsInspector;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (this) {
+            statements.add(sql);
+        }
+        return metricsInspector.inspect(sql);
+    }
+
+    public synchronized void clear() {
+        statements.clear();
+    }
+
+    /** Statements recorded since the last clear, leaving out id allocation from sequences. */
+    public synchronized List<String> statements() {
+        return statements.stream()
+                .filter(sql -> !sql.toLowerCase().contains("next value for"))
+                .toList();
+    }
+}
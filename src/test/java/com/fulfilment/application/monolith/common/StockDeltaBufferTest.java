@@ -0,0 +1,35 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class StockDeltaBufferTest {
+
+    @Test
+    void testDeltasThatWouldOverflowTheIntRangeAreRejected() {
+        StockDeltaBuffer buffer = new StockDeltaBuffer();
+
+        assertTrue(buffer.add(1L, Integer.MAX_VALUE));
+        assertFalse(buffer.add(1L, 1));
+        assertTrue(buffer.add(1L, -1));
+        assertTrue(buffer.add(2L, Integer.MIN_VALUE));
+        assertFalse(buffer.add(2L, -1));
+
+        assertEquals(Map.of(1L, (long) Integer.MAX_VALUE - 1, 2L, (long) Integer.MIN_VALUE), buffer.drain());
+        assertTrue(buffer.add(1L, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testDrainLeavesTheSumBeyondTheIntRangeForTheNextDrain() {
+        StockDeltaBuffer buffer = new StockDeltaBuffer();
+        buffer.add(1L, Integer.MAX_VALUE);
+        // restored after a failed flush, on top of deltas added meanwhile
+        buffer.restore(Map.of(1L, 10L));
+
+        assertEquals(Map.of(1L, (long) Integer.MAX_VALUE), buffer.drain());
+        assertEquals(Map.of(1L, 10L), buffer.drain());
+        assertEquals(Map.of(), buffer.drain());
+    }
+}
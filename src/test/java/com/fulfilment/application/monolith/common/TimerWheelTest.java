@@ -0,0 +1,54 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void testTimeoutsFireInTheirTickAndNotBefore() {
+        TimerWheel<String> wheel = new TimerWheel<>(Duration.ofMillis(100), 8, 1_000);
+        wheel.schedule("a", 1_150);
+        wheel.schedule("b", 1_200);
+        wheel.schedule("c", 1_950);
+
+        assertEquals(0, wheel.advance(1_199, fired::add));
+        assertEquals(2, wheel.advance(1_200, fired::add));
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(1, wheel.advance(2_000, fired::add));
+        assertEquals(List.of("a", "b", "c"), fired);
+    }
+
+    @Test
+    void testDeadlinesBeyondOneRevolutionWaitForTheirRound() {
+        TimerWheel<String> wheel = new TimerWheel<>(Duration.ofMillis(100), 8, 0);
+        // same slot as tick 2, one revolution later
+        wheel.schedule("later", 1_000);
+        wheel.schedule("soon", 200);
+
+        assertEquals(1, wheel.advance(250, fired::add));
+        assertEquals(List.of("soon"), fired);
+        assertEquals(0, wheel.advance(999, fired::add));
+        assertEquals(1, wheel.advance(1_000, fired::add));
+        assertEquals(List.of("soon", "later"), fired);
+    }
+
+    @Test
+    void testPastDeadlinesAndLongPausesFireOnce() {
+        TimerWheel<String> wheel = new TimerWheel<>(Duration.ofMillis(100), 4, 10_000);
+        wheel.schedule("past", 5_000);
+        for (int i = 0; i < 10; i++) {
+            wheel.schedule("pause-" + i, 10_100 + i * 100);
+        }
+
+        assertEquals(11, wheel.advance(60_000, fired::add));
+        assertEquals(0, wheel.advance(70_000, fired::add));
+        assertEquals(11, fired.size());
+    }
+}
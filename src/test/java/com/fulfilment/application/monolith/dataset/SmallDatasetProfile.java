@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.dataset;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+import java.util.Map;
+
+/** Generates a synthetic dataset small enough for a test at startup, as the scale profile does. */
+public class SmallDatasetProfile implements QuarkusTestProfile {
+
+    static final int STORES = 2000;
+    static final int PRODUCTS = 3000;
+    static final int WAREHOUSES = 1000;
+    static final int LOCATIONS = 200;
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+                "dataset.generate", "true",
+                "dataset.stores", String.valueOf(STORES),
+                "dataset.products", String.valueOf(PRODUCTS),
+                "dataset.warehouses", String.valueOf(WAREHOUSES),
+                "dataset.locations", String.valueOf(LOCATIONS),
+                "dataset.batch-size", "250",
+                "location.registry.file", "target/synthetic-dataset/locations.csv",
+                "quarkus.hibernate-orm.log.sql", "false");
+    }
+}
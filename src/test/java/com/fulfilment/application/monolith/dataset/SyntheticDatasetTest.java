@@ -0,0 +1,122 @@
+package com.fulfilment.application.monolith.dataset;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.products.ProductRepository;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.stores.StoreRepository;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@TestProfile(SmallDatasetProfile.class)
+class SyntheticDatasetTest {
+
+    // rows of import.sql
+    private static final int SEEDED = 3;
+
+    @Inject
+    StoreRepository storeRepository;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @Inject
+    LocationGateway locationGateway;
+
+    @Inject
+    SyntheticDataset syntheticDataset;
+
+    @Test
+    @Transactional
+    void testGeneratesTheConfiguredRows() {
+        assertEquals(SmallDatasetProfile.STORES, storeRepository.count("name like ?1", "STORE-%"));
+        assertEquals(SmallDatasetProfile.PRODUCTS, productRepository.count("name like ?1", "PRODUCT-%"));
+        assertEquals(SmallDatasetProfile.WAREHOUSES, warehouseRepository.count("businessUnitCode like ?1", "SWH.%"));
+
+        // dataset.archived-share is 0.2
+        double archived = warehouseRepository.count("archivedAt is not null") / (double) SmallDatasetProfile.WAREHOUSES;
+        assertTrue(archived > 0.15 && archived < 0.25, archived + " of the warehouses archived");
+    }
+
+    @Test
+    @Transactional
+    void testActiveWarehousesFitTheirGeneratedLocationsWithHotLocations() {
+        Map<String, LocationOccupancy> occupancies = warehouseRepository.occupancyByLocation();
+        long active = 0;
+        // the seeded warehouses do not all fit the bundled locations, so only the generated ones are checked
+        for (Map.Entry<String, LocationOccupancy> occupancy : occupancies.entrySet()) {
+            if (!occupancy.getKey().startsWith("SCALE-")) {
+                continue;
+            }
+            Location location = locationGateway.resolveByIdentifier(occupancy.getKey());
+            assertNotNull(location, occupancy.getKey());
+            assertTrue(occupancy.getValue().getActiveWarehouses() < location.getMaxNumberOfWarehouses(),
+                    occupancy.getKey());
+            assertTrue(occupancy.getValue().getTotalCapacity() < location.getMaxCapacity(), occupancy.getKey());
+            active += occupancy.getValue().getActiveWarehouses();
+        }
+        assertNotNull(locationGateway.resolveByIdentifier(String.format(
+                SyntheticDataset.LOCATION_FORMAT, SmallDatasetProfile.LOCATIONS)));
+
+        long hottest = occupancies.get(String.format(SyntheticDataset.LOCATION_FORMAT, 1)).getActiveWarehouses();
+        long average = active / SmallDatasetProfile.LOCATIONS;
+        assertTrue(hottest > 10 * average, "hottest location has " + hottest + ", average " + average);
+    }
+
+    @Test
+    void testNewRowsGetIdsAfterTheGeneratedOnes() {
+        Store store = new Store("STORE_AFTER_DATASET");
+        store.setQuantityProductsInStock(1);
+        int storeId = given()
+                .contentType(ContentType.JSON)
+                .body(store)
+                .when()
+                .post("/stores")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+        assertTrue(storeId > SEEDED + SmallDatasetProfile.STORES, "store id " + storeId);
+
+        com.warehouse.api.beans.Warehouse warehouse = new com.warehouse.api.beans.Warehouse();
+        warehouse.setId("MWH.AFTER_DATASET");
+        warehouse.setLocation(String.format(SyntheticDataset.LOCATION_FORMAT, 1));
+        warehouse.setCapacity(40);
+        warehouse.setStock(0);
+        given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when()
+                .post("/warehouse")
+                .then()
+                .statusCode(200)
+                .body("location", is(warehouse.getLocation()));
+    }
+
+    @Test
+    void testDoesNothingWhenTheDatasetExists() {
+        long before = QuarkusTransaction.requiringNew().call(warehouseRepository::count);
+
+        syntheticDataset.generate();
+
+        long after = QuarkusTransaction.requiringNew().call(warehouseRepository::count);
+        assertEquals(before, after);
+    }
+}
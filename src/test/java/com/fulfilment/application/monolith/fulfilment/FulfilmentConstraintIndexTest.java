@@ -0,0 +1,90 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fulfilment.application.monolith.common.TransactionCallbacks;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class FulfilmentConstraintIndexTest {
+
+    @Mock
+    private FulfilmentUnitRepository unitRepository;
+    @Mock
+    private TransactionCallbacks transactionCallbacks;
+
+    private final List<Runnable> rollbackActions = new ArrayList<>();
+    private FulfilmentConstraintIndex index;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> rollbackActions.add(invocation.getArgument(0, Runnable.class)))
+                .when(transactionCallbacks).afterRollback(any());
+        index = new FulfilmentConstraintIndex(unitRepository, transactionCallbacks, 2, 3, 5, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void testAProductIsSuppliedToAStoreByAtMostTwoWarehouses() {
+        index.added(1, 10, 100);
+        index.added(1, 10, 101);
+
+        assertNotNull(index.violationOf(1, 10, 102, "W102"));
+        // other products and stores are not affected
+        assertNull(index.violationOf(2, 10, 102, "W102"));
+        assertNull(index.violationOf(1, 11, 102, "W102"));
+    }
+
+    @Test
+    void testAStoreIsSuppliedByAtMostThreeWarehouses() {
+        index.added(1, 10, 100);
+        index.added(2, 10, 101);
+        index.added(3, 10, 102);
+
+        String violation = index.violationOf(4, 10, 103, "W103");
+        assertEquals("Store 10 is supplied by 3 warehouses already", violation);
+        // a warehouse already supplying the store can supply another product
+        assertNull(index.violationOf(4, 10, 102, "W102"));
+    }
+
+    @Test
+    void testAWarehouseSuppliesAtMostFiveProductTypes() {
+        for (long product = 1; product <= 5; product++) {
+            index.added(product, product, 100);
+        }
+
+        assertEquals("Warehouse W100 supplies 5 product types already", index.violationOf(6, 20, 100, "W100"));
+        // one of its products, to another store
+        assertNull(index.violationOf(5, 20, 100, "W100"));
+    }
+
+    @Test
+    void testRemovedUnitsAndRollbacksFreeTheLimits() {
+        index.added(1, 10, 100);
+        index.added(1, 10, 101);
+        assertNotNull(index.violationOf(1, 10, 102, "W102"));
+
+        index.removed(List.of(unit(1, 10, 101)));
+        assertNull(index.violationOf(1, 10, 102, "W102"));
+
+        rollbackActions.clear();
+        index.added(1, 10, 102);
+        assertNotNull(index.violationOf(1, 10, 103, "W103"));
+        rollbackActions.forEach(Runnable::run);
+        assertNull(index.violationOf(1, 10, 103, "W103"));
+    }
+
+    private static FulfilmentUnit unit(long productId, long storeId, long warehouseId) {
+        FulfilmentUnit unit = new FulfilmentUnit();
+        unit.productId = productId;
+        unit.storeId = storeId;
+        unit.warehouseId = warehouseId;
+        return unit;
+    }
+}
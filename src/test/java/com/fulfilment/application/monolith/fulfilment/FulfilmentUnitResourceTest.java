@@ -0,0 +1,230 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.products.ProductRepository;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.stores.StoreRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import jakarta.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class FulfilmentUnitResourceTest {
+
+    @Inject
+    ProductRepository productRepository;
+    @Inject
+    StoreRepository storeRepository;
+    @Inject
+    WarehouseStore warehouseStore;
+    @Inject
+    FulfilmentConstraintIndex constraintIndex;
+
+    // only testBulkAssignmentReportsEachAssignment keeps units on MWH.023, whose product types it counts
+    @Test
+    void testAProductIsSuppliedToAStoreByAtMostTwoWarehouses() {
+        long product = createProduct();
+        long store = createStore();
+
+        int first = assign(product, store, "MWH.001", 201).extract().path("id");
+        assign(product, store, "MWH.012", 201);
+        assign(product, store, "MWH.001", 409);
+        assign(product, store, "MWH.023", 409);
+
+        given()
+                .queryParam("storeId", store)
+                .when()
+                .get("fulfilment-units")
+                .then()
+                .statusCode(200)
+                .body("warehouse", is(List.of("MWH.001", "MWH.012")));
+
+        given()
+                .when()
+                .delete("fulfilment-units/" + first)
+                .then()
+                .statusCode(204);
+        assign(product, store, "MWH.001", 201);
+        given()
+                .when()
+                .delete("fulfilment-units/" + first)
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testBulkAssignmentReportsEachAssignment() {
+        long store = createStore();
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 6; i++) {
+            body.append("{\"productId\": ").append(createProduct())
+                    .append(", \"storeId\": ").append(store)
+                    .append(", \"warehouse\": \"MWH.023\"},");
+        }
+        body.append("{\"productId\": 1, \"storeId\": ").append(store).append(", \"warehouse\": \"MWH.999\"},");
+        body.append("{\"storeId\": ").append(store).append("}]");
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(body.toString())
+                .when()
+                .post("fulfilment-units/bulk")
+                .then()
+                .statusCode(200)
+                .body("applied", is(5))
+                .body("rejected", is(3))
+                .body("results.status", is(List.of("APPLIED", "APPLIED", "APPLIED", "APPLIED", "APPLIED",
+                        "CONFLICT", "NOT_FOUND", "INVALID")))
+                .body("results[5].error", is("Warehouse MWH.023 supplies 5 product types already"));
+
+        // deleting the store removes its units and frees the warehouse
+        given()
+                .when()
+                .delete("stores/" + store)
+                .then()
+                .statusCode(204);
+        given()
+                .queryParam("warehouse", "MWH.023")
+                .when()
+                .get("fulfilment-units")
+                .then()
+                .statusCode(200)
+                .body("size()", is(0));
+    }
+
+    @Test
+    void testUnitsOfArchivedWarehousesDoNotCountForTheStore() {
+        long store = createStore();
+        String archived = createWarehouse();
+        String added = createWarehouse();
+        assign(createProduct(), store, "MWH.001", 201);
+        assign(createProduct(), store, "MWH.012", 201);
+        assign(createProduct(), store, archived, 201);
+        assign(createProduct(), store, added, 409);
+
+        QuarkusTransaction.requiringNew().run(() -> warehouseStore.archiveAll(List.of(archived), ZonedDateTime.now()));
+
+        assign(createProduct(), store, added, 201);
+        given()
+                .queryParam("storeId", store)
+                .when()
+                .get("fulfilment-units")
+                .then()
+                .statusCode(200)
+                .body("warehouse", is(List.of("MWH.001", "MWH.012", added)));
+        QuarkusTransaction.requiringNew().run(() -> warehouseStore.archiveAll(List.of(added), ZonedDateTime.now()));
+    }
+
+    @Test
+    void testDeletingAStoreWhileUnitsAreBeingChangedIsAConflict() throws Exception {
+        long store = createStore();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> QuarkusTransaction.requiringNew().run(() -> {
+                constraintIndex.lock();
+                locked.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            given()
+                    .when()
+                    .delete("stores/" + store)
+                    .then()
+                    .statusCode(409);
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        given()
+                .when()
+                .delete("stores/" + store)
+                .then()
+                .statusCode(204);
+    }
+
+    @Test
+    void testInvalidAssignments() {
+        long store = createStore();
+
+        assign(999999, store, "MWH.001", 404);
+        assign(1, 999999, "MWH.001", 404);
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"productId\": 1}")
+                .when()
+                .post("fulfilment-units")
+                .then()
+                .statusCode(422);
+        given()
+                .contentType(ContentType.JSON)
+                .body("[]")
+                .when()
+                .post("fulfilment-units/bulk")
+                .then()
+                .statusCode(422);
+    }
+
+    private ValidatableResponse assign(long product, long store, String warehouse,
+            int status) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body("{\"productId\": " + product + ", \"storeId\": " + store + ", \"warehouse\": \""
+                        + warehouse + "\"}")
+                .when()
+                .post("fulfilment-units")
+                .then()
+                .statusCode(status);
+    }
+
+    private long createProduct() {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Product product = new Product("FULFILLED_" + System.nanoTime());
+            productRepository.persist(product);
+            return product.id;
+        });
+    }
+
+    // without a location, so that it does not take room from the locations the warehouse tests use
+    private String createWarehouse() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode("FULFILLED_" + System.nanoTime());
+        warehouse.setCapacity(10);
+        warehouse.setStock(0);
+        warehouse.setCreationAt(ZonedDateTime.now());
+        QuarkusTransaction.requiringNew().run(() -> warehouseStore.create(warehouse));
+        return warehouse.getBusinessUnitCode();
+    }
+
+    private long createStore() {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Store store = new Store("FULFILLED_" + System.nanoTime());
+            storeRepository.persist(store);
+            return store.id;
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * One kind of request of a {@link LoadScenario}. Requests are built on the driver thread, responses
+ * are handed back on the HTTP client's threads.
+ */
+interface LoadOperation {
+
+    String name();
+
+    /** The next request, or null when there is nothing to do right now; the arrival is then skipped. */
+    HttpRequest next(Random random);
+
+    /** Whether the status is a correct answer; any other status counts as an error. */
+    default boolean expected(int status) {
+        return status >= 200 && status < 400;
+    }
+
+    default void completed(HttpResponse<String> response) {
+    }
+
+    static LoadOperation of(String name, Function<Random, HttpRequest> next) {
+        return of(name, next, status -> status >= 200 && status < 400);
+    }
+
+    static LoadOperation of(String name, Function<Random, HttpRequest> next, IntPredicate expected) {
+        return new LoadOperation() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public HttpRequest next(Random random) {
+                return next.apply(random);
+            }
+
+            @Override
+            public boolean expected(int status) {
+                return expected.test(status);
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The machine readable result of a load test run, written as JSON. Latencies are in microseconds
+ * and measured from the intended start of each request, so they include any time a request waited
+ * because the service fell behind.
+ */
+record LoadReport(String startedAt, Map<String, Object> settings, List<ScenarioReport> scenarios) {
+
+    record ScenarioReport(
+            String name,
+            double targetRate,
+            double achievedRate,
+            long sent,
+            long errors,
+            double errorRate,
+            long dropped,
+            List<OperationReport> operations) {
+    }
+
+    record OperationReport(
+            String name,
+            long sent,
+            long errors,
+            double errorRate,
+            long dropped,
+            long skipped,
+            Map<String, Long> outcomes,
+            Latency latencyMicros) {
+    }
+
+    record Latency(double mean, double p50, double p90, double p99, double p999, double max) {
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), this);
+    }
+
+    static double ratio(long part, long whole) {
+        return whole == 0 ? 0 : Math.round(part * 1_000_000.0 / whole) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** A workload: requests arriving at {@code rate} per second, each picking an operation by weight. */
+record LoadScenario(String name, double rate, List<Weighted> operations) {
+
+    record Weighted(LoadOperation operation, int weight) {
+    }
+
+    static Builder named(String name, double rate) {
+        return new Builder(name, rate);
+    }
+
+    LoadOperation pick(Random random) {
+        int total = operations.stream().mapToInt(Weighted::weight).sum();
+        int pick = random.nextInt(total);
+        for (Weighted weighted : operations) {
+            pick -= weighted.weight();
+            if (pick < 0) {
+                return weighted.operation();
+            }
+        }
+        throw new IllegalStateException("Weights changed while picking");
+    }
+
+    static final class Builder {
+
+        private final String name;
+        private final double rate;
+        private final List<Weighted> operations = new ArrayList<>();
+
+        private Builder(String name, double rate) {
+            this.name = name;
+            this.rate = rate;
+        }
+
+        Builder add(int weight, LoadOperation operation) {
+            operations.add(new Weighted(operation, weight));
+            return this;
+        }
+
+        LoadScenario build() {
+            return new LoadScenario(name, rate, List.copyOf(operations));
+        }
+    }
+}
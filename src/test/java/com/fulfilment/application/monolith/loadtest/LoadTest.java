@@ -0,0 +1,156 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drives the open-loop workloads of {@link Workloads} against the application, one scenario after
+ * the other, and writes their latency percentiles and error rates to a JSON report (by default
+ * {@code target/load-test/report.json}) to compare between commits. Excluded from the default
+ * build; run with {@code ./mvnw test -Pbenchmark -Dtest=LoadTest}.
+ *
+ * <p>Settings are system properties: {@code loadtest.scenarios} (comma separated, default all),
+ * {@code loadtest.rate.<scenario>} in requests per second, {@code loadtest.duration} and
+ * {@code loadtest.warmup} in seconds, {@code loadtest.seed}, {@code loadtest.max-in-flight} and
+ * {@code loadtest.report}. The application runs against H2 unless the datasource is overridden, for
+ * instance {@code -Dquarkus.datasource.db-kind=postgresql -Dquarkus.datasource.jdbc.url=...} for a
+ * scratch Postgres database, which is dropped and recreated.
+ */
+@QuarkusTest
+@TestProfile(LoadTestProfile.class)
+@Tag("benchmark")
+class LoadTest {
+
+    private static final Logger LOGGER = Logger.getLogger(LoadTest.class.getName());
+    private static final int STORES = 50;
+    private static final int HOT_STORES = 5;
+    private static final int PRODUCTS = 1000;
+    private static final Map<String, Double> DEFAULT_RATES = Map.of(
+            Workloads.WAREHOUSE_READS, 300.0,
+            Workloads.WAREHOUSE_CHURN, 40.0,
+            Workloads.STORE_PATCH_STORM, 200.0,
+            Workloads.PRODUCT_LOOKUPS, 500.0);
+
+    record SeededStore(long id, String name) {
+    }
+
+    @TestHTTPResource("/")
+    URI base;
+
+    @Test
+    void runScenarios() throws Exception {
+        long runId = System.currentTimeMillis();
+        List<String> scenarioNames = Arrays.asList(System.getProperty("loadtest.scenarios", String.join(",",
+                Workloads.WAREHOUSE_READS, Workloads.WAREHOUSE_CHURN, Workloads.STORE_PATCH_STORM,
+                Workloads.PRODUCT_LOOKUPS)).split(","));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 20));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup", 5));
+        long seed = Long.getLong("loadtest.seed", 42);
+        int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 1000);
+        Path reportFile = Path.of(System.getProperty("loadtest.report", "target/load-test/report.json"));
+
+        Workloads workloads = new Workloads(base);
+        List<SeededStore> stores = createStores(runId);
+        List<Long> products = createProducts(runId);
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("database", ConfigProvider.getConfig().getValue("quarkus.datasource.db-kind", String.class));
+        settings.put("durationSeconds", duration.toSeconds());
+        settings.put("warmupSeconds", warmup.toSeconds());
+        settings.put("seed", seed);
+        settings.put("maxInFlight", maxInFlight);
+        settings.put("stores", STORES);
+        settings.put("hotStores", HOT_STORES);
+        settings.put("products", PRODUCTS);
+
+        String startedAt = Instant.now().toString();
+        List<LoadReport.ScenarioReport> reports = new ArrayList<>();
+        ExecutorService responses = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(responses)
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            OpenLoopDriver driver = new OpenLoopDriver(client, warmup, duration, maxInFlight, seed);
+            for (String name : scenarioNames) {
+                double rate = Double.parseDouble(System.getProperty(
+                        "loadtest.rate." + name, String.valueOf(DEFAULT_RATES.getOrDefault(name, 0.0))));
+                LoadScenario scenario = switch (name) {
+                    case Workloads.WAREHOUSE_READS -> workloads.warehouseReads(rate);
+                    case Workloads.WAREHOUSE_CHURN -> workloads.warehouseChurn(rate, runId);
+                    case Workloads.STORE_PATCH_STORM -> workloads.storePatchStorm(rate, stores, HOT_STORES);
+                    case Workloads.PRODUCT_LOOKUPS -> workloads.productLookups(rate, products);
+                    default -> throw new IllegalArgumentException("Unknown scenario: " + name);
+                };
+                LoadReport.ScenarioReport report = driver.run(scenario);
+                LOGGER.infof("%-18s %8.1f req/s, error rate %.4f",
+                        report.name(), report.achievedRate(), report.errorRate());
+                reports.add(report);
+            }
+        } finally {
+            responses.shutdownNow();
+        }
+
+        new LoadReport(startedAt, settings, reports).write(reportFile);
+        LOGGER.infof("Load test report written to %s", reportFile.toAbsolutePath());
+        reports.forEach(report -> assertTrue(report.sent() > 0, () -> "Nothing was sent for " + report.name()));
+    }
+
+    private List<SeededStore> createStores(long runId) {
+        List<SeededStore> stores = new ArrayList<>();
+        for (int i = 0; i < STORES; i++) {
+            String name = "LOAD-" + runId + "-" + i;
+            long id = given()
+                    .contentType(ContentType.JSON)
+                    .body(Map.of("name", name, "quantityProductsInStock", 100))
+                    .when()
+                    .post("/stores")
+                    .then()
+                    .statusCode(201)
+                    .extract()
+                    .jsonPath()
+                    .getLong("id");
+            stores.add(new SeededStore(id, name));
+        }
+        return stores;
+    }
+
+    private List<Long> createProducts(long runId) {
+        List<Long> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(given()
+                    .contentType(ContentType.JSON)
+                    .body(Map.of("name", "LOAD-" + runId + "-" + i, "stock", 100))
+                    .when()
+                    .post("/product")
+                    .then()
+                    .statusCode(201)
+                    .extract()
+                    .jsonPath()
+                    .getLong("id"));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+import java.util.Map;
+
+/**
+ * Runs the application as in production rather than as in the other tests: the scheduled jobs run,
+ * SQL is not logged, and the location registry has the hot locations of the load test.
+ */
+public class LoadTestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+                "quarkus.scheduler.enabled", "true",
+                "quarkus.hibernate-orm.log.sql", "false",
+                "location.registry.file", "src/test/resources/load-test-locations.csv");
+    }
+}
@@ -0,0 +1,123 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the requests of a scenario open loop: they arrive as a Poisson process at the scenario's
+ * rate whatever the service's response times, so a slow service builds a queue instead of slowing
+ * the load down. Latency is measured from the time a request was due, not from when it was sent.
+ *
+ * <p>Arrivals and the operations they pick come from a seeded random, so a scenario picks the same
+ * operations at the same times on every run. Operations that build their request from an earlier
+ * response, such as an archive of a warehouse created before or a listing with the ETag last seen,
+ * depend on which responses have arrived, so their requests can differ between runs. Requests of
+ * the warmup are sent but not measured; arrivals
+ * while {@code maxInFlight} requests are outstanding are dropped and count as errors.
+ */
+final class OpenLoopDriver {
+
+    private final HttpClient client;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int maxInFlight;
+    private final long seed;
+
+    OpenLoopDriver(HttpClient client, Duration warmup, Duration duration, int maxInFlight, long seed) {
+        this.client = client;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.maxInFlight = maxInFlight;
+        this.seed = seed;
+    }
+
+    LoadReport.ScenarioReport run(LoadScenario scenario) throws InterruptedException {
+        Random random = new Random(seed ^ scenario.name().hashCode());
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        scenario.operations().forEach(weighted ->
+                stats.put(weighted.operation().name(), new OperationStats(weighted.operation().name())));
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / scenario.rate();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        for (long due = start; due < end; due += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos)) {
+            for (long now = System.nanoTime(); now < due; now = System.nanoTime()) {
+                LockSupport.parkNanos(due - now);
+            }
+            LoadOperation operation = scenario.pick(random);
+            HttpRequest request = operation.next(random);
+            OperationStats operationStats = due >= measureFrom ? stats.get(operation.name()) : null;
+            if (request == null) {
+                if (operationStats != null) {
+                    operationStats.skipped();
+                }
+            } else if (!inFlight.tryAcquire()) {
+                if (operationStats != null) {
+                    operationStats.dropped();
+                }
+            } else {
+                send(operation, request, due, operationStats, inFlight);
+            }
+        }
+
+        // the requests still in flight belong to the measurement
+        if (inFlight.tryAcquire(maxInFlight, 30, TimeUnit.SECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        long sent = stats.values().stream().mapToLong(OperationStats::sentCount).sum();
+        long errors = stats.values().stream().mapToLong(OperationStats::errorCount).sum();
+        long dropped = stats.values().stream().mapToLong(OperationStats::droppedCount).sum();
+        List<LoadReport.OperationReport> operations = new ArrayList<>();
+        stats.values().forEach(operationStats -> operations.add(operationStats.report()));
+        return new LoadReport.ScenarioReport(
+                scenario.name(),
+                scenario.rate(),
+                Math.round(sent / (duration.toMillis() / 1000.0) * 10) / 10.0,
+                sent,
+                errors,
+                LoadReport.ratio(errors, sent + dropped),
+                dropped,
+                operations);
+    }
+
+    private void send(
+            LoadOperation operation, HttpRequest request, long due, OperationStats stats, Semaphore inFlight) {
+        if (stats != null) {
+            stats.sent();
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            long latency = System.nanoTime() - due;
+            try {
+                if (response != null) {
+                    operation.completed(response);
+                }
+                if (stats != null) {
+                    if (response != null) {
+                        stats.completed(latency, String.valueOf(response.statusCode()),
+                                operation.expected(response.statusCode()));
+                    } else {
+                        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause()
+                                : failure;
+                        stats.completed(latency, cause.getClass().getSimpleName(), false);
+                    }
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+}
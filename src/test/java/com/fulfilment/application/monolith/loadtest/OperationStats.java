@@ -0,0 +1,86 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/** What happened to the measured requests of one operation. */
+final class OperationStats {
+
+    private final String name;
+    // nanoseconds from the intended start of a request to its completion
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    void sent() {
+        sent.increment();
+    }
+
+    /** The request was not sent because too many were in flight; counts as an error. */
+    void dropped() {
+        dropped.increment();
+        errors.increment();
+    }
+
+    void skipped() {
+        skipped.increment();
+    }
+
+    void completed(long latencyNanos, String outcome, boolean expected) {
+        latency.recordValue(latencyNanos);
+        outcomes.computeIfAbsent(outcome, o -> new LongAdder()).increment();
+        if (!expected) {
+            errors.increment();
+        }
+    }
+
+    long sentCount() {
+        return sent.sum();
+    }
+
+    long errorCount() {
+        return errors.sum();
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    LoadReport.OperationReport report() {
+        Map<String, Long> byOutcome = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> byOutcome.put(outcome, count.sum()));
+        long attempted = sent.sum() + dropped.sum();
+        return new LoadReport.OperationReport(
+                name,
+                sent.sum(),
+                errors.sum(),
+                LoadReport.ratio(errors.sum(), attempted),
+                dropped.sum(),
+                skipped.sum(),
+                byOutcome,
+                new LoadReport.Latency(
+                        micros(latency.getMean()),
+                        micros(latency.getValueAtPercentile(50)),
+                        micros(latency.getValueAtPercentile(90)),
+                        micros(latency.getValueAtPercentile(99)),
+                        micros(latency.getValueAtPercentile(99.9)),
+                        micros(latency.getMaxValue())));
+    }
+
+    private static double micros(double nanos) {
+        return Math.round(nanos / TimeUnit.MICROSECONDS.toNanos(1) * 10) / 10.0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** The scenarios of the load test. */
+final class Workloads {
+
+    static final String WAREHOUSE_READS = "warehouse-reads";
+    static final String WAREHOUSE_CHURN = "warehouse-churn";
+    static final String STORE_PATCH_STORM = "store-patch-storm";
+    static final String PRODUCT_LOOKUPS = "product-lookups";
+
+    /** Locations of load-test-locations.csv with room for any number of warehouses. */
+    static final List<String> HOT_LOCATIONS = List.of("LOAD-HOT-1", "LOAD-HOT-2", "LOAD-HOT-3");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final List<String> SEEDED_WAREHOUSES = List.of("MWH.001", "MWH.012", "MWH.023");
+
+    private final URI base;
+
+    Workloads(URI base) {
+        this.base = base;
+    }
+
+    /**
+     * Listings, most of them with the ETag of an earlier listing so they can be answered with 304,
+     * a page of the keyset listing, and single warehouses.
+     */
+    LoadScenario warehouseReads(double rate) {
+        AtomicReference<String> etag = new AtomicReference<>();
+        LoadOperation list = new LoadOperation() {
+            @Override
+            public String name() {
+                return "list-warehouses";
+            }
+
+            @Override
+            public HttpRequest next(Random random) {
+                return get("/warehouse").build();
+            }
+
+            @Override
+            public void completed(HttpResponse<String> response) {
+                response.headers().firstValue("ETag").ifPresent(etag::set);
+            }
+        };
+        return LoadScenario.named(WAREHOUSE_READS, rate)
+                .add(3, list)
+                .add(4, LoadOperation.of("list-warehouses-if-none-match", random -> {
+                    String current = etag.get();
+                    return current != null ? get("/warehouse").header("If-None-Match", current).build() : null;
+                }))
+                .add(1, LoadOperation.of("list-warehouses-page", random -> get("/warehouse?limit=2").build()))
+                .add(2, LoadOperation.of("get-warehouse", random ->
+                        get("/warehouse/" + pick(SEEDED_WAREHOUSES, random)).build()))
+                .build();
+    }
+
+    /**
+     * Creates warehouses at a few hot locations, all competing for the same location locks, and
+     * archives the ones created before.
+     */
+    LoadScenario warehouseChurn(double rate, long runId) {
+        AtomicLong sequence = new AtomicLong();
+        Queue<String> created = new ConcurrentLinkedQueue<>();
+        LoadOperation create = new LoadOperation() {
+            @Override
+            public String name() {
+                return "create-warehouse";
+            }
+
+            @Override
+            public HttpRequest next(Random random) {
+                String code = "LOAD." + runId + "." + sequence.incrementAndGet();
+                return json("POST", "/warehouse", "{\"id\": \"" + code + "\", \"location\": \""
+                        + pick(HOT_LOCATIONS, random) + "\", \"capacity\": 10, \"stock\": 0}");
+            }
+
+            @Override
+            public void completed(HttpResponse<String> response) {
+                if (response.statusCode() == 200) {
+                    created.add(idOf(response));
+                }
+            }
+        };
+        return LoadScenario.named(WAREHOUSE_CHURN, rate)
+                .add(1, create)
+                .add(1, LoadOperation.of("archive-warehouse", random -> {
+                    String code = created.poll();
+                    return code != null ? request("/warehouse/" + code).DELETE().build() : null;
+                }))
+                .build();
+    }
+
+    /** PATCHes of the stock of a handful of hot stores, and now and then of another one. */
+    LoadScenario storePatchStorm(double rate, List<LoadTest.SeededStore> stores, int hotStores) {
+        List<LoadTest.SeededStore> hot = stores.subList(0, hotStores);
+        List<LoadTest.SeededStore> cold = stores.subList(hotStores, stores.size());
+        return LoadScenario.named(STORE_PATCH_STORM, rate)
+                .add(9, LoadOperation.of("patch-hot-store", random -> patchStore(pick(hot, random), random)))
+                .add(1, LoadOperation.of("patch-cold-store", random -> patchStore(pick(cold, random), random)))
+                .build();
+    }
+
+    /** Single product lookups, skewed towards a few popular products, and a few unknown ids. */
+    LoadScenario productLookups(double rate, List<Long> products) {
+        return LoadScenario.named(PRODUCT_LOOKUPS, rate)
+                .add(97, LoadOperation.of("get-product", random -> {
+                    // the cube of a uniform value puts half of the lookups on the first eighth of the products
+                    double skewed = Math.pow(random.nextDouble(), 3);
+                    return get("/product/" + products.get((int) (skewed * products.size()))).build();
+                }))
+                .add(3, LoadOperation.of("get-unknown-product",
+                        random -> get("/product/" + (1_000_000_000L + random.nextInt(1_000_000))).build(),
+                        status -> status == 404))
+                .build();
+    }
+
+    private HttpRequest patchStore(LoadTest.SeededStore store, Random random) {
+        return json("PATCH", "/stores/" + store.id(),
+                "{\"name\": \"" + store.name() + "\", \"quantityProductsInStock\": " + (1 + random.nextInt(1000)) + "}");
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return request(path).GET();
+    }
+
+    private HttpRequest json(String method, String path, String body) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private static String idOf(HttpResponse<String> response) {
+        try {
+            return MAPPER.readTree(response.body()).path("id").asText();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
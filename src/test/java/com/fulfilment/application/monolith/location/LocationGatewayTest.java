@@ -2,16 +2,25 @@ package com.fulfilment.application.monolith.location;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class LocationGatewayTest {
 
+  @TempDir
+  Path tempDir;
+
   @Test
   void testWhenResolveExistingLocationShouldReturn() {
     // given
-    LocationGateway locationGateway = new LocationGateway();
+    LocationGateway locationGateway = new LocationGateway(Optional.empty());
 
     // when
     Location location = locationGateway.resolveByIdentifier("ZWOLLE-001");
@@ -24,13 +33,62 @@ class LocationGatewayTest {
 
   @Test
   void testWhenResolveNonExistingLocationShouldReturnNull() {
-    LocationGateway locationGateway = new LocationGateway();
+    LocationGateway locationGateway = new LocationGateway(Optional.empty());
     assertNull(locationGateway.resolveByIdentifier("UNKNOWN-001"));
   }
 
   @Test
   void testWhenResolveNullIdentifierShouldReturnNull() {
-    LocationGateway locationGateway = new LocationGateway();
+    LocationGateway locationGateway = new LocationGateway(Optional.empty());
     assertNull(locationGateway.resolveByIdentifier(null));
   }
+
+  @Test
+  void testWhenRegistryFileConfiguredShouldResolveFromFile() throws IOException {
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, "# comment\nUTRECHT-001,4,120\n\nDELFT-001,1,30\n");
+
+    LocationGateway locationGateway = new LocationGateway(Optional.of(file.toString()));
+
+    assertEquals(120, locationGateway.resolveByIdentifier("UTRECHT-001").getMaxCapacity());
+    assertNull(locationGateway.resolveByIdentifier("ZWOLLE-001"));
+    assertEquals(2, locationGateway.stats().locations());
+  }
+
+  @Test
+  void testWhenReloadShouldSwapRegistry() throws IOException {
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, "UTRECHT-001,4,120\n");
+    LocationGateway locationGateway = new LocationGateway(Optional.of(file.toString()));
+
+    Files.writeString(file, "UTRECHT-001,4,150\nDELFT-001,1,30\n");
+    LocationRegistryStats stats = locationGateway.reload();
+
+    assertEquals(150, locationGateway.resolveByIdentifier("UTRECHT-001").getMaxCapacity());
+    assertEquals(30, locationGateway.resolveByIdentifier("DELFT-001").getMaxCapacity());
+    assertEquals(2, stats.locations());
+    assertEquals(1, stats.reloads());
+  }
+
+  @Test
+  void testWhenReloadFailsShouldKeepPreviousRegistry() throws IOException {
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, "UTRECHT-001,4,120\n");
+    LocationGateway locationGateway = new LocationGateway(Optional.of(file.toString()));
+
+    Files.writeString(file, "UTRECHT-001,four,120\n");
+    assertThrows(IllegalArgumentException.class, locationGateway::reload);
+
+    assertEquals(120, locationGateway.resolveByIdentifier("UTRECHT-001").getMaxCapacity());
+    assertEquals(1, locationGateway.stats().failedReloads());
+  }
+
+  @Test
+  void testWhenRegistryHasDuplicatesShouldFail() throws IOException {
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, "UTRECHT-001,4,120\nUTRECHT-001,1,30\n");
+
+    assertThrows(
+        IllegalArgumentException.class, () -> new LocationGateway(Optional.of(file.toString())));
+  }
 }
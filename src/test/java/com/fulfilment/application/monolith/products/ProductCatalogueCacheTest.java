@@ -0,0 +1,123 @@
+package com.fulfilment.application.monolith.products;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fulfilment.application.monolith.common.TransactionCallbacks;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class ProductCatalogueCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private TransactionCallbacks transactionCallbacks;
+
+    private ProductCatalogueCache cache;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return null;
+        }).when(transactionCallbacks).afterCommit(any());
+        cache = new ProductCatalogueCache(productRepository, transactionCallbacks, 100,
+                Duration.ofMinutes(5), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void testProductIsLoadedOnceAndThenServedFromTheCache() {
+        stubLookup(1L, product(1L));
+
+        assertEquals("TONSTAD", cache.get(1L).name());
+        assertEquals("TONSTAD", cache.get(1L).name());
+
+        verify(productRepository, times(1)).find("id", 1L);
+        ProductCacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void testUnknownIdIsCachedAsNegativeEntry() {
+        stubLookup(404L, null);
+
+        assertNull(cache.get(404L));
+        assertNull(cache.get(404L));
+
+        verify(productRepository, times(1)).find("id", 404L);
+    }
+
+    @Test
+    void testInvalidatedProductIsReloaded() {
+        stubLookup(1L, product(1L));
+        cache.get(1L);
+
+        cache.invalidateAfterCommit(1L);
+        cache.get(1L);
+
+        verify(transactionCallbacks).afterCommit(any());
+        verify(productRepository, times(2)).find("id", 1L);
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PanacheQuery<ProductView> projected = mockQuery(1L);
+        when(projected.firstResult()).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return product(1L);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ProductView>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                lookups.add(executor.submit(() -> cache.get(1L)));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            for (Future<ProductView> lookup : lookups) {
+                assertEquals("TONSTAD", lookup.get().name());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        verify(projected, times(1)).firstResult();
+    }
+
+    private void stubLookup(Long id, ProductView product) {
+        when(mockQuery(id).firstResult()).thenReturn(product);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PanacheQuery<ProductView> mockQuery(Long id) {
+        PanacheQuery<Product> query = mock(PanacheQuery.class);
+        PanacheQuery<ProductView> projected = mock(PanacheQuery.class);
+        when(productRepository.find("id", id)).thenReturn(query);
+        when(query.project(ProductView.class)).thenReturn(projected);
+        return projected;
+    }
+
+    private static ProductView product(Long id) {
+        return new ProductView(id, "TONSTAD", null, BigDecimal.TEN, 10);
+    }
+}
@@ -4,14 +4,39 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.core.IsNot.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import com.fulfilment.application.monolith.common.QueryBudgets;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 class ProductEndpointTest {
 
+    @Inject
+    SessionFactory sessionFactory;
+
+    private QueryBudgets queryBudgets;
+
+    @BeforeEach
+    void enforceQueryBudgets() {
+        queryBudgets = QueryBudgets.enforce(sessionFactory.getStatistics());
+    }
+
+    @AfterEach
+    void removeQueryBudgets() {
+        queryBudgets.remove();
+    }
+
     @Test
     void testCrudProduct() {
         final String path = "product";
@@ -105,4 +130,164 @@ class ProductEndpointTest {
                 .then()
                 .statusCode(422);
     }
+
+    @Test
+    void testStockDelta() {
+        Product product = new Product("STOCK_DELTA_" + System.currentTimeMillis());
+        product.setStock(4);
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body(product)
+                .when()
+                .post("product")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": 6}")
+                .when()
+                .post("product/" + id + "/stock-delta")
+                .then()
+                .statusCode(200)
+                .body("stock", is(10));
+
+        // would go below zero
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": -11}")
+                .when()
+                .post("product/" + id + "/stock-delta")
+                .then()
+                .statusCode(409);
+
+        // would go past the largest stock the column holds
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": " + Integer.MAX_VALUE + ", \"allowNegative\": true}")
+                .when()
+                .post("product/" + id + "/stock-delta")
+                .then()
+                .statusCode(409)
+                .body("error", is("Stock of product " + id + " would go out of range."));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": 1}")
+                .when()
+                .post("product/999/stock-delta")
+                .then()
+                .statusCode(404);
+
+        given()
+                .when()
+                .get("product/" + id)
+                .then()
+                .statusCode(200)
+                .body("stock", is(10));
+    }
+
+    @Test
+    void testListProductsInKeysetPages() {
+        List<String> all = given()
+                .when()
+                .get("product")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getList("name", String.class);
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = given().queryParam("limit", 1);
+            if (cursor != null) {
+                request.queryParam("after", cursor);
+            }
+            ExtractableResponse<Response> page = request
+                    .when()
+                    .get("product")
+                    .then()
+                    .statusCode(200)
+                    .extract();
+            paged.addAll(page.jsonPath().getList("name", String.class));
+            cursor = page.header("X-Next-Cursor");
+        } while (cursor != null);
+
+        assertEquals(all, paged);
+    }
+
+    @Test
+    void testUnknownProductIsServedFromTheCache() {
+        given()
+                .when()
+                .get("product/424242")
+                .then()
+                .statusCode(404);
+        int hits = given()
+                .when()
+                .get("admin/product-cache")
+                .then()
+                .statusCode(200)
+                .extract().path("hits");
+
+        given()
+                .when()
+                .get("product/424242")
+                .then()
+                .statusCode(404);
+        given()
+                .when()
+                .get("admin/product-cache")
+                .then()
+                .statusCode(200)
+                .body("hits", is(hits + 1));
+    }
+
+    @Test
+    void testSearchProductsByPrefix() {
+        given()
+                .queryParam("prefix", "besta")
+                .when()
+                .get("product/search")
+                .then()
+                .statusCode(200)
+                .body("name", hasItem("BESTÅ"));
+
+        String name = "SEARCHABLE_" + System.currentTimeMillis();
+        int id = given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"" + name + "\"}")
+                .when()
+                .post("product")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+        given()
+                .queryParam("prefix", name.toLowerCase())
+                .when()
+                .get("product/search")
+                .then()
+                .statusCode(200)
+                .body("id", is(List.of(id)));
+
+        given()
+                .when()
+                .delete("product/" + id)
+                .then()
+                .statusCode(204);
+        given()
+                .queryParam("prefix", name)
+                .when()
+                .get("product/search")
+                .then()
+                .statusCode(200)
+                .body("size()", is(0));
+
+        given()
+                .when()
+                .get("product/search")
+                .then()
+                .statusCode(422);
+    }
 }
@@ -0,0 +1,267 @@
+package com.fulfilment.application.monolith.products;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.common.StockDelta;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class ProductReservationsTest {
+
+    private static final int THREADS = 16;
+
+    @Inject
+    ProductRepository productRepository;
+    @Inject
+    ProductReservations reservations;
+    @Inject
+    ProductResource productResource;
+
+    @Test
+    void testStockNeverGoesNegativeUnderConcurrency() throws Exception {
+        long id = createProduct(100);
+        AtomicLong committedQuantity = new AtomicLong();
+        AtomicLong lowestAvailable = new AtomicLong(Long.MAX_VALUE);
+        AtomicLong lowestStock = new AtomicLong(Long.MAX_VALUE);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 2);
+        try {
+            // watches the counter and the stock, expires and flushes while the reservations are made
+            Future<?> monitor = executor.submit(() -> {
+                while (running.get()) {
+                    lowestAvailable.accumulateAndGet(reservations.available(id), Math::min);
+                    lowestStock.accumulateAndGet(stockOf(id), Math::min);
+                }
+            });
+            Future<?> background = executor.submit(() -> {
+                while (running.get()) {
+                    reservations.expire(Instant.now());
+                    reservations.flush();
+                }
+            });
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                // a quarter of the threads take and add stock with guarded deltas, one in eight replaces it
+                Runnable worker = switch (t % 8) {
+                    case 0, 4 -> () -> writeStockDeltas(id, 200);
+                    case 1 -> () -> replaceStock(id, 100);
+                    default -> () -> reserve(id, 2000, committedQuantity);
+                };
+                workers.add(executor.submit(worker));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            running.set(false);
+            monitor.get();
+            background.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        reservations.expire(Instant.now().plusSeconds(120));
+        reservations.flush();
+
+        assertTrue(lowestAvailable.get() >= 0, "available went down to " + lowestAvailable.get());
+        assertTrue(lowestStock.get() >= 0, "stock went down to " + lowestStock.get());
+        assertTrue(committedQuantity.get() > 0);
+        assertEquals(stockOf(id), reservations.available(id));
+        assertEquals(0, reservations.stats().pendingCommits());
+    }
+
+    @Test
+    void testReservationLifecycle() {
+        long id = createProduct(5);
+
+        String first = given()
+                .contentType(ContentType.JSON)
+                .body("{\"productId\": " + id + ", \"quantity\": 3}")
+                .when()
+                .post("reservations")
+                .then()
+                .statusCode(201)
+                .body("quantity", is(3))
+                .extract().path("id");
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"productId\": " + id + ", \"quantity\": 3}")
+                .when()
+                .post("reservations")
+                .then()
+                .statusCode(409);
+
+        given()
+                .when()
+                .post("reservations/" + first + "/commit")
+                .then()
+                .statusCode(204);
+        given()
+                .when()
+                .delete("reservations/" + first)
+                .then()
+                .statusCode(404);
+
+        String second = given()
+                .contentType(ContentType.JSON)
+                .body("{\"productId\": " + id + ", \"quantity\": 2, \"ttlSeconds\": 1}")
+                .when()
+                .post("reservations")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+        assertEquals(0, reservations.available(id));
+        assertTrue(reservations.expire(Instant.now().plusSeconds(3)) >= 1);
+        assertEquals(2, reservations.available(id));
+        given()
+                .when()
+                .post("reservations/" + second + "/commit")
+                .then()
+                .statusCode(404);
+
+        assertEquals(5, stockOf(id));
+        reservations.flush();
+        assertEquals(2, stockOf(id));
+        given()
+                .when()
+                .get("product/" + id)
+                .then()
+                .statusCode(200)
+                .body("stock", is(2));
+    }
+
+    @Test
+    void testInvalidReservations() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"productId\": 999999, \"quantity\": 1}")
+                .when()
+                .post("reservations")
+                .then()
+                .statusCode(404);
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"productId\": 1, \"quantity\": 0}")
+                .when()
+                .post("reservations")
+                .then()
+                .statusCode(422);
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"productId\": 1, \"quantity\": 1, \"ttlSeconds\": 0}")
+                .when()
+                .post("reservations")
+                .then()
+                .statusCode(422);
+    }
+
+    @Test
+    void testGuardedWritesDoNotTakeReservedStock() {
+        long id = createProduct(10);
+        ProductReservation reservation = reservations.reserve(id, 10, null);
+        assertNotNull(reservation);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": -10}")
+                .when()
+                .post("product/" + id + "/stock-delta")
+                .then()
+                .statusCode(409);
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"RESERVED_PUT\", \"stock\": 5}")
+                .when()
+                .put("product/" + id)
+                .then()
+                .statusCode(409);
+        assertEquals(0, reservations.available(id));
+
+        // unguarded writes may take it, and the flush then stops at zero
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": -5, \"allowNegative\": true}")
+                .when()
+                .post("product/" + id + "/stock-delta")
+                .then()
+                .statusCode(200)
+                .body("stock", is(5));
+        assertEquals(-5, reservations.available(id));
+        assertTrue(reservations.commit(reservation.id()));
+        reservations.flush();
+        assertEquals(0, stockOf(id));
+    }
+
+    private void writeStockDeltas(long id, int writes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < writes; i++) {
+            try {
+                productResource.addStock(id, new StockDelta(random.nextInt(-5, 6), false, false));
+            } catch (WebApplicationException e) {
+                assertEquals(409, e.getResponse().getStatus());
+            }
+        }
+    }
+
+    private void replaceStock(long id, int writes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < writes; i++) {
+            Product product = new Product("RESERVED_REPLACED");
+            product.setStock(random.nextInt(0, 150));
+            try {
+                productResource.update(id, product);
+            } catch (WebApplicationException e) {
+                assertEquals(409, e.getResponse().getStatus());
+            }
+        }
+    }
+
+    private void reserve(long id, int attempts, AtomicLong committedQuantity) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < attempts; i++) {
+            int quantity = 1 + random.nextInt(3);
+            // some reservations are left to expire on their own
+            Duration ttl = Duration.ofMillis(random.nextInt(10) == 0 ? 1 : 60_000);
+            ProductReservation reservation = reservations.reserve(id, quantity, ttl);
+            if (reservation == null) {
+                continue;
+            }
+            if (random.nextInt(10) == 0 && reservations.commit(reservation.id())) {
+                committedQuantity.addAndGet(quantity);
+            } else {
+                reservations.release(reservation.id());
+            }
+        }
+    }
+
+    private long createProduct(int stock) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Product product = new Product("RESERVED_" + System.nanoTime());
+            product.setStock(stock);
+            productRepository.persist(product);
+            return product.id;
+        });
+    }
+
+    private int stockOf(long id) {
+        return QuarkusTransaction.requiringNew().call(() -> productRepository.findStock(id));
+    }
+}
@@ -0,0 +1,167 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class LegacyStoreOutboxDispatcherTest {
+
+    @InjectMock
+    LegacyStoreManagerGateway legacyStoreManagerGateway;
+    @Inject
+    LegacyStoreOutboxDispatcher dispatcher;
+    @Inject
+    StoreOutboxRepository outboxRepository;
+
+    @BeforeEach
+    void drainEarlierEntries() {
+        // entries written by other tests are delivered to the mock and out of the way
+        while (dispatcher.dispatch() > 0) {
+        }
+        clearInvocations(legacyStoreManagerGateway);
+    }
+
+    @Test
+    void testStoreChangesAreDeliveredAfterTheRequestInOrder() {
+        String name = "OUTBOX_" + System.nanoTime();
+        int id = createStore(name);
+        updateStore(id, name + "_2");
+
+        verifyNoInteractions(legacyStoreManagerGateway);
+        assertEquals(2, entriesOf(id).size());
+
+        dispatcher.dispatch();
+        verify(legacyStoreManagerGateway).createStoreOnLegacySystem(argThat(s -> s.name.equals(name)));
+        verify(legacyStoreManagerGateway, never()).updateStoreOnLegacySystem(any());
+
+        dispatcher.dispatch();
+        verify(legacyStoreManagerGateway).updateStoreOnLegacySystem(argThat(s -> s.name.equals(name + "_2")));
+        assertTrue(entriesOf(id).isEmpty());
+    }
+
+    @Test
+    void testPendingUpdatesOfAStoreAreCoalescedIntoTheNewest() {
+        String name = "OUTBOX_COALESCE_" + System.nanoTime();
+        int id = createStore(name);
+        updateStore(id, name + "_2");
+        updateStore(id, name + "_3");
+        updateStore(id, name + "_4");
+        long coalescedBefore = dispatcher.stats().coalesced();
+
+        dispatcher.dispatch();
+        verify(legacyStoreManagerGateway).createStoreOnLegacySystem(argThat(s -> s.name.equals(name)));
+        verify(legacyStoreManagerGateway, never()).updateStoreOnLegacySystem(any());
+
+        dispatcher.dispatch();
+        verify(legacyStoreManagerGateway).updateStoreOnLegacySystem(argThat(s -> s.name.equals(name + "_4")));
+        verify(legacyStoreManagerGateway, times(1)).updateStoreOnLegacySystem(any());
+        assertTrue(entriesOf(id).isEmpty());
+        assertEquals(coalescedBefore + 2, dispatcher.stats().coalesced());
+
+        given()
+                .when()
+                .get("/admin/store-outbox")
+                .then()
+                .statusCode(200)
+                .body("coalesced", is((int) coalescedBefore + 2));
+    }
+
+    @Test
+    void testFailedDeliveryIsRetriedAndEventuallyDead() {
+        doThrow(new UncheckedIOException(new IOException("legacy system down")))
+                .when(legacyStoreManagerGateway).createStoreOnLegacySystem(any());
+        int id = createStore("OUTBOX_FAIL_" + System.nanoTime());
+
+        dispatcher.dispatch();
+        StoreOutboxEntry entry = entriesOf(id).get(0);
+        assertEquals(StoreOutboxEntry.Status.PENDING, entry.status);
+        assertEquals(1, entry.attempts);
+        assertTrue(entry.nextAttemptAt.isAfter(LocalDateTime.now()));
+        assertTrue(entry.lastError.contains("legacy system down"));
+
+        // not due yet, so the next run leaves it alone
+        dispatcher.dispatch();
+        assertEquals(1, entriesOf(id).get(0).attempts);
+
+        for (int attempt = 2; attempt <= 10; attempt++) {
+            makeDue(id);
+            dispatcher.dispatch();
+        }
+        entry = entriesOf(id).get(0);
+        assertEquals(StoreOutboxEntry.Status.DEAD, entry.status);
+        assertEquals(10, entry.attempts);
+
+        makeDue(id);
+        dispatcher.dispatch();
+        assertEquals(10, entriesOf(id).get(0).attempts);
+    }
+
+    @Test
+    void testUpdatesAreNotSentWhenTheCreationIsDead() {
+        doThrow(new UncheckedIOException(new IOException("legacy system down")))
+                .when(legacyStoreManagerGateway).createStoreOnLegacySystem(any());
+        String name = "OUTBOX_DEAD_CREATE_" + System.nanoTime();
+        int id = createStore(name);
+        updateStore(id, name + "_2");
+
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            makeDue(id);
+            dispatcher.dispatch();
+        }
+        List<StoreOutboxEntry> entries = entriesOf(id);
+        assertEquals(StoreOutboxEntry.Status.DEAD, entries.get(0).status);
+        assertEquals(StoreOutboxEntry.Status.PENDING, entries.get(1).status);
+
+        makeDue(id);
+        dispatcher.dispatch();
+        verify(legacyStoreManagerGateway, never()).updateStoreOnLegacySystem(any());
+        assertEquals(0, entriesOf(id).get(1).attempts);
+    }
+
+    private List<StoreOutboxEntry> entriesOf(long storeId) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> outboxRepository.list("storeId = ?1 order by id", storeId));
+    }
+
+    private void makeDue(long storeId) {
+        QuarkusTransaction.requiringNew().run(() -> outboxRepository.update(
+                "nextAttemptAt = ?1 where storeId = ?2", LocalDateTime.now().minusSeconds(1), storeId));
+    }
+
+    private static int createStore(String name) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(new Store(name))
+                .when()
+                .post("/stores")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+    }
+
+    private static void updateStore(int id, String name) {
+        given()
+                .contentType(ContentType.JSON)
+                .body(new Store(name))
+                .when()
+                .put("/stores/" + id)
+                .then()
+                .statusCode(200);
+    }
+}
@@ -4,14 +4,40 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.core.IsNot.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fulfilment.application.monolith.common.QueryBudgets;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 class StoreEndpointTest {
 
+        @Inject
+        SessionFactory sessionFactory;
+
+        private QueryBudgets queryBudgets;
+
+        @BeforeEach
+        void enforceQueryBudgets() {
+                queryBudgets = QueryBudgets.enforce(sessionFactory.getStatistics());
+        }
+
+        @AfterEach
+        void removeQueryBudgets() {
+                queryBudgets.remove();
+        }
+
         @Test
         void testListAllStores() {
                 given()
@@ -127,4 +153,105 @@ class StoreEndpointTest {
                                 .statusCode(200)
                                 .body("name", not(hasItem(toDeleteName)));
         }
+
+        @Test
+        void testListStoresInKeysetPages() {
+                List<String> all = given()
+                                .when()
+                                .get("/stores")
+                                .then()
+                                .statusCode(200)
+                                .extract().jsonPath().getList("name", String.class);
+
+                List<String> paged = new ArrayList<>();
+                String cursor = null;
+                do {
+                        var request = given().queryParam("limit", 2);
+                        if (cursor != null) {
+                                request.queryParam("after", cursor);
+                        }
+                        ExtractableResponse<Response> page = request
+                                        .when()
+                                        .get("/stores")
+                                        .then()
+                                        .statusCode(200)
+                                        .extract();
+                        List<String> names = page.jsonPath().getList("name", String.class);
+                        assertTrue(names.size() <= 2);
+                        paged.addAll(names);
+                        cursor = page.header("X-Next-Cursor");
+                        if (cursor != null) {
+                                assertTrue(page.header("Link").contains("rel=\"next\""));
+                        }
+                } while (cursor != null);
+
+                assertEquals(all, paged);
+        }
+
+        @Test
+        void testListStoresWithInvalidPaging() {
+                given()
+                                .queryParam("limit", 0)
+                                .when()
+                                .get("/stores")
+                                .then()
+                                .statusCode(422);
+
+                given()
+                                .queryParam("after", "not a cursor")
+                                .when()
+                                .get("/stores")
+                                .then()
+                                .statusCode(422);
+        }
+
+        @Test
+        void testSearchStoresByPrefix() {
+                String suffix = "_" + System.currentTimeMillis();
+                int id = given()
+                                .contentType(ContentType.JSON)
+                                .body("{\"name\": \"ZUNDERT" + suffix + "\"}")
+                                .when()
+                                .post("/stores")
+                                .then()
+                                .statusCode(201)
+                                .extract().path("id");
+                given()
+                                .queryParam("prefix", "zundert" + suffix)
+                                .when()
+                                .get("/stores/search")
+                                .then()
+                                .statusCode(200)
+                                .body("id", is(List.of(id)));
+
+                given()
+                                .contentType(ContentType.JSON)
+                                .body("{\"name\": \"ZÜRICH" + suffix + "\"}")
+                                .when()
+                                .put("/stores/" + id)
+                                .then()
+                                .statusCode(200);
+                given()
+                                .queryParam("prefix", "zundert" + suffix)
+                                .when()
+                                .get("/stores/search")
+                                .then()
+                                .statusCode(200)
+                                .body("size()", is(0));
+                given()
+                                .queryParam("prefix", "zurich" + suffix)
+                                .when()
+                                .get("/stores/search")
+                                .then()
+                                .statusCode(200)
+                                .body("name", is(List.of("ZÜRICH" + suffix)));
+
+                given()
+                                .queryParam("prefix", "z")
+                                .queryParam("limit", 0)
+                                .when()
+                                .get("/stores/search")
+                                .then()
+                                .statusCode(422);
+        }
 }
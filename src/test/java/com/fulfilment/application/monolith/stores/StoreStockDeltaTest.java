@@ -0,0 +1,195 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class StoreStockDeltaTest {
+
+    private static final int THREADS = 16;
+
+    @Inject
+    StoreRepository storeRepository;
+    @Inject
+    StoreStockDeltas stockDeltas;
+
+    @Test
+    void testConcurrentDeltasAreAllApplied() throws Exception {
+        long id = createStore(1000);
+
+        // 1000 increments of 2 and 1000 guarded decrements of 1, all at once
+        runConcurrently(2000, i -> given()
+                .contentType(ContentType.JSON)
+                .body(i % 2 == 0 ? "{\"delta\": 2}" : "{\"delta\": -1}")
+                .when()
+                .post("/stores/" + id + "/stock-delta")
+                .then()
+                .statusCode(200));
+
+        assertEquals(2000, stockOf(id));
+    }
+
+    @Test
+    void testGuardedDeltaCannotGoBelowZero() {
+        long id = createStore(3);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": -5}")
+                .when()
+                .post("/stores/" + id + "/stock-delta")
+                .then()
+                .statusCode(409);
+        assertEquals(3, stockOf(id));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": -5, \"allowNegative\": true}")
+                .when()
+                .post("/stores/" + id + "/stock-delta")
+                .then()
+                .statusCode(200)
+                .body("stock", is(-2));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": 1}")
+                .when()
+                .post("/stores/999999/stock-delta")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testBufferedDeltasAreAppliedByTheFlush() throws Exception {
+        long id = createStore(0);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": 1, \"buffered\": true}")
+                .when()
+                .post("/stores/" + id + "/stock-delta")
+                .then()
+                .statusCode(422);
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": 5, \"buffered\": true, \"allowNegative\": true}")
+                .when()
+                .post("/stores/" + id + "/stock-delta")
+                .then()
+                .statusCode(202)
+                .body("buffered", is(true));
+        assertEquals(0, stockOf(id));
+
+        // flushes run while deltas are still being added
+        runConcurrently(20000, i -> {
+            stockDeltas.add(id, 1);
+            if (i % 1000 == 0) {
+                stockDeltas.flush();
+            }
+        });
+        stockDeltas.flush();
+
+        assertEquals(20005, stockOf(id));
+        assertEquals(0, stockDeltas.flush());
+    }
+
+    @Test
+    void testBufferedDeltasThatWouldOverflowAreRejected() {
+        long id = createStore(0);
+        String body = "{\"delta\": %d, \"buffered\": true, \"allowNegative\": true}";
+
+        for (int delta : new int[] {Integer.MAX_VALUE, 1}) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(String.format(body, delta))
+                    .when()
+                    .post("/stores/" + id + "/stock-delta")
+                    .then()
+                    .statusCode(delta == 1 ? 409 : 202);
+        }
+        stockDeltas.add(id, -Integer.MAX_VALUE + 3);
+        stockDeltas.flush();
+
+        assertEquals(3, stockOf(id));
+    }
+
+    @Test
+    void testDeltaThatWouldOverflowTheStockIsRejected() {
+        long id = createStore(Integer.MAX_VALUE - 1);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": 2, \"allowNegative\": true}")
+                .when()
+                .post("/stores/" + id + "/stock-delta")
+                .then()
+                .statusCode(409)
+                .body("error", is("Stock of store " + id + " would go out of range."));
+        assertEquals(Integer.MAX_VALUE - 1, stockOf(id));
+    }
+
+    @Test
+    void testBufferedDeltaThatWouldOverflowTheStockDoesNotHoldBackTheOthers() {
+        long full = createStore(Integer.MAX_VALUE - 1);
+        long other = createStore(0);
+
+        stockDeltas.add(full, 2);
+        stockDeltas.add(other, 3);
+        assertEquals(1, stockDeltas.flush());
+
+        assertEquals(Integer.MAX_VALUE - 1, stockOf(full));
+        assertEquals(3, stockOf(other));
+        // the delta was dropped, not kept for the next flush
+        stockDeltas.add(other, 1);
+        assertEquals(1, stockDeltas.flush());
+        assertEquals(4, stockOf(other));
+    }
+
+    private long createStore(int stock) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Store store = new Store("STOCK_" + System.nanoTime());
+            store.setQuantityProductsInStock(stock);
+            storeRepository.persist(store);
+            return store.id;
+        });
+    }
+
+    private int stockOf(long id) {
+        return QuarkusTransaction.requiringNew().call(() -> storeRepository
+                .find("id", id).project(StoreView.class).firstResult().quantityProductsInStock());
+    }
+
+    private static void runConcurrently(int tasks, IntTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> task.run(index)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int index);
+    }
+}
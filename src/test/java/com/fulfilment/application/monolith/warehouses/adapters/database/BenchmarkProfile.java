@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+import java.util.Map;
+
+/** Does not log SQL, which would otherwise dominate the latencies measured. */
+public class BenchmarkProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of("quarkus.hibernate-orm.log.sql", "false");
+    }
+}
@@ -2,8 +2,15 @@ package com.fulfilment.application.monolith.warehouses.adapters.database;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.fulfilment.application.monolith.common.SqlStatementRecorder;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseVersionConflictException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -15,6 +22,9 @@ class WarehouseRepositoryTest {
 
     @Inject
     WarehouseRepository warehouseRepository;
+    @Inject
+    @PersistenceUnitExtension
+    SqlStatementRecorder statementRecorder;
 
     @Test
     @Transactional
@@ -33,6 +43,18 @@ class WarehouseRepositoryTest {
         assertEquals(100, found.getCapacity());
     }
 
+    @Test
+    void testCreateWithExistingCodeFails() {
+        Warehouse duplicate = new Warehouse();
+        duplicate.setBusinessUnitCode("MWH.012");
+        duplicate.setLocation("TEST-LOC");
+        duplicate.setCapacity(10);
+
+        WarehouseValidationException e = assertThrows(WarehouseValidationException.class,
+                () -> QuarkusTransaction.requiringNew().run(() -> warehouseRepository.create(duplicate)));
+        assertEquals("Business unit code already exists: MWH.012", e.getMessage());
+    }
+
     @Test
     @Transactional
     void testUpdate() {
@@ -51,6 +73,52 @@ class WarehouseRepositoryTest {
         assertEquals(200, updated.getCapacity());
     }
 
+    @Test
+    @Transactional
+    void testUpdateChecksTheVersion() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode("TEST-BU-VERSION");
+        warehouse.setLocation("TEST-LOC");
+        warehouse.setCapacity(100);
+        warehouse.setStock(0);
+        warehouseRepository.create(warehouse);
+
+        Warehouse first = warehouseRepository.findByBusinessUnitCode("TEST-BU-VERSION");
+        Warehouse second = warehouseRepository.findByBusinessUnitCode("TEST-BU-VERSION");
+        first.setCapacity(150);
+        warehouseRepository.update(first);
+        assertEquals(second.getVersion() + 1, first.getVersion());
+
+        second.setCapacity(200);
+        assertThrows(WarehouseVersionConflictException.class, () -> warehouseRepository.update(second));
+        assertEquals(150, warehouseRepository.findByBusinessUnitCode("TEST-BU-VERSION").getCapacity());
+    }
+
+    @Test
+    void testWritesByCodeAreSingleStatements() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode("TEST-BU-DIRECT");
+        warehouse.setLocation("TEST-LOC");
+        warehouse.setCapacity(100);
+        warehouse.setStock(0);
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.create(warehouse));
+
+        warehouse.setCapacity(120);
+        statementRecorder.clear();
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.update(warehouse));
+        assertEquals(1, statementRecorder.statements().size(), () -> "update: " + statementRecorder.statements());
+
+        warehouse.setArchivedAt(java.time.ZonedDateTime.now());
+        statementRecorder.clear();
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.archive(warehouse));
+        assertEquals(1, statementRecorder.statements().size(), () -> "archive: " + statementRecorder.statements());
+
+        statementRecorder.clear();
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.remove(warehouse));
+        assertEquals(1, statementRecorder.statements().size(), () -> "remove: " + statementRecorder.statements());
+        assertNull(warehouseRepository.findByBusinessUnitCode("TEST-BU-DIRECT"));
+    }
+
     @Test
     void testCountActiveByLocation() {
         // Rely on import.sql but don't modify it
@@ -86,4 +154,32 @@ class WarehouseRepositoryTest {
         // At least the 3 from import.sql should be active
         org.hamcrest.MatcherAssert.assertThat(active.size(), org.hamcrest.Matchers.greaterThanOrEqualTo(3));
     }
+
+    @Test
+    @Transactional
+    void testListActivePageContinuesAfterTheCursor() {
+        for (String code : List.of("PAGE-BU-3", "PAGE-BU-1", "PAGE-BU-2")) {
+            Warehouse warehouse = new Warehouse();
+            warehouse.setBusinessUnitCode(code);
+            warehouse.setLocation("PAGE-LOC");
+            warehouse.setCapacity(10);
+            warehouse.setStock(0);
+            warehouseRepository.create(warehouse);
+        }
+
+        List<Warehouse> first = warehouseRepository.listActivePage("PAGE-BU", 2);
+        assertEquals(List.of("PAGE-BU-1", "PAGE-BU-2"),
+                first.stream().map(Warehouse::getBusinessUnitCode).toList());
+
+        List<Warehouse> second = warehouseRepository.listActivePage("PAGE-BU-2", 2);
+        assertEquals("PAGE-BU-3", second.get(0).getBusinessUnitCode());
+    }
+
+    @Test
+    void testForEachActiveVisitsActiveWarehousesInOrder() {
+        List<String> codes = new java.util.ArrayList<>();
+        warehouseRepository.forEachActive(warehouse -> codes.add(warehouse.getBusinessUnitCode()));
+
+        assertEquals(warehouseRepository.listActive().stream().map(Warehouse::getBusinessUnitCode).toList(), codes);
+    }
 }
@@ -0,0 +1,95 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fulfilment.application.monolith.common.SqlStatementRecorder;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the former load-copy-persist update with the direct UPDATE by business unit code, in
+ * statements and latency per update, with SQL logging off. Excluded from the default build; run with
+ * {@code ./mvnw test -Pbenchmark -Dtest=WarehouseUpdateBenchmarkTest}.
+ */
+@QuarkusTest
+@TestProfile(BenchmarkProfile.class)
+@Tag("benchmark")
+class WarehouseUpdateBenchmarkTest {
+
+    private static final Logger LOGGER = Logger.getLogger(WarehouseUpdateBenchmarkTest.class.getName());
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 2000;
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+    @Inject
+    @PersistenceUnitExtension
+    SqlStatementRecorder statementRecorder;
+
+    @Test
+    void compareUpdatePaths() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode("BENCH-UPDATE-" + System.currentTimeMillis());
+        warehouse.setLocation("BENCH-LOC");
+        warehouse.setCapacity(0);
+        warehouse.setStock(0);
+        QuarkusTransaction.requiringNew().run(() -> warehouseRepository.create(warehouse));
+
+        Result loadAndPersist = measure(warehouse, this::loadAndPersist);
+        Result direct = measure(warehouse, w -> {
+            w.setVersion(null);
+            warehouseRepository.update(w);
+        });
+
+        // a select and an update, against the update alone
+        assertEquals(2, loadAndPersist.statements);
+        assertEquals(1, direct.statements);
+
+        LOGGER.infof("load + persist : %d statements/update, p50 %6.1f us, p99 %6.1f us",
+                loadAndPersist.statements, loadAndPersist.p50Micros, loadAndPersist.p99Micros);
+        LOGGER.infof("direct update  : %d statements/update, p50 %6.1f us, p99 %6.1f us",
+                direct.statements, direct.p50Micros, direct.p99Micros);
+    }
+
+    // the update path as it was before: find the managed entity, copy the fields, let dirty checking flush
+    private void loadAndPersist(Warehouse warehouse) {
+        DbWarehouse db = warehouseRepository.find("businessUnitCode", warehouse.getBusinessUnitCode()).firstResult();
+        db.setLocation(warehouse.getLocation());
+        db.setCapacity(warehouse.getCapacity());
+        db.setStock(warehouse.getStock());
+        warehouseRepository.persist(db);
+    }
+
+    private Result measure(Warehouse warehouse, Consumer<Warehouse> update) {
+        for (int i = 0; i < WARMUP; i++) {
+            warehouse.setCapacity(i);
+            QuarkusTransaction.requiringNew().run(() -> update.accept(warehouse));
+        }
+
+        long[] nanos = new long[ITERATIONS];
+        statementRecorder.clear();
+        for (int i = 0; i < ITERATIONS; i++) {
+            warehouse.setCapacity(i);
+            long start = System.nanoTime();
+            QuarkusTransaction.requiringNew().run(() -> update.accept(warehouse));
+            nanos[i] = System.nanoTime() - start;
+        }
+        int statements = statementRecorder.statements().size() / ITERATIONS;
+
+        Arrays.sort(nanos);
+        return new Result(statements, nanos[ITERATIONS / 2] / 1000.0, nanos[ITERATIONS * 99 / 100] / 1000.0);
+    }
+
+    private record Result(int statements, double p50Micros, double p99Micros) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.common.SqlStatementRecorder;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class WarehouseCreateStatementCountTest {
+
+    @Inject
+    @PersistenceUnitExtension
+    SqlStatementRecorder statementRecorder;
+
+    @Test
+    void testCreateIsASingleInsert() {
+        com.warehouse.api.beans.Warehouse warehouse = new com.warehouse.api.beans.Warehouse();
+        warehouse.setId("MWH.STMT_" + System.currentTimeMillis());
+        warehouse.setLocation("AMSTERDAM-001");
+        warehouse.setCapacity(5);
+        warehouse.setStock(0);
+
+        statementRecorder.clear();
+        given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when()
+                .post("/warehouse")
+                .then()
+                .statusCode(200)
+                .body("id", is(warehouse.getId()));
+
+        List<String> statements = statementRecorder.statements();
+        assertEquals(1, statements.size(), () -> "Unexpected statements: " + statements);
+        assertTrue(statements.get(0).startsWith("insert into warehouse"));
+    }
+
+    @Test
+    void testDuplicateCodeIsRejectedByTheConstraint() {
+        com.warehouse.api.beans.Warehouse warehouse = new com.warehouse.api.beans.Warehouse();
+        warehouse.setId("MWH.001");
+        warehouse.setLocation("AMSTERDAM-001");
+        warehouse.setCapacity(5);
+        warehouse.setStock(0);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when()
+                .post("/warehouse")
+                .then()
+                .statusCode(400)
+                .body(org.hamcrest.Matchers.containsString("Business unit code already exists: MWH.001"));
+    }
+}
@@ -3,14 +3,48 @@ package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fulfilment.application.monolith.common.QueryBudgets;
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.warehouse.api.beans.WarehouseBatch;
+import com.warehouse.api.beans.WarehouseOperation;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 class WarehouseResourceTest {
 
+    @Inject
+    SessionFactory sessionFactory;
+    @Inject
+    LocationOccupancyLedger occupancyLedger;
+
+    private QueryBudgets queryBudgets;
+
+    @BeforeEach
+    void enforceQueryBudgets() {
+        queryBudgets = QueryBudgets.enforce(sessionFactory.getStatistics());
+    }
+
+    @AfterEach
+    void removeQueryBudgets() {
+        queryBudgets.remove();
+    }
+
     @Test
     void testListAllWarehouses() {
         given()
@@ -22,6 +56,67 @@ class WarehouseResourceTest {
                 .body("id", hasItem("MWH.012"));
     }
 
+    @Test
+    void testListWarehousesByPage() {
+        // other tests add warehouses, so start from a cursor just before the seeded ones
+        given()
+                .queryParam("after", "MWH.000")
+                .queryParam("limit", 1)
+                .when()
+                .get("/warehouse")
+                .then()
+                .statusCode(200)
+                .body("id", is(List.of("MWH.001")));
+
+        given()
+                .queryParam("after", "MWH.001")
+                .queryParam("limit", 1)
+                .when()
+                .get("/warehouse")
+                .then()
+                .statusCode(200)
+                .body("id", is(List.of("MWH.012")));
+    }
+
+    @Test
+    void testListWarehousesAfterACursorWithoutLimitReturnsADefaultPage() {
+        given()
+                .queryParam("after", "MWH.012")
+                .when()
+                .get("/warehouse")
+                .then()
+                .statusCode(200)
+                .body("id[0]", is("MWH.023"))
+                .body("id", org.hamcrest.Matchers.not(hasItem("MWH.001")))
+                .body("size()", org.hamcrest.Matchers.lessThanOrEqualTo(100));
+    }
+
+    @Test
+    void testListWarehousesWithInvalidLimit() {
+        given()
+                .queryParam("limit", 0)
+                .when()
+                .get("/warehouse")
+                .then()
+                .statusCode(422);
+    }
+
+    @Test
+    void testStreamWarehouses() {
+        String body = given()
+                .when()
+                .get("/warehouse/stream")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract()
+                .asString();
+
+        List<String> lines = body.lines().toList();
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"id\":\"MWH.001\"")));
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{") && line.endsWith("}")));
+    }
+
     @Test
     void testGetWarehouseById() {
         // Testing a warehouse that is likely not modified by other tests
@@ -78,6 +173,86 @@ class WarehouseResourceTest {
                 .statusCode(422);
     }
 
+    @Test
+    void testReplaceWarehouseRequiresCurrentETag() {
+        com.warehouse.api.beans.Warehouse warehouse = new com.warehouse.api.beans.Warehouse();
+        warehouse.setId("MWH.REPLACE_" + System.currentTimeMillis());
+        warehouse.setLocation("VETSBY-001");
+        warehouse.setCapacity(20);
+        warehouse.setStock(0);
+        given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when()
+                .post("/warehouse")
+                .then()
+                .statusCode(200);
+
+        String etag = given()
+                .when()
+                .get("/warehouse/" + warehouse.getId())
+                .then()
+                .statusCode(200)
+                .header("ETag", is("\"0\""))
+                .extract()
+                .header("ETag");
+
+        warehouse.setCapacity(30);
+        given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when()
+                .put("/warehouse/" + warehouse.getId())
+                .then()
+                .statusCode(428);
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", etag)
+                .body(warehouse)
+                .when()
+                .put("/warehouse/" + warehouse.getId())
+                .then()
+                .statusCode(200)
+                .header("ETag", is("\"1\""))
+                .body("capacity", is(30));
+
+        // a second writer still holding the first ETag loses
+        warehouse.setCapacity(40);
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", etag)
+                .body(warehouse)
+                .when()
+                .put("/warehouse/" + warehouse.getId())
+                .then()
+                .statusCode(412);
+
+        given()
+                .when()
+                .get("/warehouse/" + warehouse.getId())
+                .then()
+                .statusCode(200)
+                .body("capacity", is(30));
+    }
+
+    @Test
+    void testReplaceNonExistentWarehouse() {
+        com.warehouse.api.beans.Warehouse warehouse = new com.warehouse.api.beans.Warehouse();
+        warehouse.setLocation("VETSBY-001");
+        warehouse.setCapacity(10);
+        warehouse.setStock(0);
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "*")
+                .body(warehouse)
+                .when()
+                .put("/warehouse/NONEXISTENT")
+                .then()
+                .statusCode(404);
+    }
+
     @Test
     void testArchiveWarehouse() {
         // We'll create one then archive it to be safe
@@ -110,4 +285,157 @@ class WarehouseResourceTest {
                 .statusCode(200)
                 .body("id", org.hamcrest.Matchers.not(hasItem(toArchive.getId())));
     }
+
+    @Test
+    void testArchiveWhileTheLocationIsBusyIsAConflict() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> QuarkusTransaction.requiringNew().run(() -> {
+                occupancyLedger.lockLocations("TILBURG-001");
+                locked.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            given()
+                    .when()
+                    .delete("/warehouse/MWH.023")
+                    .then()
+                    .statusCode(409);
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        given()
+                .when()
+                .get("/warehouse/MWH.023")
+                .then()
+                .statusCode(200);
+    }
+
+    @Test
+    void testApplyBatch() {
+        // EINDHOVEN-001 allows 2 warehouses and a total capacity of 70
+        String prefix = "MWH.BATCH_" + System.currentTimeMillis();
+        WarehouseBatch batch = new WarehouseBatch();
+        batch.setOperations(List.of(
+                operation(WarehouseOperation.Action.create, prefix + "_A", "EINDHOVEN-001", 30),
+                operation(WarehouseOperation.Action.create, prefix + "_B", "EINDHOVEN-001", 30),
+                operation(WarehouseOperation.Action.create, prefix + "_C", "EINDHOVEN-001", 5),
+                operation(WarehouseOperation.Action.archive, prefix + "_A", null, null),
+                operation(WarehouseOperation.Action.create, prefix + "_C", "EINDHOVEN-001", 40)));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(batch)
+                .when()
+                .post("/warehouse/batch")
+                .then()
+                .statusCode(200)
+                .body("applied", is(4))
+                .body("rejected", is(1))
+                .body("results[2].status", is("rejected"))
+                .body("results[2].error", is(
+                        "Maximum number of warehouses (2) already reached for location: EINDHOVEN-001"))
+                .body("results[4].status", is("applied"));
+
+        given()
+                .when()
+                .get("/warehouse/" + prefix + "_C")
+                .then()
+                .statusCode(200)
+                .body("capacity", is(40));
+        given()
+                .when()
+                .get("/warehouse/" + prefix + "_A")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testArchiveInBulkKeepsOccupancyInSync() {
+        // HELMOND-001 allows a single warehouse, so each archive frees the slot for the next create
+        String id = "MWH.BULK_" + System.currentTimeMillis();
+        createAt(id + "_A", "HELMOND-001", 20);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("location", "HELMOND-001"))
+                .when()
+                .post("/warehouse/archive")
+                .then()
+                .statusCode(200)
+                .body("archived", is(1));
+        given()
+                .when()
+                .get("/admin/warehouse-occupancy/HELMOND-001")
+                .then()
+                .statusCode(200)
+                .body("activeWarehouses", is(0))
+                .body("totalCapacity", is(0));
+
+        createAt(id + "_B", "HELMOND-001", 25);
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("ids", List.of(id + "_A", id + "_B", "NONEXISTENT")))
+                .when()
+                .post("/warehouse/archive")
+                .then()
+                .statusCode(200)
+                .body("archived", is(1));
+        given()
+                .when()
+                .get("/admin/warehouse-occupancy/HELMOND-001")
+                .then()
+                .statusCode(200)
+                .body("activeWarehouses", is(0))
+                .body("totalCapacity", is(0));
+    }
+
+    @Test
+    void testArchiveInBulkRequiresLocationOrIds() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of())
+                .when()
+                .post("/warehouse/archive")
+                .then()
+                .statusCode(422);
+    }
+
+    private static void createAt(String id, String location, int capacity) {
+        com.warehouse.api.beans.Warehouse warehouse = new com.warehouse.api.beans.Warehouse();
+        warehouse.setId(id);
+        warehouse.setLocation(location);
+        warehouse.setCapacity(capacity);
+        warehouse.setStock(0);
+        given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when()
+                .post("/warehouse")
+                .then()
+                .statusCode(200);
+    }
+
+    private static WarehouseOperation operation(
+            WarehouseOperation.Action action, String id, String location, Integer capacity) {
+        com.warehouse.api.beans.Warehouse warehouse = new com.warehouse.api.beans.Warehouse();
+        warehouse.setId(id);
+        warehouse.setLocation(location);
+        warehouse.setCapacity(capacity);
+        warehouse.setStock(0);
+        WarehouseOperation operation = new WarehouseOperation();
+        operation.setAction(action);
+        operation.setWarehouse(warehouse);
+        return operation;
+    }
 }
@@ -0,0 +1,104 @@
+package com.fulfilment.application.monolith.warehouses.domain;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fulfilment.application.monolith.common.TransactionCallbacks;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class LocationOccupancyLedgerTest {
+
+    @Mock
+    private WarehouseStore warehouseStore;
+    @Mock
+    private TransactionSynchronizationRegistry registry;
+
+    private LocationOccupancyLedger ledger;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(registry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        ledger = new LocationOccupancyLedger(
+                warehouseStore, new TransactionCallbacks(registry), Duration.ofMillis(50));
+    }
+
+    @Test
+    void testRebuildLoadsAggregatesFromStore() {
+        when(warehouseStore.occupancyByLocation())
+                .thenReturn(Map.of("LOC-1", new LocationOccupancy(2, 80)));
+
+        ledger.rebuild();
+
+        assertEquals(new LocationOccupancy(2, 80), ledger.occupancyOf("LOC-1"));
+        assertEquals(LocationOccupancy.EMPTY, ledger.occupancyOf("LOC-2"));
+    }
+
+    @Test
+    void testRecordedChangesAreApplied() {
+        when(warehouseStore.occupancyByLocation())
+                .thenReturn(Map.of("LOC-1", new LocationOccupancy(2, 80)));
+        ledger.rebuild();
+
+        ledger.recordAfterCommit("LOC-1", 1, 20);
+        ledger.recordAfterCommit("LOC-1", -1, -50);
+        ledger.recordAfterCommit("LOC-2", 1, 10);
+
+        assertEquals(new LocationOccupancy(2, 50), ledger.occupancyOf("LOC-1"));
+        assertEquals(new LocationOccupancy(1, 10), ledger.occupancyOf("LOC-2"));
+    }
+
+    @Test
+    void testChangesAreDeferredWhileTransactionIsActive() {
+        when(registry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        ledger.recordAfterCommit("LOC-1", 1, 20);
+
+        assertEquals(LocationOccupancy.EMPTY, ledger.occupancyOf("LOC-1"));
+        verify(registry).registerInterposedSynchronization(any());
+    }
+
+    @Test
+    void testConsistencyCheckReportsAndRepairsDrift() {
+        when(warehouseStore.occupancyByLocation())
+                .thenReturn(Map.of("LOC-1", new LocationOccupancy(2, 80)));
+        ledger.rebuild();
+        ledger.recordAfterCommit("LOC-1", 1, 20);
+
+        OccupancyConsistencyReport report = ledger.checkConsistency(false);
+        assertFalse(report.isConsistent());
+        assertEquals(new LocationOccupancy(3, 100), report.drifts().get(0).ledger());
+        assertEquals(new LocationOccupancy(3, 100), ledger.occupancyOf("LOC-1"));
+
+        OccupancyConsistencyReport repaired = ledger.checkConsistency(true);
+        assertTrue(repaired.repaired());
+        assertEquals(new LocationOccupancy(2, 80), ledger.occupancyOf("LOC-1"));
+        assertTrue(ledger.checkConsistency(false).isConsistent());
+    }
+
+    @Test
+    void testLockedLocationIsBusyForOtherTransactionsOnly() {
+        when(registry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        ledger.lockLocations("LOC-1");
+
+        // the mocked registry keeps no resources, so each call behaves like a new transaction
+        assertThrows(LocationBusyException.class, () -> ledger.lockLocations("LOC-1"));
+        assertDoesNotThrow(() -> ledger.lockLocations("LOC-2"));
+    }
+
+    @Test
+    void testLockIsReleasedWithoutTransaction() {
+        ledger.lockLocations("LOC-1");
+        assertDoesNotThrow(() -> ledger.lockLocations("LOC-1"));
+    }
+}
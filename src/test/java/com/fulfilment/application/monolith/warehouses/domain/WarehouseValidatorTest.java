@@ -4,9 +4,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
-import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
-import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -14,17 +13,17 @@ import org.mockito.MockitoAnnotations;
 
 class WarehouseValidatorTest {
 
-    @Mock
-    private WarehouseStore warehouseStore;
     @Mock
     private LocationResolver locationResolver;
+    @Mock
+    private LocationOccupancyLedger occupancyLedger;
 
     private WarehouseValidator validator;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        validator = new WarehouseValidator(warehouseStore, locationResolver);
+        validator = new WarehouseValidator(locationResolver, occupancyLedger);
     }
 
     @Test
@@ -42,36 +41,24 @@ class WarehouseValidatorTest {
     assertThrows(WarehouseValidationException.class, () -> validator.validateLocation("UNKNOWN"));
   }
 
-  @Test
-  void testValidateBusinessUnitCodeUniqueSuccess() {
-    when(warehouseStore.findByBusinessUnitCode("NEW-BU")).thenReturn(null);
-    assertDoesNotThrow(() -> validator.validateBusinessUnitCodeUnique("NEW-BU"));
-  }
-
-  @Test
-  void testValidateBusinessUnitCodeUniqueFails() {
-    when(warehouseStore.findByBusinessUnitCode("OLD-BU")).thenReturn(new Warehouse());
-    assertThrows(WarehouseValidationException.class, () -> validator.validateBusinessUnitCodeUnique("OLD-BU"));
-  }
-
     @Test
     void testValidateLocationFeasibilitySuccess() {
         Location loc = new Location("LOC-1", 2, 100);
-        when(warehouseStore.countActiveByLocation("LOC-1")).thenReturn(1L);
+        when(occupancyLedger.occupancyOf("LOC-1")).thenReturn(new LocationOccupancy(1, 0));
         assertDoesNotThrow(() -> validator.validateLocationFeasibility(loc, "LOC-1"));
     }
 
     @Test
     void testValidateLocationFeasibilityFails() {
         Location loc = new Location("LOC-1", 1, 100);
-        when(warehouseStore.countActiveByLocation("LOC-1")).thenReturn(1L);
+        when(occupancyLedger.occupancyOf("LOC-1")).thenReturn(new LocationOccupancy(1, 0));
         assertThrows(WarehouseValidationException.class, () -> validator.validateLocationFeasibility(loc, "LOC-1"));
     }
 
     @Test
     void testValidateCapacitySuccess() {
         Location loc = new Location("LOC-1", 2, 200);
-        when(warehouseStore.sumCapacityByLocation("LOC-1")).thenReturn(150);
+        when(occupancyLedger.occupancyOf("LOC-1")).thenReturn(new LocationOccupancy(1, 150));
         // 150 - 50 (existing) + 80 (new) = 180 <= 200
         assertDoesNotThrow(() -> validator.validateCapacity(loc, "LOC-1", 80, 50));
     }
@@ -79,7 +66,7 @@ class WarehouseValidatorTest {
     @Test
     void testValidateCapacityFails() {
         Location loc = new Location("LOC-1", 2, 200);
-        when(warehouseStore.sumCapacityByLocation("LOC-1")).thenReturn(150);
+        when(occupancyLedger.occupancyOf("LOC-1")).thenReturn(new LocationOccupancy(1, 150));
         // 150 - 0 + 60 = 210 > 200
         assertThrows(WarehouseValidationException.class, () -> validator.validateCapacity(loc, "LOC-1", 60, null));
     }
@@ -0,0 +1,165 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidator;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCommand;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCommandResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class ApplyWarehouseBatchUseCaseTest {
+
+    @Mock
+    private WarehouseStore warehouseStore;
+    @Mock
+    private LocationResolver locationResolver;
+    @Mock
+    private LocationOccupancyLedger occupancyLedger;
+
+    private ApplyWarehouseBatchUseCase useCase;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        WarehouseValidator validator = new WarehouseValidator(locationResolver, occupancyLedger);
+        useCase = new ApplyWarehouseBatchUseCase(warehouseStore, validator, locationResolver, occupancyLedger);
+
+        when(locationResolver.resolveByIdentifier("LOC-1")).thenReturn(new Location("LOC-1", 3, 100));
+        when(locationResolver.resolveByIdentifier("LOC-2")).thenReturn(new Location("LOC-2", 2, 50));
+        when(occupancyLedger.occupancyOf("LOC-1")).thenReturn(new LocationOccupancy(1, 40));
+        when(occupancyLedger.occupancyOf("LOC-2")).thenReturn(LocationOccupancy.EMPTY);
+    }
+
+    @Test
+    void testCapacityIsValidatedCumulativelyAcrossTheBatch() {
+        List<WarehouseCommandResult> results = useCase.apply(List.of(
+                command(WarehouseCommand.Action.CREATE, warehouse("BU-1", "LOC-1", 30, 0)),
+                command(WarehouseCommand.Action.CREATE, warehouse("BU-2", "LOC-1", 40, 0)),
+                command(WarehouseCommand.Action.CREATE, warehouse("BU-3", "LOC-1", 30, 0))));
+
+        assertTrue(results.get(0).isApplied());
+        assertFalse(results.get(1).isApplied());
+        assertEquals("Total capacity would exceed location max capacity 100 for location: LOC-1",
+                results.get(1).getError());
+        assertTrue(results.get(2).isApplied());
+
+        // none exists, so they are not read again under the locks
+        verify(warehouseStore).findByBusinessUnitCodes(Set.of("BU-1", "BU-2", "BU-3"));
+        verify(locationResolver, times(1)).resolveByIdentifier("LOC-1");
+        verify(occupancyLedger).lockLocations("LOC-1");
+        verify(warehouseStore).createAll(argThat(created -> created.size() == 2));
+        verify(occupancyLedger).recordAfterCommit("LOC-1", 2, 60);
+    }
+
+    @Test
+    void testExistingAndDuplicateCodesAreRejected() {
+        when(warehouseStore.findByBusinessUnitCodes(any())).thenReturn(List.of(warehouse("BU-1", "LOC-1", 40, 0)));
+
+        List<WarehouseCommandResult> results = useCase.apply(List.of(
+                command(WarehouseCommand.Action.CREATE, warehouse("BU-1", "LOC-2", 10, 0)),
+                command(WarehouseCommand.Action.CREATE, warehouse("BU-2", "LOC-2", 10, 0)),
+                command(WarehouseCommand.Action.CREATE, warehouse("BU-2", "LOC-2", 10, 0)),
+                command(WarehouseCommand.Action.CREATE, warehouse("BU-3", "UNKNOWN", 10, 0))));
+
+        assertEquals("Business unit code already exists: BU-1", results.get(0).getError());
+        assertTrue(results.get(1).isApplied());
+        assertEquals("Business unit code already exists: BU-2", results.get(2).getError());
+        assertEquals("Invalid or unknown location: UNKNOWN", results.get(3).getError());
+        verify(occupancyLedger).lockLocations("LOC-1", "LOC-2");
+        verify(occupancyLedger).recordAfterCommit("LOC-2", 1, 10);
+    }
+
+    @Test
+    void testReplaceAndArchiveFreeUpTheirLocation() {
+        when(warehouseStore.findByBusinessUnitCodes(any())).thenReturn(List.of(
+                warehouse("BU-1", "LOC-1", 20, 5),
+                warehouse("BU-2", "LOC-1", 20, 0)));
+
+        List<WarehouseCommandResult> results = useCase.apply(List.of(
+                command(WarehouseCommand.Action.REPLACE, warehouse("BU-1", "LOC-2", 50, 5)),
+                command(WarehouseCommand.Action.CREATE, warehouse("BU-3", "LOC-2", 10, 0)),
+                command(WarehouseCommand.Action.ARCHIVE, warehouse("BU-2", null, null, null)),
+                command(WarehouseCommand.Action.ARCHIVE, warehouse("BU-2", null, null, null))));
+
+        assertTrue(results.get(0).isApplied());
+        assertEquals("Total capacity would exceed location max capacity 50 for location: LOC-2",
+                results.get(1).getError());
+        assertTrue(results.get(2).isApplied());
+        assertEquals("Warehouse already archived: BU-2", results.get(3).getError());
+
+        verify(warehouseStore).createAll(List.of());
+        verify(warehouseStore).updateAll(argThat(updated -> updated.size() == 2));
+        verify(occupancyLedger).recordAfterCommit("LOC-1", -2, -40);
+        verify(occupancyLedger).recordAfterCommit("LOC-2", 1, 50);
+    }
+
+    @Test
+    void testChangesToAWarehouseCreatedInTheBatchStayAnInsert() {
+        List<WarehouseCommandResult> results = useCase.apply(List.of(
+                command(WarehouseCommand.Action.CREATE, warehouse("BU-1", "LOC-2", 10, 0)),
+                command(WarehouseCommand.Action.REPLACE, warehouse("BU-1", "LOC-2", 25, 0))));
+
+        assertTrue(results.stream().allMatch(WarehouseCommandResult::isApplied));
+        verify(warehouseStore).createAll(argThat(created ->
+                created.size() == 1 && created.get(0).getCapacity() == 25));
+        verify(warehouseStore).updateAll(List.of());
+        verify(occupancyLedger).recordAfterCommit("LOC-2", 1, 25);
+    }
+
+    @Test
+    void testWarehousesAreValidatedAsReadAgainUnderTheLocks() {
+        Warehouse replaced = warehouse("BU-1", "LOC-1", 30, 0);
+        replaced.setVersion(1L);
+        when(warehouseStore.findByBusinessUnitCodes(any())).thenReturn(
+                List.of(warehouse("BU-1", "LOC-1", 20, 0)),
+                List.of(replaced));
+
+        List<WarehouseCommandResult> results = useCase.apply(List.of(
+                command(WarehouseCommand.Action.REPLACE, warehouse("BU-1", "LOC-1", 50, 0))));
+
+        assertTrue(results.get(0).isApplied());
+        verify(warehouseStore).updateAll(argThat(updated ->
+                updated.size() == 1 && updated.get(0).getVersion() == 1L));
+        // the capacity freed is the one replaced concurrently, not the one first read
+        verify(occupancyLedger).recordAfterCommit("LOC-1", 0, 20);
+    }
+
+    @Test
+    void testWarehouseMovedToAnUnlockedLocationIsRejected() {
+        when(warehouseStore.findByBusinessUnitCodes(any())).thenReturn(
+                List.of(warehouse("BU-1", "LOC-1", 20, 0)),
+                List.of(warehouse("BU-1", "LOC-3", 20, 0)));
+
+        List<WarehouseCommandResult> results = useCase.apply(List.of(
+                command(WarehouseCommand.Action.ARCHIVE, warehouse("BU-1", null, null, null))));
+
+        assertEquals("Warehouse BU-1 was moved by another request during the batch, retry", results.get(0).getError());
+        verify(warehouseStore).updateAll(List.of());
+        verify(occupancyLedger, never()).recordAfterCommit(any(), anyLong(), anyInt());
+    }
+
+    private static WarehouseCommand command(WarehouseCommand.Action action, Warehouse warehouse) {
+        return new WarehouseCommand(action, warehouse);
+    }
+
+    private static Warehouse warehouse(String code, String location, Integer capacity, Integer stock) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode(code);
+        warehouse.setLocation(location);
+        warehouse.setCapacity(capacity);
+        warehouse.setStock(stock);
+        return warehouse;
+    }
+}
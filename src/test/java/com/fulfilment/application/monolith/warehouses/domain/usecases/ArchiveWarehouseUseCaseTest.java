@@ -3,6 +3,7 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
@@ -16,13 +17,15 @@ class ArchiveWarehouseUseCaseTest {
 
     @Mock
     private WarehouseStore warehouseStore;
+    @Mock
+    private LocationOccupancyLedger occupancyLedger;
 
     private ArchiveWarehouseUseCase useCase;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        useCase = new ArchiveWarehouseUseCase(warehouseStore);
+        useCase = new ArchiveWarehouseUseCase(warehouseStore, occupancyLedger);
     }
 
     @Test
@@ -32,12 +35,16 @@ class ArchiveWarehouseUseCaseTest {
 
         Warehouse existing = new Warehouse();
         existing.setBusinessUnitCode("BU-1");
+        existing.setLocation("LOC-1");
+        existing.setCapacity(30);
 
         when(warehouseStore.findByBusinessUnitCode("BU-1")).thenReturn(existing);
 
         useCase.archive(warehouse);
 
-        verify(warehouseStore).update(existing);
+        verify(occupancyLedger).lockLocations("LOC-1");
+        verify(warehouseStore).archive(existing);
+        verify(occupancyLedger).recordAfterCommit("LOC-1", -1, -30);
         assertNotNull(existing.getArchivedAt());
     }
 
@@ -49,7 +56,7 @@ class ArchiveWarehouseUseCaseTest {
         when(warehouseStore.findByBusinessUnitCode("BU-1")).thenReturn(null);
 
         assertThrows(WarehouseValidationException.class, () -> useCase.archive(warehouse));
-        verify(warehouseStore, never()).update(any());
+        verify(warehouseStore, never()).archive(any());
     }
 
     @Test
@@ -64,6 +71,6 @@ class ArchiveWarehouseUseCaseTest {
         when(warehouseStore.findByBusinessUnitCode("BU-1")).thenReturn(existing);
 
         assertThrows(WarehouseValidationException.class, () -> useCase.archive(warehouse));
-        verify(warehouseStore, never()).update(any());
+        verify(warehouseStore, never()).archive(any());
     }
 }
@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class BulkArchiveWarehousesUseCaseTest {
+
+    @Mock
+    private WarehouseStore warehouseStore;
+    @Mock
+    private LocationOccupancyLedger occupancyLedger;
+
+    private BulkArchiveWarehousesUseCase useCase;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        useCase = new BulkArchiveWarehousesUseCase(warehouseStore, occupancyLedger);
+    }
+
+    @Test
+    void testArchiveAllAtLocation() {
+        when(warehouseStore.sumCapacityByLocation("LOC-1")).thenReturn(70);
+        when(warehouseStore.archiveAllAtLocation(eq("LOC-1"), any())).thenReturn(3);
+
+        assertEquals(3, useCase.archiveAllAtLocation("LOC-1"));
+
+        InOrder inOrder = inOrder(occupancyLedger, warehouseStore);
+        inOrder.verify(occupancyLedger).lockLocations("LOC-1");
+        inOrder.verify(warehouseStore).archiveAllAtLocation(eq("LOC-1"), any());
+        verify(occupancyLedger).recordAfterCommit("LOC-1", -3, -70);
+    }
+
+    @Test
+    void testArchiveAllAtEmptyLocationLeavesLedgerAlone() {
+        assertEquals(0, useCase.archiveAllAtLocation("LOC-1"));
+
+        verify(occupancyLedger, never()).recordAfterCommit(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testArchiveAllLocksEveryLocationBeforeArchiving() {
+        List<String> codes = List.of("BU-1", "BU-2");
+        // BU-2 moved to LOC-2 between the first read and taking the lock on LOC-1
+        when(warehouseStore.occupancyOfActive(codes)).thenReturn(
+                Map.of("LOC-1", new LocationOccupancy(2, 30)),
+                Map.of("LOC-1", new LocationOccupancy(1, 10), "LOC-2", new LocationOccupancy(1, 20)),
+                Map.of("LOC-1", new LocationOccupancy(1, 10), "LOC-2", new LocationOccupancy(1, 20)));
+        when(warehouseStore.archiveAll(eq(codes), any())).thenReturn(2);
+
+        assertEquals(2, useCase.archiveAll(codes));
+
+        verify(occupancyLedger).lockLocations("LOC-1");
+        verify(occupancyLedger).lockLocations("LOC-1", "LOC-2");
+        verify(occupancyLedger).recordAfterCommit("LOC-1", -1, -10);
+        verify(occupancyLedger).recordAfterCommit("LOC-2", -1, -20);
+    }
+}
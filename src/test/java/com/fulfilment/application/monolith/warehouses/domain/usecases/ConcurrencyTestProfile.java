@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+import java.util.Map;
+
+/** Adds locations to the registry that only the concurrency tests use, so they start out empty. */
+public class ConcurrencyTestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of("location.registry.file", "src/test/resources/concurrency-test-locations.csv");
+    }
+}
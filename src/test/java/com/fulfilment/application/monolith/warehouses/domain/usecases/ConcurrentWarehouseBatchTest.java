@@ -0,0 +1,156 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCommand;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseCommandResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ApplyWarehouseBatchOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Interleaves a single-warehouse replace with a batch on the same warehouse: the batch reads the
+ * warehouse, the replace commits, and only then does the batch get the location lock.
+ */
+@QuarkusTest
+@TestProfile(ConcurrencyTestProfile.class)
+class ConcurrentWarehouseBatchTest {
+
+    @Inject
+    ApplyWarehouseBatchOperation applyWarehouseBatchOperation;
+    @Inject
+    ReplaceWarehouseOperation replaceWarehouseOperation;
+    @Inject
+    CreateWarehouseOperation createWarehouseOperation;
+    @Inject
+    WarehouseStore warehouseStore;
+    @Inject
+    LocationOccupancyLedger occupancyLedger;
+
+    @Test
+    void testBatchValidatesAgainstAReplaceCommittedBeforeItsLock() throws Exception {
+        String code = create("BATCH-RACE-SAME", "CONC-1", 20);
+
+        WarehouseCommandResult result = interleave(
+                warehouse(code, "CONC-1", 30),
+                command(WarehouseCommand.Action.REPLACE, warehouse(code, "CONC-1", 25)));
+
+        assertTrue(result.isApplied(), result.getError());
+        Warehouse stored = warehouseStore.findByBusinessUnitCode(code);
+        assertEquals(25, stored.getCapacity());
+        // created, replaced, replaced by the batch
+        assertEquals(2L, stored.getVersion());
+        assertLedgerMatchesStore("CONC-1");
+    }
+
+    @Test
+    void testBatchRejectsAWarehouseMovedBeforeItsLock() throws Exception {
+        String code = create("BATCH-RACE-MOVED", "CONC-1", 20);
+
+        WarehouseCommandResult result = interleave(
+                warehouse(code, "CONC-2", 30),
+                command(WarehouseCommand.Action.REPLACE, warehouse(code, "CONC-1", 25)));
+
+        assertEquals("Warehouse " + code + " was moved by another request during the batch, retry",
+                result.getError());
+        Warehouse stored = warehouseStore.findByBusinessUnitCode(code);
+        assertEquals("CONC-2", stored.getLocation());
+        assertEquals(30, stored.getCapacity());
+        assertLedgerMatchesStore("CONC-1");
+        assertLedgerMatchesStore("CONC-2");
+    }
+
+    // holds CONC-1 until the batch has read its warehouses and waits for the lock, then replaces
+    private WarehouseCommandResult interleave(Warehouse replacement, WarehouseCommand batchCommand)
+            throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> batchThread = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> replace = executor.submit(() -> QuarkusTransaction.requiringNew().run(() -> {
+                occupancyLedger.lockLocations("CONC-1");
+                locked.countDown();
+                awaitQuietly(release);
+                replaceWarehouseOperation.replace(replacement);
+            }));
+            assertTrue(locked.await(5, SECONDS));
+
+            Future<List<WarehouseCommandResult>> batch = executor.submit(() -> {
+                batchThread.set(Thread.currentThread());
+                return applyWarehouseBatchOperation.apply(List.of(batchCommand));
+            });
+            awaitWaitingForLocationLock(batchThread);
+
+            release.countDown();
+            replace.get(5, SECONDS);
+            return batch.get(5, SECONDS).get(0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitWaitingForLocationLock(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.nanoTime() + SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Thread current = thread.get();
+            if (current != null && current.getState() == Thread.State.TIMED_WAITING
+                    && Arrays.stream(current.getStackTrace())
+                            .anyMatch(frame -> frame.getMethodName().equals("lockLocations"))) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("The batch did not wait for the location lock");
+    }
+
+    private void assertLedgerMatchesStore(String location) {
+        LocationOccupancy inStore = new LocationOccupancy(
+                warehouseStore.countActiveByLocation(location), warehouseStore.sumCapacityByLocation(location));
+        assertEquals(inStore, occupancyLedger.occupancyOf(location));
+    }
+
+    private String create(String prefix, String location, int capacity) {
+        String code = prefix + "-" + System.nanoTime();
+        createWarehouseOperation.create(warehouse(code, location, capacity));
+        return code;
+    }
+
+    private static WarehouseCommand command(WarehouseCommand.Action action, Warehouse warehouse) {
+        return new WarehouseCommand(action, warehouse);
+    }
+
+    private static Warehouse warehouse(String code, String location, int capacity) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode(code);
+        warehouse.setLocation(location);
+        warehouse.setCapacity(capacity);
+        warehouse.setStock(0);
+        return warehouse;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
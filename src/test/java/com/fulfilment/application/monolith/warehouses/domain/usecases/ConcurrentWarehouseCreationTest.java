@@ -0,0 +1,162 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@TestProfile(ConcurrencyTestProfile.class)
+class ConcurrentWarehouseCreationTest {
+
+    private static final int THREADS = 16;
+
+    @Inject
+    CreateWarehouseOperation createWarehouseOperation;
+    @Inject
+    WarehouseStore warehouseStore;
+    @Inject
+    LocationOccupancyLedger occupancyLedger;
+
+    @Test
+    void testConcurrentCreatesRespectMaxNumberOfWarehouses() throws Exception {
+        // ZWOLLE-002 allows 2 warehouses and a total capacity of 50
+        int created = createConcurrently("ZWOLLE-002", 10);
+
+        assertEquals(2, created);
+        assertEquals(2, warehouseStore.countActiveByLocation("ZWOLLE-002"));
+        assertEquals(new LocationOccupancy(2, 20), occupancyLedger.occupancyOf("ZWOLLE-002"));
+    }
+
+    @Test
+    void testConcurrentCreatesRespectMaxCapacity() throws Exception {
+        // AMSTERDAM-002 allows 3 warehouses but only a total capacity of 75
+        int created = createConcurrently("AMSTERDAM-002", 30);
+
+        assertEquals(2, created);
+        assertEquals(60, warehouseStore.sumCapacityByLocation("AMSTERDAM-002"));
+        assertEquals(new LocationOccupancy(2, 60), occupancyLedger.occupancyOf("AMSTERDAM-002"));
+    }
+
+    @Test
+    void testLocationsAreLockedIndependently() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> holder = executor.submit(() -> QuarkusTransaction.requiringNew().run(() -> {
+                occupancyLedger.lockLocations("HELMOND-001");
+                locked.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(locked.await(5, SECONDS));
+
+            // another location proceeds while HELMOND-001 is held
+            executor.submit(() -> QuarkusTransaction.requiringNew()
+                    .run(() -> occupancyLedger.lockLocations("VETSBY-001")))
+                    .get(1, SECONDS);
+
+            // the same location waits until the holder's transaction completes
+            Future<?> waiter = executor.submit(() -> QuarkusTransaction.requiringNew()
+                    .run(() -> occupancyLedger.lockLocations("HELMOND-001")));
+            assertThrows(TimeoutException.class, () -> waiter.get(300, MILLISECONDS));
+
+            release.countDown();
+            holder.get(5, SECONDS);
+            waiter.get(5, SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCreatesAtDistinctLocationsRunConcurrently() throws Exception {
+        List<String> locations = List.of("CONC-1", "CONC-2", "CONC-3", "CONC-4");
+        // every create keeps its transaction, and so its location lock, open until all of them hold theirs
+        CyclicBarrier allHeld = new CyclicBarrier(locations.size());
+        ExecutorService executor = Executors.newFixedThreadPool(locations.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String location : locations) {
+                Warehouse warehouse = new Warehouse();
+                warehouse.setBusinessUnitCode("CONC-DISTINCT-" + location + "-" + System.nanoTime());
+                warehouse.setLocation(location);
+                warehouse.setCapacity(10);
+                warehouse.setStock(0);
+                futures.add(executor.submit(() -> QuarkusTransaction.requiringNew().call(() -> {
+                    createWarehouseOperation.create(warehouse);
+                    return allHeld.await(5, SECONDS);
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (String location : locations) {
+            assertEquals(new LocationOccupancy(warehouseStore.countActiveByLocation(location),
+                    warehouseStore.sumCapacityByLocation(location)), occupancyLedger.occupancyOf(location));
+        }
+    }
+
+    private int createConcurrently(String location, int capacity) throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Warehouse warehouse = new Warehouse();
+                warehouse.setBusinessUnitCode("CONC-" + location + "-" + i);
+                warehouse.setLocation(location);
+                warehouse.setCapacity(capacity);
+                warehouse.setStock(0);
+                futures.add(executor.submit(() -> {
+                    awaitQuietly(start);
+                    try {
+                        createWarehouseOperation.create(warehouse);
+                        created.incrementAndGet();
+                    } catch (WarehouseValidationException e) {
+                        // rejected by the location limits
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return created.get();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
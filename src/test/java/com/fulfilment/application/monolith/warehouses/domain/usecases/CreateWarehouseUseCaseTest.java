@@ -3,6 +3,7 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidator;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
@@ -19,13 +20,15 @@ class CreateWarehouseUseCaseTest {
     private WarehouseStore warehouseStore;
     @Mock
     private WarehouseValidator validator;
+    @Mock
+    private LocationOccupancyLedger occupancyLedger;
 
     private CreateWarehouseUseCase useCase;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        useCase = new CreateWarehouseUseCase(warehouseStore, validator);
+        useCase = new CreateWarehouseUseCase(warehouseStore, validator, occupancyLedger);
     }
 
     @Test
@@ -38,13 +41,15 @@ class CreateWarehouseUseCaseTest {
 
         when(validator.validateLocation("LOC-1")).thenReturn(new Location("LOC-1", 1, 100));
 
-        useCase.create(warehouse);
+        Warehouse created = useCase.create(warehouse);
 
-        verify(validator).validateBusinessUnitCodeUnique("BU-1");
+        assertSame(warehouse, created);
         verify(validator).validateLocation("LOC-1");
+        verify(occupancyLedger).lockLocations("LOC-1");
         verify(validator).validateLocationFeasibility(any(), eq("LOC-1"));
         verify(validator).validateCapacity(any(), eq("LOC-1"), eq(100), isNull());
         verify(warehouseStore).create(warehouse);
+        verify(occupancyLedger).recordAfterCommit("LOC-1", 1, 100);
         assertNotNull(warehouse.getCreationAt());
     }
 
@@ -60,5 +65,6 @@ class CreateWarehouseUseCaseTest {
 
         assertThrows(WarehouseValidationException.class, () -> useCase.create(warehouse));
         verify(warehouseStore, never()).create(any());
+        verify(occupancyLedger, never()).recordAfterCommit(any(), anyLong(), anyInt());
     }
 }
@@ -3,8 +3,10 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.fulfilment.application.monolith.warehouses.domain.LocationOccupancyLedger;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.WarehouseValidator;
+import com.fulfilment.application.monolith.warehouses.domain.WarehouseVersionConflictException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
@@ -20,13 +22,15 @@ class ReplaceWarehouseUseCaseTest {
     private WarehouseStore warehouseStore;
     @Mock
     private WarehouseValidator validator;
+    @Mock
+    private LocationOccupancyLedger occupancyLedger;
 
     private ReplaceWarehouseUseCase useCase;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        useCase = new ReplaceWarehouseUseCase(warehouseStore, validator);
+        useCase = new ReplaceWarehouseUseCase(warehouseStore, validator, occupancyLedger);
     }
 
     @Test
@@ -51,9 +55,34 @@ class ReplaceWarehouseUseCaseTest {
 
         verify(validator).validateCapacity(any(), eq("LOC-1"), eq(150), eq(100));
         verify(warehouseStore).update(newWarehouse);
+        verify(occupancyLedger).recordAfterCommit("LOC-1", 0, 50);
         assertEquals(existing.getCreationAt(), newWarehouse.getCreationAt());
     }
 
+    @Test
+    void testReplaceAtAnotherLocationMovesOccupancy() {
+        Warehouse existing = new Warehouse();
+        existing.setBusinessUnitCode("BU-1");
+        existing.setLocation("LOC-1");
+        existing.setCapacity(100);
+        existing.setStock(50);
+
+        Warehouse newWarehouse = new Warehouse();
+        newWarehouse.setBusinessUnitCode("BU-1");
+        newWarehouse.setLocation("LOC-2");
+        newWarehouse.setCapacity(80);
+        newWarehouse.setStock(50);
+
+        when(warehouseStore.findByBusinessUnitCode("BU-1")).thenReturn(existing);
+        when(validator.validateLocation("LOC-2")).thenReturn(new Location("LOC-2", 1, 300));
+
+        useCase.replace(newWarehouse);
+
+        verify(occupancyLedger).lockLocations("LOC-1", "LOC-2");
+        verify(occupancyLedger).recordAfterCommit("LOC-1", -1, -100);
+        verify(occupancyLedger).recordAfterCommit("LOC-2", 1, 80);
+    }
+
     @Test
     void testReplaceFailsIfNotFound() {
         Warehouse newWarehouse = new Warehouse();
@@ -77,4 +106,47 @@ class ReplaceWarehouseUseCaseTest {
 
         assertThrows(WarehouseValidationException.class, () -> useCase.replace(newWarehouse));
     }
+
+    @Test
+    void testReplaceFailsIfVersionIsStale() {
+        Warehouse existing = new Warehouse();
+        existing.setBusinessUnitCode("BU-1");
+        existing.setLocation("LOC-1");
+        existing.setVersion(4L);
+
+        Warehouse newWarehouse = new Warehouse();
+        newWarehouse.setBusinessUnitCode("BU-1");
+        newWarehouse.setLocation("LOC-1");
+        newWarehouse.setVersion(3L);
+
+        when(warehouseStore.findByBusinessUnitCode("BU-1")).thenReturn(existing);
+
+        assertThrows(WarehouseVersionConflictException.class, () -> useCase.replace(newWarehouse));
+        verify(warehouseStore, never()).update(any());
+        verifyNoInteractions(occupancyLedger);
+    }
+
+    @Test
+    void testReplaceWithoutVersionReplacesTheVersionRead() {
+        Warehouse existing = new Warehouse();
+        existing.setBusinessUnitCode("BU-1");
+        existing.setLocation("LOC-1");
+        existing.setCapacity(10);
+        existing.setStock(0);
+        existing.setVersion(4L);
+
+        Warehouse newWarehouse = new Warehouse();
+        newWarehouse.setBusinessUnitCode("BU-1");
+        newWarehouse.setLocation("LOC-1");
+        newWarehouse.setCapacity(20);
+        newWarehouse.setStock(0);
+
+        when(warehouseStore.findByBusinessUnitCode("BU-1")).thenReturn(existing);
+        when(validator.validateLocation("LOC-1")).thenReturn(new Location("LOC-1", 1, 300));
+
+        Warehouse replaced = useCase.replace(newWarehouse);
+
+        assertEquals(4L, replaced.getVersion());
+        verify(warehouseStore).update(newWarehouse);
+    }
 }